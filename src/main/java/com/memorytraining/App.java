@@ -1,8 +1,12 @@
 package com.memorytraining;
 
+import com.memorytraining.controller.ExerciseController;
 import com.memorytraining.service.DataService;
+import com.memorytraining.util.StartupTimer;
 import com.memorytraining.view.MainWindow;
+import com.memorytraining.view.StartupShell;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -15,19 +19,20 @@ public class App extends Application {
     private static final String APP_TITLE = "Lost Art - Memory Training";
     private static final int WINDOW_WIDTH = 1200;
     private static final int WINDOW_HEIGHT = 800;
+    /** Print startup phase timings to stderr when set to true */
+    private static final String STARTUP_TIMINGS_PROPERTY = "lostart.startupTimings";
     
-    private DataService dataService;
+    private volatile DataService dataService;
+    private MainWindow mainWindow;
+    private StartupTimer startupTimer;
     
     @Override
     public void start(Stage primaryStage) {
+        startupTimer = new StartupTimer();
         try {
-            // Initialize data service
-            dataService = new DataService();
-            dataService.initializeData();
-            
-            // Create main window
-            MainWindow mainWindow = new MainWindow(dataService);
-            Scene scene = new Scene(mainWindow.getRoot(), WINDOW_WIDTH, WINDOW_HEIGHT);
+            // Show a lightweight shell first so the first frame does not wait for disk I/O
+            StartupShell shell = new StartupShell();
+            Scene scene = new Scene(shell.getRoot(), WINDOW_WIDTH, WINDOW_HEIGHT);
             
             // Load CSS styles
             scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
@@ -37,19 +42,83 @@ public class App extends Application {
             primaryStage.setMinWidth(800);
             primaryStage.setMinHeight(600);
             primaryStage.centerOnScreen();
+            startupTimer.mark("shell-built");
+            
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    startupTimer.mark("first-frame");
+                    scene.removePostLayoutPulseListener(this);
+                }
+            });
             primaryStage.show();
             
+            loadInBackground(scene, shell);
+            
         } catch (Exception e) {
             System.err.println("Error starting application: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
+    /**
+     * Load the profile and everything else read from disk off the FX thread, then build
+     * the main window on the FX thread and swap it in
+     */
+    private void loadInBackground(Scene scene, StartupShell shell) {
+        Thread loader = new Thread(() -> {
+            try {
+                DataService service = new DataService();
+                service.initializeData();
+                dataService = service;
+                startupTimer.mark("profile-loaded");
+                
+                ExerciseController.Preload preload = ExerciseController.Preload.load(service);
+                startupTimer.mark("services-loaded");
+                
+                Platform.runLater(() -> showMainWindow(scene, shell, service, preload));
+            } catch (Exception e) {
+                System.err.println("Error loading application data: " + e.getMessage());
+                e.printStackTrace();
+                Platform.runLater(() -> shell.showError("Could not load your profile: " + e.getMessage()));
+            }
+        }, "startup-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    private void showMainWindow(Scene scene, StartupShell shell, DataService service, ExerciseController.Preload preload) {
+        try {
+            mainWindow = new MainWindow(service, preload);
+            startupTimer.mark("main-window-built");
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    startupTimer.mark("main-window-shown");
+                    scene.removePostLayoutPulseListener(this);
+                    if (Boolean.getBoolean(STARTUP_TIMINGS_PROPERTY)) {
+                        System.err.println(startupTimer.summary());
+                    }
+                }
+            });
+            scene.setRoot(mainWindow.getRoot());
+        } catch (Exception e) {
+            System.err.println("Error building main window: " + e.getMessage());
+            e.printStackTrace();
+            shell.showError("Could not start: " + e.getMessage());
+        }
+    }
+    
     @Override
     public void stop() throws Exception {
-        // Save user data before closing
+        // Let pending score events finish, then save user data before closing
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        }
         if (dataService != null) {
+            dataService.shutdown();
             dataService.saveData();
+            dataService.flushProfiles();
         }
         super.stop();
     }
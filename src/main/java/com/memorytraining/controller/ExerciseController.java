@@ -2,36 +2,215 @@ package com.memorytraining.controller;
 
 import com.memorytraining.model.ExerciseType;
 import com.memorytraining.model.Score;
+import com.memorytraining.model.User;
+import com.memorytraining.service.ContentService;
 import com.memorytraining.service.DataService;
+import com.memorytraining.service.DisplayTimeTable;
 import com.memorytraining.service.ExerciseService;
+import com.memorytraining.service.LeaderboardService;
+import com.memorytraining.service.PercentileService;
+import com.memorytraining.service.ReminderService;
+import com.memorytraining.service.ScoreEventBus;
+import com.memorytraining.service.ScoreEventBus.ScoreEvent;
+import com.memorytraining.service.SessionRecorder;
+import com.memorytraining.service.SyncService;
 import com.memorytraining.view.ExerciseWindow;
+import com.memorytraining.view.LongNumberWindow;
+import javafx.application.Platform;
 import javafx.stage.Window;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
 /**
  * Controller for managing exercise execution
  */
 public class ExerciseController {
+    private static final String SYNC_PORT_PROPERTY = "lostart.sync.port";
+    private static final String SYNC_PEERS_PROPERTY = "lostart.sync.peers";
+    private static final String SYNC_BIND_PROPERTY = "lostart.sync.bind";
+    private static final String SYNC_SECRET_PROPERTY = "lostart.sync.secret";
+    private static final long SYNC_INTERVAL_SECONDS = 60;
+    
     private DataService dataService;
     private ExerciseService exerciseService;
+    private final List<BiConsumer<User, Score>> scoreListeners = new CopyOnWriteArrayList<>();
+    private final ScoreEventBus scoreEventBus;
+    private final LeaderboardService leaderboardService;
+    private final PercentileService percentileService;
+    private final ReminderService reminderService;
+    private final ContentService contentService;
+    private final SyncService syncService;
+    private ScheduledExecutorService syncScheduler;
+    
+    /**
+     * Everything the controller reads from disk, loaded without starting any threads so
+     * it can be done off the FX thread while the startup shell is showing
+     */
+    public static final class Preload {
+        private final DisplayTimeTable displayTimes;
+        private final ContentService contentService;
+        private final LeaderboardService leaderboardService;
+        private final PercentileService percentileService;
+        private final ReminderService reminderService;
+        private final SyncService syncService;
+        
+        private Preload(DataService dataService) {
+            Path dataDirectory = dataService.getDataDirectory();
+            this.displayTimes = DisplayTimeTable.loadOrDefaults(dataDirectory.resolve(DisplayTimeTable.FILE_NAME));
+            this.contentService = new ContentService(dataDirectory);
+            this.leaderboardService = new LeaderboardService(dataDirectory);
+            this.percentileService = new PercentileService(dataDirectory);
+            this.reminderService = new ReminderService(dataDirectory);
+            reminderService.seed(dataService);
+            this.syncService = isSyncConfigured()
+                ? new SyncService(dataDirectory, System.getProperty(SYNC_SECRET_PROPERTY)) : null;
+        }
+        
+        public static Preload load(DataService dataService) {
+            return new Preload(dataService);
+        }
+    }
     
     public ExerciseController(DataService dataService) {
+        this(dataService, Preload.load(dataService));
+    }
+    
+    /**
+     * Build the controller from preloaded state and start its background services
+     */
+    public ExerciseController(DataService dataService, Preload preload) {
         this.dataService = dataService;
         this.exerciseService = new ExerciseService();
+        exerciseService.setDisplayTimeTable(preload.displayTimes);
+        this.contentService = preload.contentService;
+        exerciseService.setContent(contentService.get());
+        contentService.addContentListener(exerciseService::setContent);
+        this.scoreEventBus = new ScoreEventBus();
+        this.leaderboardService = preload.leaderboardService;
+        this.percentileService = preload.percentileService;
+        this.reminderService = preload.reminderService;
+        this.syncService = preload.syncService;
+        
+        // Persistence and UI refresh run off the completion path, one save per batch
+        scoreEventBus.subscribe("persistence", this::persistProfiles);
+        scoreEventBus.subscribe("leaderboard", this::updateLeaderboard);
+        scoreEventBus.subscribe("percentiles", this::updatePercentiles);
+        scoreEventBus.subscribe("ui", this::notifyScoreListeners);
+        if (syncService != null) {
+            scoreEventBus.subscribe("sync", this::journalForSync);
+        }
+        scoreEventBus.start();
+        startSync();
+        userChanged();
+        reminderService.start();
+        contentService.start();
+    }
+    
+    /**
+     * Register a listener notified on the FX thread with the username a training reminder is for
+     */
+    public void addReminderListener(Consumer<String> listener) {
+        reminderService.addReminderListener(username -> Platform.runLater(() -> listener.accept(username)));
+    }
+    
+    /**
+     * Call after switching profiles or changing reminder preferences
+     */
+    public void userChanged() {
+        var user = dataService.getCurrentUser();
+        if (user != null) {
+            reminderService.update(user);
+        }
+    }
+    
+    /**
+     * Register a listener notified on the FX thread after each score has been recorded
+     * for the profile that is current at that point
+     */
+    public void addScoreListener(BiConsumer<User, Score> listener) {
+        scoreListeners.add(listener);
+    }
+    
+    public void removeScoreListener(BiConsumer<User, Score> listener) {
+        scoreListeners.remove(listener);
     }
     
     public void startExercise(ExerciseType exerciseType, Window parentWindow) {
         // Get current level for this exercise type
         int currentLevel = getCurrentLevel(exerciseType);
+        useCurrentUserItems();
         
         // Create and show exercise window
         ExerciseWindow exerciseWindow = new ExerciseWindow(
-            exerciseType, currentLevel, exerciseService, this::onExerciseCompleted
+            exerciseType, currentLevel, exerciseService, newSessionRecorder(exerciseType, currentLevel),
+            this::onExerciseCompleted
         );
         
         exerciseWindow.show(parentWindow);
     }
     
-    private int getCurrentLevel(ExerciseType exerciseType) {
+    /**
+     * Back-to-back rounds in one window; each round's level follows the scores recorded so far
+     */
+    public void startContinuousTraining(ExerciseType exerciseType, Window parentWindow) {
+        useCurrentUserItems();
+        ExerciseWindow.RoundSource rounds = new ExerciseWindow.RoundSource() {
+            @Override
+            public int nextLevel() {
+                return getCurrentLevel(exerciseType);
+            }
+            
+            @Override
+            public SessionRecorder newRecorder(int level) {
+                return newSessionRecorder(exerciseType, level);
+            }
+        };
+        new ExerciseWindow(exerciseType, getCurrentLevel(exerciseType), exerciseService, rounds,
+            this::onExerciseCompleted).show(parentWindow);
+    }
+    
+    /**
+     * Due items and confusions of the current user come back in generated rounds
+     */
+    private void useCurrentUserItems() {
+        var user = dataService.getCurrentUser();
+        exerciseService.setItemMemory(user == null ? null : user.getItemMemory());
+        exerciseService.setConfusions(user == null ? null : user.getConfusions(),
+            user != null && user.getPreferences().isConfusionTrainingEnabled());
+    }
+    
+    private SessionRecorder newSessionRecorder(ExerciseType exerciseType, int level) {
+        var user = dataService.getCurrentUser();
+        String username = user == null ? "Default User" : user.getUsername();
+        return new SessionRecorder(dataService.getSessionsDirectory(username), exerciseType, level);
+    }
+    
+    /**
+     * Long-form number drill; recorded as a Number Memory score at the current level
+     */
+    public void startLongNumberDrill(Window parentWindow) {
+        int currentLevel = getCurrentLevel(ExerciseType.NUMBER_MEMORY);
+        new LongNumberWindow(currentLevel, exerciseService, this::onExerciseCompleted).show(parentWindow);
+    }
+    
+    /**
+     * Level the current user's next round of this type starts at
+     */
+    public int getCurrentLevel(ExerciseType exerciseType) {
         var user = dataService.getCurrentUser();
         if (user == null) return 1;
         
@@ -53,14 +232,172 @@ public class ExerciseController {
         var user = dataService.getCurrentUser();
         if (user != null) {
             user.addScore(score);
+            reminderService.trained(user);
             
-            // Update adaptive level if enabled
-            if (user.getPreferences().isAdaptiveDifficultyEnabled()) {
+            // Update adaptive level if enabled; drills do not move the level
+            if (user.getPreferences().isAdaptiveDifficultyEnabled() && !score.isDrill()) {
                 updateAdaptiveLevel(score);
             }
             
-            // Save data
+            // Persistence and listeners are handled by the event bus subscribers
+            scoreEventBus.publish(user, score);
+        }
+    }
+    
+    /**
+     * Save each profile that gained scores in the batch once
+     */
+    private void persistProfiles(List<ScoreEvent> batch) {
+        Set<User> users = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ScoreEvent event : batch) {
+            users.add(event.getUser());
+        }
+        users.forEach(dataService::profileChanged);
+    }
+    
+    private void updateLeaderboard(List<ScoreEvent> batch) {
+        boolean changed = false;
+        for (ScoreEvent event : batch) {
+            changed |= leaderboardService.record(event.getUsername(), event.getScore());
+        }
+        if (changed) {
+            leaderboardService.save();
+        }
+    }
+    
+    public LeaderboardService getLeaderboardService() {
+        return leaderboardService;
+    }
+    
+    private void updatePercentiles(List<ScoreEvent> batch) {
+        for (ScoreEvent event : batch) {
+            percentileService.record(event.getScore());
+        }
+        percentileService.save();
+    }
+    
+    public PercentileService getPercentileService() {
+        return percentileService;
+    }
+    
+    private void notifyScoreListeners(List<ScoreEvent> batch) {
+        List<ScoreEvent> events = new ArrayList<>(batch);
+        Platform.runLater(() -> {
+            // Scores for a profile that is no longer current have nothing to refresh
+            User current = dataService.getCurrentUser();
+            for (ScoreEvent event : events) {
+                if (event.getUser() != current) {
+                    continue;
+                }
+                for (BiConsumer<User, Score> listener : scoreListeners) {
+                    listener.accept(current, event.getScore());
+                }
+            }
+        });
+    }
+    
+    private static boolean isSyncConfigured() {
+        if (System.getProperty(SYNC_PORT_PROPERTY) == null && System.getProperty(SYNC_PEERS_PROPERTY) == null) {
+            return false;
+        }
+        String secret = System.getProperty(SYNC_SECRET_PROPERTY);
+        if (secret == null || secret.isEmpty()) {
+            System.err.println("Sync is disabled: -D" + SYNC_SECRET_PROPERTY + " must be set to the secret shared by all stations");
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Serve and/or pull score journals when sync is enabled with
+     * -Dlostart.sync.port=PORT and -Dlostart.sync.peers=http://host:port,...
+     * and -Dlostart.sync.secret=SECRET. The server listens on loopback unless
+     * -Dlostart.sync.bind names the address to accept peers on.
+     */
+    private void startSync() {
+        if (syncService == null) {
+            return;
+        }
+        syncService.setRemoteScoreHandler(this::onRemoteScores);
+        
+        String port = System.getProperty(SYNC_PORT_PROPERTY);
+        if (port != null) {
+            try {
+                String bind = System.getProperty(SYNC_BIND_PROPERTY, "127.0.0.1");
+                syncService.startServer(new InetSocketAddress(bind, Integer.parseInt(port)));
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Error starting sync server: " + e.getMessage());
+            }
+        }
+        
+        String peers = System.getProperty(SYNC_PEERS_PROPERTY);
+        if (peers != null && !peers.isBlank()) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sync-client");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncScheduler.scheduleWithFixedDelay(() -> syncWithPeers(peers.split(",")),
+                0, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+    
+    private void syncWithPeers(String[] peers) {
+        for (String peer : peers) {
+            try {
+                syncService.syncWith(URI.create(peer.trim()));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error syncing with " + peer.trim() + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void journalForSync(List<ScoreEvent> batch) {
+        for (ScoreEvent event : batch) {
+            syncService.recordLocal(event.getUsername(), event.getScore());
+        }
+    }
+    
+    /**
+     * Apply scores recorded on another station to whichever profiles they belong to
+     */
+    private void onRemoteScores(List<SyncService.JournalEntry> entries) {
+        boolean currentChanged = dataService.addRemoteScores(entries);
+        boolean leaderboardChanged = false;
+        List<ScoreEvent> currentScores = new ArrayList<>();
+        var user = dataService.getCurrentUser();
+        for (SyncService.JournalEntry entry : entries) {
+            leaderboardChanged |= leaderboardService.record(entry.getUsername(), entry.getScore());
+            percentileService.record(entry.getScore());
+            if (user != null && user.getUsername().equals(entry.getUsername())) {
+                currentScores.add(new ScoreEvent(user, entry.getScore()));
+            }
+        }
+        if (leaderboardChanged) {
+            leaderboardService.save();
+        }
+        percentileService.save();
+        if (currentChanged) {
             dataService.saveData();
+            notifyScoreListeners(currentScores);
+        }
+    }
+    
+    /**
+     * Drain pending score events. Call before the final save on exit.
+     */
+    public void shutdown() {
+        scoreEventBus.shutdown();
+        reminderService.shutdown();
+        contentService.stop();
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+        }
+        if (syncService != null) {
+            syncService.stop();
         }
     }
     
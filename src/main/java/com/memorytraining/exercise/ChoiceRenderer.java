@@ -0,0 +1,74 @@
+package com.memorytraining.exercise;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Items shown as text and answered by picking from a fixed set of buttons
+ */
+class ChoiceRenderer implements ExerciseRenderer {
+    private static final int COLUMNS = 4;
+
+    private final String noun;
+    private final List<String> choices;
+    private Label progressLabel;
+    private int given;
+    private int count;
+
+    ChoiceRenderer(String noun, List<String> choices) {
+        this.noun = noun;
+        this.choices = choices;
+    }
+
+    @Override
+    public String showItem(Object item, int index, int count) {
+        return item.toString();
+    }
+
+    @Override
+    public Node createInput(int count, Consumer<String> answers) {
+        this.count = count;
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(8);
+        grid.setAlignment(Pos.CENTER);
+
+        for (int i = 0; i < choices.size(); i++) {
+            String choice = choices.get(i);
+            Button button = new Button(choice);
+            button.setPrefSize(80, 32);
+            button.setOnAction(e -> {
+                if (given < this.count) {
+                    answers.accept(choice);
+                }
+            });
+            grid.add(button, i % COLUMNS, i / COLUMNS);
+        }
+
+        progressLabel = new Label("Select " + noun + " #1");
+        progressLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+
+        VBox box = new VBox(10, progressLabel, grid);
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    @Override
+    public void answered(int given, int count) {
+        this.given = given;
+        if (given < count) {
+            progressLabel.setText("Select " + noun + " #" + (given + 1));
+        } else {
+            progressLabel.setText("All " + count + " selected");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.service.ExerciseContent;
+import com.memorytraining.service.ExerciseService;
+
+import java.util.List;
+
+@ExerciseProvider(ExerciseType.COLOR_MEMORY)
+public class ColorExercise implements ExercisePlugin {
+    @Override
+    public ExerciseType getType() {
+        return ExerciseType.COLOR_MEMORY;
+    }
+
+    @Override
+    public String getInstructions() {
+        return "Memorize the sequence of colors that will appear. Then select them in the correct order.";
+    }
+
+    @Override
+    public List<?> generate(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return exerciseService.generateColorSequence(content, level);
+    }
+
+    /**
+     * Offers the whole palette the round was drawn from, even if the content has been reloaded since
+     */
+    @Override
+    public ExerciseRenderer createRenderer(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return new ChoiceRenderer("color", content.getColors().asList());
+    }
+}
@@ -0,0 +1,39 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.service.ExerciseContent;
+import com.memorytraining.service.ExerciseService;
+
+import java.util.List;
+
+/**
+ * One kind of exercise: how rounds are generated, shown, timed and checked.
+ * Implementations are found with {@link java.util.ServiceLoader} and must carry
+ * {@link ExerciseProvider} so {@link ExercisePlugins} can pick one without instantiating the others.
+ */
+public interface ExercisePlugin {
+    ExerciseType getType();
+
+    /** Shown before the sequence plays */
+    String getInstructions();
+
+    /** The items of a new round, drawn from the given content snapshot */
+    List<?> generate(ExerciseService exerciseService, ExerciseContent content, int level);
+
+    /** Fresh view state for one round, given the content snapshot the round was drawn from */
+    ExerciseRenderer createRenderer(ExerciseService exerciseService, ExerciseContent content, int level);
+
+    /** The answer that counts as correct for an item */
+    default String expectedAnswer(Object item) {
+        return item.toString();
+    }
+
+    /** Total display time for a round */
+    default int getDisplayTimeMs(ExerciseService exerciseService, int level, int sequenceLength) {
+        return exerciseService.getDisplayTimeMs(getType(), level, sequenceLength);
+    }
+
+    default int countCorrect(ExerciseService exerciseService, List<String> expected, List<String> actual) {
+        return exerciseService.countCorrectAnswers(getType(), expected, actual);
+    }
+}
@@ -0,0 +1,33 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lazily loaded exercise plugins. A plugin class is only instantiated the first time
+ * its exercise type is asked for; the others are identified by their annotation alone.
+ */
+public final class ExercisePlugins {
+    private static final Map<ExerciseType, ExercisePlugin> PLUGINS = new ConcurrentHashMap<>();
+
+    private ExercisePlugins() {
+    }
+
+    public static ExercisePlugin get(ExerciseType type) {
+        return PLUGINS.computeIfAbsent(type, ExercisePlugins::load);
+    }
+
+    private static ExercisePlugin load(ExerciseType type) {
+        return ServiceLoader.load(ExercisePlugin.class, ExercisePlugins.class.getClassLoader()).stream()
+            .filter(provider -> {
+                ExerciseProvider annotation = provider.type().getAnnotation(ExerciseProvider.class);
+                return annotation != null && annotation.value() == type;
+            })
+            .findFirst()
+            .map(ServiceLoader.Provider::get)
+            .orElseThrow(() -> new IllegalStateException("No exercise plugin for " + type));
+    }
+}
@@ -0,0 +1,17 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The exercise type an {@link ExercisePlugin} implementation provides
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ExerciseProvider {
+    ExerciseType value();
+}
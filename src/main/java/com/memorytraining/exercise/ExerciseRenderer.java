@@ -0,0 +1,36 @@
+package com.memorytraining.exercise;
+
+import javafx.scene.Node;
+
+import java.util.function.Consumer;
+
+/**
+ * View side of one round. The exercise window owns the stage, timing, recording and
+ * scoring; the renderer only presents items and collects answers.
+ */
+public interface ExerciseRenderer {
+    /**
+     * Node shown in the input area while the sequence plays, or null to show items as text only
+     */
+    default Node createDisplay() {
+        return null;
+    }
+
+    /**
+     * Present one item; the returned text is shown in the sequence label
+     */
+    String showItem(Object item, int index, int count);
+
+    /**
+     * Controls for entering count answers; each answer is handed to answers
+     */
+    Node createInput(int count, Consumer<String> answers);
+
+    /**
+     * Called after each accepted answer with the number given so far
+     */
+    void answered(int given, int count);
+
+    default void dispose() {
+    }
+}
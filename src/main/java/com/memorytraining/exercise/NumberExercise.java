@@ -0,0 +1,30 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.service.ExerciseContent;
+import com.memorytraining.service.ExerciseService;
+
+import java.util.List;
+
+@ExerciseProvider(ExerciseType.NUMBER_MEMORY)
+public class NumberExercise implements ExercisePlugin {
+    @Override
+    public ExerciseType getType() {
+        return ExerciseType.NUMBER_MEMORY;
+    }
+
+    @Override
+    public String getInstructions() {
+        return "Memorize the sequence of numbers that will appear. Then type them back in the correct order.";
+    }
+
+    @Override
+    public List<?> generate(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return exerciseService.generateNumberSequence(level);
+    }
+
+    @Override
+    public ExerciseRenderer createRenderer(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return new TextInputRenderer();
+    }
+}
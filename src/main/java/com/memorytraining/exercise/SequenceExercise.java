@@ -0,0 +1,33 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.service.ExerciseContent;
+import com.memorytraining.service.ExerciseService;
+
+import java.util.List;
+
+@ExerciseProvider(ExerciseType.SEQUENCE_MEMORY)
+public class SequenceExercise implements ExercisePlugin {
+    @Override
+    public ExerciseType getType() {
+        return ExerciseType.SEQUENCE_MEMORY;
+    }
+
+    @Override
+    public String getInstructions() {
+        return "Memorize the sequence of actions. Then repeat them in the correct order.";
+    }
+
+    @Override
+    public List<?> generate(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return exerciseService.generateActionSequence(content, level);
+    }
+
+    /**
+     * Offers every action the round was drawn from, even if the content has been reloaded since
+     */
+    @Override
+    public ExerciseRenderer createRenderer(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return new ChoiceRenderer("action", content.getActions().asList());
+    }
+}
@@ -0,0 +1,39 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.service.ExerciseContent;
+import com.memorytraining.service.ExerciseService;
+
+import java.util.List;
+
+@ExerciseProvider(ExerciseType.SPATIAL_MEMORY)
+public class SpatialExercise implements ExercisePlugin {
+    @Override
+    public ExerciseType getType() {
+        return ExerciseType.SPATIAL_MEMORY;
+    }
+
+    @Override
+    public String getInstructions() {
+        return "Memorize the positions that light up. Then click them in the correct order.";
+    }
+
+    @Override
+    public List<?> generate(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return exerciseService.generateSpatialSequence(level);
+    }
+
+    @Override
+    public ExerciseRenderer createRenderer(ExerciseService exerciseService, ExerciseContent content, int level) {
+        return new SpatialRenderer(exerciseService.getSpatialGridSize(level));
+    }
+
+    /**
+     * Spatial answers are recorded as "x,y"
+     */
+    @Override
+    public String expectedAnswer(Object item) {
+        ExerciseService.Position pos = (ExerciseService.Position) item;
+        return pos.getX() + "," + pos.getY();
+    }
+}
@@ -0,0 +1,74 @@
+package com.memorytraining.exercise;
+
+import com.memorytraining.service.ExerciseService;
+import com.memorytraining.view.SpatialBoard;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.function.Consumer;
+
+/**
+ * Positions flashed on a board, then clicked back on the same board
+ */
+class SpatialRenderer implements ExerciseRenderer {
+    private static final double BOARD_SIZE = 260;
+
+    private final SpatialBoard board;
+    private Label progressLabel;
+    private int given;
+    private int count;
+
+    SpatialRenderer(int gridSize) {
+        this.board = new SpatialBoard(gridSize, BOARD_SIZE);
+    }
+
+    @Override
+    public Node createDisplay() {
+        return board.getNode();
+    }
+
+    @Override
+    public String showItem(Object item, int index, int count) {
+        ExerciseService.Position pos = (ExerciseService.Position) item;
+        board.flashTarget(pos.getX(), pos.getY());
+        return (index + 1) + " / " + count;
+    }
+
+    @Override
+    public Node createInput(int count, Consumer<String> answers) {
+        this.count = count;
+        board.clearMarks();
+        board.setCellHandler((x, y) -> {
+            if (given >= this.count) {
+                return;
+            }
+            board.select(x, y);
+            answers.accept(x + "," + y);
+        });
+
+        progressLabel = new Label("Click position #1");
+        progressLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+
+        // The board repaints only the clicked cell; nothing is rebuilt between answers
+        VBox box = new VBox(10, progressLabel, board.getNode());
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    @Override
+    public void answered(int given, int count) {
+        this.given = given;
+        if (given < count) {
+            progressLabel.setText("Click position #" + (given + 1));
+        }
+    }
+
+    @Override
+    public void dispose() {
+        board.dispose();
+    }
+}
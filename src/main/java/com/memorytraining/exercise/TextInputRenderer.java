@@ -0,0 +1,49 @@
+package com.memorytraining.exercise;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.TextField;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.function.Consumer;
+
+/**
+ * Items shown as text and typed back one at a time
+ */
+class TextInputRenderer implements ExerciseRenderer {
+    private TextField textField;
+
+    @Override
+    public String showItem(Object item, int index, int count) {
+        return item.toString();
+    }
+
+    @Override
+    public Node createInput(int count, Consumer<String> answers) {
+        textField = new TextField();
+        textField.setPromptText("Enter item #1");
+        textField.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
+        textField.setMaxWidth(300);
+
+        textField.setOnAction(e -> {
+            String input = textField.getText().trim();
+            if (!input.isEmpty()) {
+                answers.accept(input);
+            }
+        });
+
+        Platform.runLater(textField::requestFocus);
+        return textField;
+    }
+
+    @Override
+    public void answered(int given, int count) {
+        if (given < count) {
+            textField.clear();
+            textField.setPromptText("Enter item #" + (given + 1));
+        } else {
+            textField.setDisable(true);
+        }
+    }
+}
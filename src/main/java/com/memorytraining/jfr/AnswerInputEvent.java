@@ -0,0 +1,19 @@
+package com.memorytraining.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.memorytraining.AnswerInput")
+@Label("Answer Input")
+@Category({"Lost Art", "Exercise"})
+@Description("One answer; the duration is the time since the previous answer or the start of input")
+public class AnswerInputEvent extends Event {
+    @Label("Exercise Type")
+    public String exerciseType;
+
+    @Label("Index")
+    public int index;
+}
@@ -0,0 +1,66 @@
+package com.memorytraining.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Name("com.memorytraining.Persistence")
+@Label("Data Load/Save")
+@Category({"Lost Art", "Persistence"})
+@Description("Reading or writing one of a user's data files")
+public class PersistenceEvent extends Event {
+    @Label("Operation")
+    @Description("load or save")
+    public String operation;
+
+    @Label("Data")
+    @Description("Which file: profile, item memory, confusions, ...")
+    public String data;
+
+    @Label("User")
+    public String username;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    /**
+     * Start timing an operation
+     */
+    public static PersistenceEvent start(String operation, String data, String username) {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        event.operation = operation;
+        event.data = data;
+        event.username = username;
+        return event;
+    }
+
+    /**
+     * Stop timing and commit, taking the byte count from the file. The file is only
+     * looked at when the event is actually recorded.
+     */
+    public void finish(Path file, boolean succeeded) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.succeeded = succeeded;
+        try {
+            bytes = file != null && Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            bytes = 0;
+        }
+        commit();
+    }
+}
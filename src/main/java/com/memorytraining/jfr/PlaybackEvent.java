@@ -0,0 +1,27 @@
+package com.memorytraining.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.memorytraining.Playback")
+@Label("Sequence Playback")
+@Category({"Lost Art", "Exercise"})
+@Description("Showing a round's items, from the first item to the start of input")
+public class PlaybackEvent extends Event {
+    @Label("Exercise Type")
+    public String exerciseType;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Planned Display Time")
+    @Timespan(Timespan.MILLISECONDS)
+    public long plannedMs;
+}
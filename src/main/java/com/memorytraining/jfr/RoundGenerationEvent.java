@@ -0,0 +1,26 @@
+package com.memorytraining.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.memorytraining.RoundGeneration")
+@Label("Round Generation")
+@Category({"Lost Art", "Exercise"})
+@Description("Generating the items of a round")
+public class RoundGenerationEvent extends Event {
+    @Label("Exercise Type")
+    public String exerciseType;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Prefetched")
+    @Description("Generated in the background while the previous results were shown")
+    public boolean prefetched;
+}
@@ -0,0 +1,31 @@
+package com.memorytraining.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.memorytraining.Scoring")
+@Label("Scoring")
+@Category({"Lost Art", "Exercise"})
+@Description("Checking answers, updating item memory and computing the score of a round")
+public class ScoringEvent extends Event {
+    @Label("Exercise Type")
+    public String exerciseType;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Correct Answers")
+    public int correctAnswers;
+
+    @Label("Total Questions")
+    public int totalQuestions;
+
+    @Label("Score")
+    public double score;
+
+    @Label("Scoring Version")
+    public int scoringVersion;
+}
@@ -0,0 +1,272 @@
+package com.memorytraining.model;
+
+import com.memorytraining.util.AliasTable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Counts of which item was given in place of which, for one exercise type.
+ * Pairs can be sampled in proportion to their counts through an alias table that is
+ * rebuilt only after the counts change.
+ */
+public abstract class ConfusionMatrix {
+    private int modCount;
+    private int aliasModCount = -1;
+    private AliasTable aliasTable;
+
+    /**
+     * Record that actual was given where expected was shown
+     */
+    public void record(String expected, String actual) {
+        add(expected, actual, 1);
+    }
+
+    /**
+     * Count a confusion several times at once; pairs the matrix cannot hold are ignored
+     */
+    abstract void add(String expected, String actual, int count);
+
+    public abstract int count(String expected, String actual);
+
+    /** Number of distinct confused pairs */
+    public abstract int pairCount();
+
+    protected abstract double[] pairWeights();
+
+    protected abstract String[] pair(int index);
+
+    abstract void write(DataOutputStream out) throws IOException;
+
+    /**
+     * Add every counted pair to another matrix
+     */
+    void copyTo(ConfusionMatrix target) {
+        double[] weights = pairWeights();
+        for (int i = 0; i < weights.length; i++) {
+            String[] pair = pair(i);
+            target.add(pair[0], pair[1], (int) weights[i]);
+        }
+    }
+
+    protected void changed() {
+        modCount++;
+    }
+
+    /**
+     * A confused pair {expected, actual} drawn in proportion to how often it occurred, or null if none
+     */
+    public String[] samplePair(Random random) {
+        if (aliasModCount != modCount) {
+            double[] weights = pairWeights();
+            aliasTable = weights.length == 0 ? null : new AliasTable(weights);
+            aliasModCount = modCount;
+        }
+        return aliasTable == null ? null : pair(aliasTable.sample(random));
+    }
+
+    static ConfusionMatrix read(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Dense.readDense(in) : Sparse.readSparse(in);
+    }
+
+    /**
+     * Fixed label set (a color palette, the cells of a grid) counted in a flat n*n array.
+     * Items outside the label set are ignored.
+     */
+    public static final class Dense extends ConfusionMatrix {
+        private final String[] labels;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final int[] counts;
+        private int[] pairIndexes = new int[0];
+
+        public Dense(List<String> labels) {
+            this.labels = labels.toArray(new String[0]);
+            for (int i = 0; i < this.labels.length; i++) {
+                indexes.put(this.labels[i], i);
+            }
+            this.counts = new int[this.labels.length * this.labels.length];
+        }
+
+        @Override
+        void add(String expected, String actual, int count) {
+            Integer row = indexes.get(expected);
+            Integer column = indexes.get(actual);
+            if (row != null && column != null && !row.equals(column)) {
+                counts[row * labels.length + column] += count;
+                changed();
+            }
+        }
+
+        @Override
+        public int count(String expected, String actual) {
+            Integer row = indexes.get(expected);
+            Integer column = indexes.get(actual);
+            return row == null || column == null ? 0 : counts[row * labels.length + column];
+        }
+
+        @Override
+        public int pairCount() {
+            int pairs = 0;
+            for (int count : counts) {
+                if (count > 0) {
+                    pairs++;
+                }
+            }
+            return pairs;
+        }
+
+        @Override
+        protected double[] pairWeights() {
+            pairIndexes = new int[pairCount()];
+            double[] weights = new double[pairIndexes.length];
+            int next = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    pairIndexes[next] = i;
+                    weights[next++] = counts[i];
+                }
+            }
+            return weights;
+        }
+
+        @Override
+        protected String[] pair(int index) {
+            int cell = pairIndexes[index];
+            return new String[] { labels[cell / labels.length], labels[cell % labels.length] };
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeBoolean(true);
+            out.writeInt(labels.length);
+            for (String label : labels) {
+                out.writeUTF(label);
+            }
+            // Only non-zero cells, as (index, count)
+            out.writeInt(pairCount());
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    out.writeInt(i);
+                    out.writeInt(counts[i]);
+                }
+            }
+        }
+
+        static Dense readDense(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            List<String> labels = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                labels.add(in.readUTF());
+            }
+            Dense matrix = new Dense(labels);
+            int nonZero = in.readInt();
+            for (int i = 0; i < nonZero; i++) {
+                matrix.counts[in.readInt()] = in.readInt();
+            }
+            matrix.changed();
+            return matrix;
+        }
+
+        public List<String> getLabels() {
+            return List.of(labels);
+        }
+    }
+
+    /**
+     * Open vocabulary (words): items are numbered on first sight and pairs are kept in a
+     * map keyed by both numbers packed into one long.
+     */
+    public static final class Sparse extends ConfusionMatrix {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> items = new ArrayList<>();
+        private final Map<Long, Integer> counts = new HashMap<>();
+        private long[] pairKeys = new long[0];
+
+        @Override
+        void add(String expected, String actual, int count) {
+            if (expected.equals(actual)) {
+                return;
+            }
+            counts.merge(key(id(expected), id(actual)), count, Integer::sum);
+            changed();
+        }
+
+        @Override
+        public int count(String expected, String actual) {
+            Integer row = ids.get(expected);
+            Integer column = ids.get(actual);
+            return row == null || column == null ? 0 : counts.getOrDefault(key(row, column), 0);
+        }
+
+        @Override
+        public int pairCount() {
+            return counts.size();
+        }
+
+        @Override
+        protected double[] pairWeights() {
+            pairKeys = new long[counts.size()];
+            double[] weights = new double[pairKeys.length];
+            int next = 0;
+            for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+                pairKeys[next] = entry.getKey();
+                weights[next++] = entry.getValue();
+            }
+            return weights;
+        }
+
+        @Override
+        protected String[] pair(int index) {
+            long key = pairKeys[index];
+            return new String[] { items.get((int) (key >>> 32)), items.get((int) key) };
+        }
+
+        private int id(String item) {
+            Integer id = ids.get(item);
+            if (id == null) {
+                id = items.size();
+                ids.put(item, id);
+                items.add(item);
+            }
+            return id;
+        }
+
+        private static long key(int row, int column) {
+            return ((long) row << 32) | (column & 0xFFFFFFFFL);
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeBoolean(false);
+            out.writeInt(items.size());
+            for (String item : items) {
+                out.writeUTF(item);
+            }
+            out.writeInt(counts.size());
+            for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+
+        static Sparse readSparse(DataInputStream in) throws IOException {
+            Sparse matrix = new Sparse();
+            int itemCount = in.readInt();
+            for (int i = 0; i < itemCount; i++) {
+                matrix.id(in.readUTF());
+            }
+            int pairs = in.readInt();
+            for (int i = 0; i < pairs; i++) {
+                matrix.counts.put(in.readLong(), in.readInt());
+            }
+            matrix.changed();
+            return matrix;
+        }
+    }
+}
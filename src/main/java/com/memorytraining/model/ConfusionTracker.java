@@ -0,0 +1,111 @@
+package com.memorytraining.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A user's confusion matrices, one per exercise type. Thread-safe; rounds are recorded
+ * on the FX thread while persistence may serialize from another.
+ */
+public class ConfusionTracker {
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<ExerciseType, ConfusionMatrix> matrices = new EnumMap<>(ExerciseType.class);
+    private boolean dirty;
+
+    /**
+     * Dense matrix over a label set. A dense matrix that already has every label is kept;
+     * otherwise it is rebuilt over the new labels plus its old ones, keeping all counts, so a
+     * reloaded palette or a larger board is counted too. A sparse matrix is converted, keeping
+     * the counts of pairs within the labels.
+     */
+    public synchronized void ensureDense(ExerciseType type, List<String> labels) {
+        ConfusionMatrix existing = matrices.get(type);
+        Set<String> merged = new LinkedHashSet<>(labels);
+        if (existing instanceof ConfusionMatrix.Dense) {
+            List<String> current = ((ConfusionMatrix.Dense) existing).getLabels();
+            if (new HashSet<>(current).containsAll(merged)) {
+                return;
+            }
+            merged.addAll(current);
+        }
+        replace(type, existing, new ConfusionMatrix.Dense(new ArrayList<>(merged)));
+    }
+
+    /**
+     * Sparse matrix for the type, e.g. once its labels are too many for a dense one.
+     * A dense matrix is converted with its counts.
+     */
+    public synchronized void ensureSparse(ExerciseType type) {
+        ConfusionMatrix existing = matrices.get(type);
+        if (existing instanceof ConfusionMatrix.Dense) {
+            replace(type, existing, new ConfusionMatrix.Sparse());
+        }
+    }
+
+    private void replace(ExerciseType type, ConfusionMatrix existing, ConfusionMatrix matrix) {
+        if (existing != null && existing.pairCount() > 0) {
+            existing.copyTo(matrix);
+            dirty = true;
+        }
+        matrices.put(type, matrix);
+    }
+
+    /**
+     * Record a confusion. Without a dense matrix for the type, a sparse one is used.
+     */
+    public synchronized void record(ExerciseType type, String expected, String actual) {
+        matrices.computeIfAbsent(type, t -> new ConfusionMatrix.Sparse()).record(expected, actual);
+        dirty = true;
+    }
+
+    public synchronized int count(ExerciseType type, String expected, String actual) {
+        ConfusionMatrix matrix = matrices.get(type);
+        return matrix == null ? 0 : matrix.count(expected, actual);
+    }
+
+    /**
+     * A confused pair {expected, actual} of the type, weighted by frequency, or null if none
+     */
+    public synchronized String[] samplePair(ExerciseType type, Random random) {
+        ConfusionMatrix matrix = matrices.get(type);
+        return matrix == null ? null : matrix.samplePair(random);
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(matrices.size());
+        for (Map.Entry<ExerciseType, ConfusionMatrix> entry : matrices.entrySet()) {
+            out.writeUTF(entry.getKey().name());
+            entry.getValue().write(out);
+        }
+        dirty = false;
+    }
+
+    public static ConfusionTracker read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported confusion data version " + version);
+        }
+        ConfusionTracker tracker = new ConfusionTracker();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            ExerciseType type = ExerciseType.valueOf(in.readUTF());
+            tracker.matrices.put(type, ConfusionMatrix.read(in));
+        }
+        return tracker;
+    }
+}
@@ -0,0 +1,65 @@
+package com.memorytraining.model;
+
+import java.util.Random;
+
+/**
+ * A long run of decimal digits for number memory drills, stored one digit per byte.
+ * Thousands of digits take a few kilobytes and no boxed objects.
+ */
+public final class DigitSequence {
+    private final byte[] digits;
+
+    private DigitSequence(byte[] digits) {
+        this.digits = digits;
+    }
+
+    /**
+     * Random digits; the only allocation is the backing array
+     */
+    public static DigitSequence random(int length, Random random) {
+        byte[] digits = new byte[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (byte) random.nextInt(10);
+        }
+        return new DigitSequence(digits);
+    }
+
+    public int length() {
+        return digits.length;
+    }
+
+    public int digitAt(int index) {
+        return digits[index];
+    }
+
+    /**
+     * Number of groups when shown groupSize digits at a time
+     */
+    public int groupCount(int groupSize) {
+        return (digits.length + groupSize - 1) / groupSize;
+    }
+
+    /**
+     * Append the digits of one display group to the builder
+     */
+    public void appendGroup(StringBuilder builder, int group, int groupSize) {
+        int from = group * groupSize;
+        int to = Math.min(digits.length, from + groupSize);
+        for (int i = from; i < to; i++) {
+            builder.append((char) ('0' + digits[i]));
+        }
+    }
+
+    /**
+     * Append all digits, separating groups with a space and starting a new line every lineGroups groups
+     */
+    public void appendGrouped(StringBuilder builder, int groupSize, int lineGroups) {
+        int groups = groupCount(groupSize);
+        for (int group = 0; group < groups; group++) {
+            if (group > 0) {
+                builder.append(group % lineGroups == 0 ? '\n' : ' ');
+            }
+            appendGroup(builder, group, groupSize);
+        }
+    }
+}
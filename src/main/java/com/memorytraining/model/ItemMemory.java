@@ -0,0 +1,70 @@
+package com.memorytraining.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A user's spaced-repetition state for individual items (words, colors, positions),
+ * one review index per exercise type. Thread-safe; answers are recorded on the FX
+ * thread while persistence may serialize from another.
+ */
+public class ItemMemory {
+    private static final int FORMAT_VERSION = 1;
+
+    private final Map<ExerciseType, ReviewIndex> indexes = new EnumMap<>(ExerciseType.class);
+    private boolean dirty;
+
+    public synchronized void review(ExerciseType type, String item, boolean recalled, long nowMs) {
+        indexes.computeIfAbsent(type, t -> new ReviewIndex()).review(item, recalled, nowMs);
+        dirty = true;
+    }
+
+    /**
+     * Up to max due items of a type, most overdue first
+     */
+    public synchronized List<String> dueItems(ExerciseType type, int max, long nowMs, Predicate<String> accept) {
+        ReviewIndex index = indexes.get(type);
+        return index == null ? List.of() : index.dueItems(max, nowMs, accept);
+    }
+
+    public synchronized int size(ExerciseType type) {
+        ReviewIndex index = indexes.get(type);
+        return index == null ? 0 : index.size();
+    }
+
+    /**
+     * Whether anything changed since the last write
+     */
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(indexes.size());
+        for (Map.Entry<ExerciseType, ReviewIndex> entry : indexes.entrySet()) {
+            out.writeUTF(entry.getKey().name());
+            entry.getValue().write(out);
+        }
+        dirty = false;
+    }
+
+    public static ItemMemory read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported item memory version " + version);
+        }
+        ItemMemory memory = new ItemMemory();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            ExerciseType type = ExerciseType.valueOf(in.readUTF());
+            memory.indexes.put(type, ReviewIndex.read(in));
+        }
+        return memory;
+    }
+}
@@ -0,0 +1,210 @@
+package com.memorytraining.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Spaced-repetition state for the items of one exercise type, with the items ordered
+ * by due time in an indexed binary heap. Item state lives in parallel primitive arrays
+ * so large corpora stay compact; recording an answer is O(log n) and taking the k
+ * most overdue items is O(k log n).
+ *
+ * Scheduling follows SM-2: a recalled item's interval grows by its ease factor, a
+ * forgotten item comes back after a few minutes and its ease drops.
+ */
+public class ReviewIndex {
+    private static final short DEFAULT_EASE = 250;
+    private static final short MIN_EASE = 130;
+    private static final int RELEARN_MINUTES = 10;
+    private static final int FIRST_INTERVAL_MINUTES = 24 * 60;
+    private static final int SECOND_INTERVAL_MINUTES = 6 * 24 * 60;
+    private static final long MINUTE_MS = 60_000L;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private String[] items = new String[16];
+    private long[] due = new long[16];
+    private int[] intervalMinutes = new int[16];
+    private short[] ease = new short[16];
+    private short[] repetitions = new short[16];
+    private int[] heap = new int[16];
+    private int[] heapPosition = new int[16];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Update an item after an answer and reschedule it
+     */
+    public void review(String item, boolean recalled, long nowMs) {
+        Integer existing = slots.get(item);
+        int slot = existing != null ? existing : add(item);
+
+        if (recalled) {
+            repetitions[slot]++;
+            if (repetitions[slot] == 1) {
+                intervalMinutes[slot] = FIRST_INTERVAL_MINUTES;
+            } else if (repetitions[slot] == 2) {
+                intervalMinutes[slot] = SECOND_INTERVAL_MINUTES;
+            } else {
+                intervalMinutes[slot] = (int) Math.min(Integer.MAX_VALUE, (long) intervalMinutes[slot] * ease[slot] / 100);
+            }
+            ease[slot] = (short) Math.min(ease[slot] + 10, 400);
+        } else {
+            repetitions[slot] = 0;
+            intervalMinutes[slot] = RELEARN_MINUTES;
+            ease[slot] = (short) Math.max(MIN_EASE, ease[slot] - 20);
+        }
+        due[slot] = nowMs + intervalMinutes[slot] * MINUTE_MS;
+        siftUp(heapPosition[slot]);
+        siftDown(heapPosition[slot]);
+    }
+
+    /**
+     * Up to max items due at or before now, most overdue first, that pass the filter.
+     * The index is left unchanged.
+     */
+    public List<String> dueItems(int max, long nowMs, Predicate<String> accept) {
+        List<String> result = new ArrayList<>();
+        int live = size;
+        while (result.size() < max && live > 0) {
+            int slot = heap[0];
+            if (due[slot] > nowMs) {
+                break;
+            }
+            removeTop(--live);
+            if (accept.test(items[slot])) {
+                result.add(items[slot]);
+            }
+        }
+        // The popped slots sit after the live heap; sifting each up restores the heap
+        for (int position = live; position < size; position++) {
+            siftUp(position);
+        }
+        return result;
+    }
+
+    public long getDue(String item) {
+        Integer slot = slots.get(item);
+        return slot == null ? Long.MAX_VALUE : due[slot];
+    }
+
+    public int getIntervalMinutes(String item) {
+        Integer slot = slots.get(item);
+        return slot == null ? 0 : intervalMinutes[slot];
+    }
+
+    public double getEase(String item) {
+        Integer slot = slots.get(item);
+        return (slot == null ? DEFAULT_EASE : ease[slot]) / 100.0;
+    }
+
+    private int add(String item) {
+        if (size == items.length) {
+            int capacity = items.length * 2;
+            items = Arrays.copyOf(items, capacity);
+            due = Arrays.copyOf(due, capacity);
+            intervalMinutes = Arrays.copyOf(intervalMinutes, capacity);
+            ease = Arrays.copyOf(ease, capacity);
+            repetitions = Arrays.copyOf(repetitions, capacity);
+            heap = Arrays.copyOf(heap, capacity);
+            heapPosition = Arrays.copyOf(heapPosition, capacity);
+        }
+        int slot = size++;
+        slots.put(item, slot);
+        items[slot] = item;
+        ease[slot] = DEFAULT_EASE;
+        due[slot] = Long.MIN_VALUE;
+        heap[slot] = slot;
+        heapPosition[slot] = slot;
+        siftUp(slot);
+        return slot;
+    }
+
+    /**
+     * Move the top of the heap[0, end] to position end, shrinking the live heap to [0, end)
+     */
+    private void removeTop(int end) {
+        int top = heap[0];
+        place(heap[end], 0);
+        place(top, end);
+        siftDown(0, end);
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (due[heap[parent]] <= due[slot]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(slot, position);
+    }
+
+    private void siftDown(int position) {
+        siftDown(position, size);
+    }
+
+    private void siftDown(int position, int end) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= end) {
+                break;
+            }
+            if (child + 1 < end && due[heap[child + 1]] < due[heap[child]]) {
+                child++;
+            }
+            if (due[heap[child]] >= due[slot]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(slot, position);
+    }
+
+    private void place(int slot, int position) {
+        heap[position] = slot;
+        heapPosition[slot] = position;
+    }
+
+    /**
+     * Compact binary form: count, then per item its text, due time, interval, ease and repetitions
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int slot = 0; slot < size; slot++) {
+            out.writeUTF(items[slot]);
+            out.writeLong(due[slot]);
+            out.writeInt(intervalMinutes[slot]);
+            out.writeShort(ease[slot]);
+            out.writeShort(repetitions[slot]);
+        }
+    }
+
+    public static ReviewIndex read(DataInputStream in) throws IOException {
+        ReviewIndex index = new ReviewIndex();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int slot = index.add(in.readUTF());
+            index.due[slot] = in.readLong();
+            index.intervalMinutes[slot] = in.readInt();
+            index.ease[slot] = in.readShort();
+            index.repetitions[slot] = in.readShort();
+            index.siftDown(index.heapPosition[slot]);
+        }
+        return index;
+    }
+}
@@ -14,6 +14,9 @@ public class Score {
     private int totalQuestions;
     private LocalDateTime completedAt;
     private double accuracy;
+    private int scoringVersion = 1;
+    private boolean drill;
+    private int displayTimeMs;
     
     public Score() {
         this.completedAt = LocalDateTime.now();
@@ -61,6 +64,21 @@ public class Score {
     
     public double getAccuracy() { return accuracy; }
     
+    /** Version of the scoring function that produced the score value; 1 for scores saved before versioning */
+    public int getScoringVersion() { return scoringVersion; }
+    public void setScoringVersion(int scoringVersion) { this.scoringVersion = scoringVersion; }
+    
+    /**
+     * Practice drill rounds are kept in the history but left out of best scores, levels,
+     * leaderboards, percentiles and calibration
+     */
+    public boolean isDrill() { return drill; }
+    public void setDrill(boolean drill) { this.drill = drill; }
+    
+    /** Time the sequence was shown for, in ms, or 0 if it was not recorded */
+    public int getDisplayTimeMs() { return displayTimeMs; }
+    public void setDisplayTimeMs(int displayTimeMs) { this.displayTimeMs = displayTimeMs; }
+    
     private void updateAccuracy() {
         this.accuracy = totalQuestions > 0 ? (double) correctAnswers / totalQuestions * 100 : 0;
     }
@@ -0,0 +1,172 @@
+package com.memorytraining.model;
+
+import com.memorytraining.util.KllSketch;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Score and response-time distributions per exercise type and level.
+ * Each distribution is a KLL sketch of a few KB, so percentile ranks do not
+ * need the full score history, and distributions from several profiles can be
+ * merged into a station-wide view. Drill rounds are not recorded.
+ * Not thread-safe; User guards its instance.
+ */
+public class ScoreDistributions {
+    public static final int MAX_LEVEL = 10;
+
+    private final Map<ExerciseType, KllSketch[]> scoreSketches = new EnumMap<>(ExerciseType.class);
+    private final Map<ExerciseType, KllSketch[]> responseTimeSketches = new EnumMap<>(ExerciseType.class);
+
+    /**
+     * Build distributions from an existing score history
+     */
+    public static ScoreDistributions fromScores(Iterable<Score> scores) {
+        ScoreDistributions distributions = new ScoreDistributions();
+        for (Score score : scores) {
+            distributions.record(score);
+        }
+        return distributions;
+    }
+
+    public void record(Score score) {
+        if (score.getExerciseType() == null || score.isDrill()) {
+            return;
+        }
+        int level = clampLevel(score.getLevel());
+        sketch(scoreSketches, score.getExerciseType(), level, true).update((float) score.getScore());
+        if (score.getTotalQuestions() > 0) {
+            float responseTimeMs = (float) score.getTimeSpentMs() / score.getTotalQuestions();
+            sketch(responseTimeSketches, score.getExerciseType(), level, true).update(responseTimeMs);
+        }
+    }
+
+    /**
+     * Percentile (0-100) of a score among recorded scores for the type and level,
+     * or NaN if nothing has been recorded there yet
+     */
+    public double getScorePercentile(ExerciseType type, int level, double score) {
+        KllSketch sketch = sketch(scoreSketches, type, clampLevel(level), false);
+        return sketch == null ? Double.NaN : sketch.rank((float) score) * 100;
+    }
+
+    /**
+     * Percentage of recorded rounds answered more slowly per item than the given time,
+     * or NaN if nothing has been recorded there yet
+     */
+    public double getResponseTimePercentile(ExerciseType type, int level, double responseTimeMs) {
+        KllSketch sketch = sketch(responseTimeSketches, type, clampLevel(level), false);
+        return sketch == null ? Double.NaN : (1 - sketch.rank((float) responseTimeMs)) * 100;
+    }
+
+    public KllSketch getScoreSketch(ExerciseType type, int level) {
+        return sketch(scoreSketches, type, clampLevel(level), false);
+    }
+
+    public KllSketch getResponseTimeSketch(ExerciseType type, int level) {
+        return sketch(responseTimeSketches, type, clampLevel(level), false);
+    }
+
+    public void setScoreSketch(ExerciseType type, int level, KllSketch sketch) {
+        levels(scoreSketches, type)[clampLevel(level)] = sketch;
+    }
+
+    public void setResponseTimeSketch(ExerciseType type, int level, KllSketch sketch) {
+        levels(responseTimeSketches, type)[clampLevel(level)] = sketch;
+    }
+
+    /**
+     * Fold another set of distributions into this one
+     */
+    public void merge(ScoreDistributions other) {
+        mergeInto(scoreSketches, other.scoreSketches);
+        mergeInto(responseTimeSketches, other.responseTimeSketches);
+    }
+
+    /**
+     * Serialize as base64-encoded sketches, one entry per type and level
+     */
+    public JSONArray toJson() {
+        Base64.Encoder encoder = Base64.getEncoder();
+        JSONArray json = new JSONArray();
+        for (ExerciseType type : ExerciseType.values()) {
+            for (int level = 0; level <= MAX_LEVEL; level++) {
+                KllSketch scoreSketch = getScoreSketch(type, level);
+                KllSketch timeSketch = getResponseTimeSketch(type, level);
+                if (scoreSketch == null && timeSketch == null) {
+                    continue;
+                }
+                JSONObject entry = new JSONObject();
+                entry.put("exerciseType", type.name());
+                entry.put("level", level);
+                if (scoreSketch != null) {
+                    entry.put("score", encoder.encodeToString(scoreSketch.toByteArray()));
+                }
+                if (timeSketch != null) {
+                    entry.put("responseTime", encoder.encodeToString(timeSketch.toByteArray()));
+                }
+                json.put(entry);
+            }
+        }
+        return json;
+    }
+    
+    public static ScoreDistributions fromJson(JSONArray json) {
+        Base64.Decoder decoder = Base64.getDecoder();
+        ScoreDistributions distributions = new ScoreDistributions();
+        for (int i = 0; i < json.length(); i++) {
+            JSONObject entry = json.getJSONObject(i);
+            ExerciseType type = ExerciseType.valueOf(entry.getString("exerciseType"));
+            int level = entry.getInt("level");
+            if (entry.has("score")) {
+                distributions.setScoreSketch(type, level,
+                        KllSketch.fromByteArray(decoder.decode(entry.getString("score"))));
+            }
+            if (entry.has("responseTime")) {
+                distributions.setResponseTimeSketch(type, level,
+                        KllSketch.fromByteArray(decoder.decode(entry.getString("responseTime"))));
+            }
+        }
+        return distributions;
+    }
+
+    public ScoreDistributions copy() {
+        ScoreDistributions copy = new ScoreDistributions();
+        copy.merge(this);
+        return copy;
+    }
+
+    private static void mergeInto(Map<ExerciseType, KllSketch[]> target, Map<ExerciseType, KllSketch[]> source) {
+        for (Map.Entry<ExerciseType, KllSketch[]> entry : source.entrySet()) {
+            KllSketch[] sourceLevels = entry.getValue();
+            for (int level = 0; level < sourceLevels.length; level++) {
+                if (sourceLevels[level] != null) {
+                    sketch(target, entry.getKey(), level, true).merge(sourceLevels[level]);
+                }
+            }
+        }
+    }
+
+    private static KllSketch sketch(Map<ExerciseType, KllSketch[]> sketches, ExerciseType type,
+                                    int level, boolean create) {
+        KllSketch[] levels = create ? levels(sketches, type) : sketches.get(type);
+        if (levels == null) {
+            return null;
+        }
+        if (levels[level] == null && create) {
+            levels[level] = new KllSketch();
+        }
+        return levels[level];
+    }
+
+    private static KllSketch[] levels(Map<ExerciseType, KllSketch[]> sketches, ExerciseType type) {
+        return sketches.computeIfAbsent(type, t -> new KllSketch[MAX_LEVEL + 1]);
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(0, Math.min(level, MAX_LEVEL));
+    }
+}
@@ -0,0 +1,299 @@
+package com.memorytraining.model;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only score storage for one writer and any number of readers.
+ * Scores live in fixed-size segments; a segment slot is written before the
+ * volatile size is advanced, and the segment directory is replaced rather than
+ * modified when it grows. Readers therefore never lock and always see a
+ * consistent prefix of the history, and a snapshot never needs to copy scores.
+ *
+ * Each segment also keeps an index of completion times, their min/max and one
+ * bitmap per exercise type, so filtered queries skip whole segments and binary
+ * search the time range within segments that were appended in time order.
+ */
+public class ScoreLog {
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int TYPE_COUNT = ExerciseType.values().length;
+
+    private volatile State state = new State(new Score[0][], new SegmentIndex[0], 0);
+
+    /**
+     * Append a score. Only one thread may write at a time.
+     */
+    public void append(Score score) {
+        State current = state;
+        Score[][] segments = current.segments;
+        SegmentIndex[] indexes = current.indexes;
+        int size = current.size;
+        int segment = size >>> SEGMENT_SHIFT;
+
+        if (segment == segments.length) {
+            // Copy-on-write of the directory only; existing segments are shared
+            Score[][] grown = new Score[segments.length + 1][];
+            SegmentIndex[] grownIndexes = new SegmentIndex[indexes.length + 1];
+            System.arraycopy(segments, 0, grown, 0, segments.length);
+            System.arraycopy(indexes, 0, grownIndexes, 0, indexes.length);
+            grown[segment] = new Score[SEGMENT_SIZE];
+            grownIndexes[segment] = new SegmentIndex();
+            segments = grown;
+            indexes = grownIndexes;
+        }
+        segments[segment][size & SEGMENT_MASK] = score;
+        indexes[segment].add(size & SEGMENT_MASK, score);
+        state = new State(segments, indexes, size + 1);
+    }
+
+    /**
+     * Replace the whole history, e.g. after loading a profile. Writer only.
+     */
+    public void replaceAll(Collection<Score> scores) {
+        int count = scores.size();
+        int segmentCount = (count + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+        Score[][] segments = new Score[segmentCount][];
+        SegmentIndex[] indexes = new SegmentIndex[segmentCount];
+        int index = 0;
+        for (Score score : scores) {
+            int segment = index >>> SEGMENT_SHIFT;
+            if (segments[segment] == null) {
+                segments[segment] = new Score[SEGMENT_SIZE];
+                indexes[segment] = new SegmentIndex();
+            }
+            segments[segment][index & SEGMENT_MASK] = score;
+            indexes[segment].add(index & SEGMENT_MASK, score);
+            index++;
+        }
+        state = new State(segments, indexes, index);
+    }
+
+    public int size() {
+        return state.size;
+    }
+
+    /**
+     * Immutable view of the scores appended so far
+     */
+    public List<Score> snapshot() {
+        return new Snapshot(state);
+    }
+
+    /**
+     * Primitive cursor over the scores appended so far that match the query, in append order
+     */
+    public Cursor cursor(ScoreQuery query) {
+        return new Cursor(state, query);
+    }
+
+    /**
+     * Lazy stream over the scores appended so far that match the query, in append order
+     */
+    public Stream<Score> query(ScoreQuery query) {
+        Cursor cursor = cursor(query);
+        Iterator<Score> iterator = new Iterator<>() {
+            private boolean ready;
+            private boolean more;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    more = cursor.next();
+                    ready = true;
+                }
+                return more;
+            }
+
+            @Override
+            public Score next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return cursor.score();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    private static final class State {
+        final Score[][] segments;
+        final SegmentIndex[] indexes;
+        final int size;
+
+        State(Score[][] segments, SegmentIndex[] indexes, int size) {
+            this.segments = segments;
+            this.indexes = indexes;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Per-segment index. Written only by the writer before the size covering a slot is
+     * published, so readers limited to their snapshot size see consistent values; min/max
+     * may already include later slots, which only widens the bounds.
+     */
+    private static final class SegmentIndex {
+        final long[] times = new long[SEGMENT_SIZE];
+        final long[][] typeBits = new long[TYPE_COUNT][SEGMENT_SIZE >>> 6];
+        final int[] typeCounts = new int[TYPE_COUNT];
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        boolean sorted = true;
+
+        void add(int slot, Score score) {
+            long time = ScoreQuery.epochMs(score.getCompletedAt());
+            if (slot > 0 && time < times[slot - 1]) {
+                sorted = false;
+            }
+            times[slot] = time;
+            int type = score.getExerciseType().ordinal();
+            typeBits[type][slot >>> 6] |= 1L << slot;
+            typeCounts[type]++;
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        }
+
+        /**
+         * First slot in [from, to) whose time is >= key; only valid when sorted
+         */
+        int lowerBound(int from, int to, long key) {
+            int lo = from;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Forward-only cursor exposing the current match's fields without boxing.
+     * Call next() before reading, and stop when it returns false.
+     */
+    public static final class Cursor {
+        private final State state;
+        private final ScoreQuery query;
+        private final int typeOrdinal;
+        private int segment = -1;
+        private SegmentIndex index;
+        private long[] bits;
+        private int position;
+        private int end;
+        private Score current;
+        private long currentTime;
+        private int currentIndex;
+
+        private Cursor(State state, ScoreQuery query) {
+            this.state = state;
+            this.query = query;
+            this.typeOrdinal = query.getExerciseType() == null ? -1 : query.getExerciseType().ordinal();
+        }
+
+        public boolean next() {
+            while (true) {
+                if (position >= end) {
+                    if (!nextSegment()) {
+                        current = null;
+                        return false;
+                    }
+                    continue;
+                }
+                if (bits != null) {
+                    int word = position >>> 6;
+                    long remaining = bits[word] & (-1L << position);
+                    if (remaining == 0) {
+                        position = (word + 1) << 6;
+                        continue;
+                    }
+                    position = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    if (position >= end) {
+                        continue;
+                    }
+                }
+                int slot = position++;
+                long time = index.times[slot];
+                if (!query.matchesTime(time)) {
+                    continue;
+                }
+                Score score = state.segments[segment][slot];
+                if (!query.matchesLevel(score.getLevel())) {
+                    continue;
+                }
+                current = score;
+                currentTime = time;
+                currentIndex = (segment << SEGMENT_SHIFT) + slot;
+                return true;
+            }
+        }
+
+        private boolean nextSegment() {
+            int segmentCount = (state.size + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+            while (++segment < segmentCount) {
+                SegmentIndex candidate = state.indexes[segment];
+                int count = Math.min(SEGMENT_SIZE, state.size - (segment << SEGMENT_SHIFT));
+                if (!query.overlaps(candidate.minTime, candidate.maxTime)
+                        || (typeOrdinal >= 0 && candidate.typeCounts[typeOrdinal] == 0)) {
+                    continue;
+                }
+                index = candidate;
+                bits = typeOrdinal >= 0 ? candidate.typeBits[typeOrdinal] : null;
+                if (candidate.sorted) {
+                    position = candidate.lowerBound(0, count, query.getFromMs());
+                    end = query.getToMs() == Long.MAX_VALUE ? count : candidate.lowerBound(position, count, query.getToMs());
+                } else {
+                    position = 0;
+                    end = count;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        public Score score() { return current; }
+        public double value() { return current.getScore(); }
+        public int level() { return current.getLevel(); }
+        public long timeMs() { return currentTime; }
+        /** Position of the current match in append order */
+        public int index() { return currentIndex; }
+    }
+
+    private static final class Snapshot extends AbstractList<Score> implements RandomAccess {
+        private final Score[][] segments;
+        private final int size;
+
+        Snapshot(State state) {
+            this.segments = state.segments;
+            this.size = state.size;
+        }
+
+        @Override
+        public Score get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
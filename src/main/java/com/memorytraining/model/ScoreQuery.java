@@ -0,0 +1,84 @@
+package com.memorytraining.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Immutable filter over score history: a completion time range [from, to),
+ * an optional exercise type and a level range. Each refinement returns a new query.
+ */
+public final class ScoreQuery {
+    private static final ScoreQuery ALL = new ScoreQuery(Long.MIN_VALUE, Long.MAX_VALUE, null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    private final long fromMs;
+    private final long toMs;
+    private final ExerciseType exerciseType;
+    private final int minLevel;
+    private final int maxLevel;
+
+    private ScoreQuery(long fromMs, long toMs, ExerciseType exerciseType, int minLevel, int maxLevel) {
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+        this.exerciseType = exerciseType;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+    }
+
+    public static ScoreQuery all() {
+        return ALL;
+    }
+
+    public ScoreQuery from(LocalDateTime from) {
+        return new ScoreQuery(epochMs(from), toMs, exerciseType, minLevel, maxLevel);
+    }
+
+    public ScoreQuery to(LocalDateTime to) {
+        return new ScoreQuery(fromMs, epochMs(to), exerciseType, minLevel, maxLevel);
+    }
+
+    public ScoreQuery type(ExerciseType exerciseType) {
+        return new ScoreQuery(fromMs, toMs, exerciseType, minLevel, maxLevel);
+    }
+
+    public ScoreQuery minLevel(int minLevel) {
+        return new ScoreQuery(fromMs, toMs, exerciseType, minLevel, maxLevel);
+    }
+
+    public ScoreQuery maxLevel(int maxLevel) {
+        return new ScoreQuery(fromMs, toMs, exerciseType, minLevel, maxLevel);
+    }
+
+    public long getFromMs() { return fromMs; }
+    public long getToMs() { return toMs; }
+    public ExerciseType getExerciseType() { return exerciseType; }
+    public int getMinLevel() { return minLevel; }
+    public int getMaxLevel() { return maxLevel; }
+
+    public boolean matchesTime(long timeMs) {
+        return timeMs >= fromMs && timeMs < toMs;
+    }
+
+    public boolean matchesLevel(int level) {
+        return level >= minLevel && level <= maxLevel;
+    }
+
+    public boolean matches(Score score) {
+        return (exerciseType == null || score.getExerciseType() == exerciseType)
+                && matchesLevel(score.getLevel())
+                && matchesTime(epochMs(score.getCompletedAt()));
+    }
+
+    /**
+     * Whether a block of scores spanning [minMs, maxMs] can contain a match
+     */
+    public boolean overlaps(long minMs, long maxMs) {
+        return maxMs >= fromMs && minMs < toMs;
+    }
+
+    /**
+     * Completion times are indexed as milliseconds of the local date-time read as UTC
+     */
+    public static long epochMs(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,90 @@
+package com.memorytraining.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Best score, round count and score total per exercise type over a user's whole
+ * history. Kept alongside the live score list so that archiving old scores does
+ * not change a user's best or average. Drill rounds are not counted.
+ * Not thread-safe; User guards its instance.
+ */
+public class ScoreSummaries {
+    private final Map<ExerciseType, Summary> summaries = new EnumMap<>(ExerciseType.class);
+
+    /**
+     * Build summaries from an existing score history
+     */
+    public static ScoreSummaries fromScores(Iterable<Score> scores) {
+        ScoreSummaries summaries = new ScoreSummaries();
+        for (Score score : scores) {
+            summaries.record(score);
+        }
+        return summaries;
+    }
+
+    public void record(Score score) {
+        if (score.getExerciseType() == null || score.isDrill()) {
+            return;
+        }
+        Summary summary = summaries.computeIfAbsent(score.getExerciseType(), type -> new Summary());
+        summary.count++;
+        summary.sum += score.getScore();
+        // The earliest of equal scores stays the best
+        if (summary.best == null || score.getScore() > summary.best.getScore()) {
+            summary.best = score;
+        }
+    }
+
+    /**
+     * Highest scoring round of the type, or null if there is none
+     */
+    public Score getBest(ExerciseType type) {
+        Summary summary = summaries.get(type);
+        return summary == null ? null : summary.best;
+    }
+
+    public long getCount(ExerciseType type) {
+        Summary summary = summaries.get(type);
+        return summary == null ? 0 : summary.count;
+    }
+
+    public double getSum(ExerciseType type) {
+        Summary summary = summaries.get(type);
+        return summary == null ? 0 : summary.sum;
+    }
+
+    /**
+     * Mean score of the type, or 0 if there are no rounds
+     */
+    public double getAverage(ExerciseType type) {
+        Summary summary = summaries.get(type);
+        return summary == null || summary.count == 0 ? 0.0 : summary.sum / summary.count;
+    }
+
+    /**
+     * Restore a stored summary
+     */
+    public void set(ExerciseType type, Score best, long count, double sum) {
+        Summary summary = new Summary();
+        summary.best = best;
+        summary.count = count;
+        summary.sum = sum;
+        summaries.put(type, summary);
+    }
+
+    public ScoreSummaries copy() {
+        ScoreSummaries copy = new ScoreSummaries();
+        for (Map.Entry<ExerciseType, Summary> entry : summaries.entrySet()) {
+            Summary summary = entry.getValue();
+            copy.set(entry.getKey(), summary.best, summary.count, summary.sum);
+        }
+        return copy;
+    }
+
+    private static class Summary {
+        private Score best;
+        private long count;
+        private double sum;
+    }
+}
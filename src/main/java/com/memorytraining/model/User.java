@@ -1,26 +1,45 @@
 package com.memorytraining.model;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
 
 /**
- * Represents a user of the memory training application
+ * Represents a user of the memory training application.
+ * Safe for one writer and many readers:
+ * <ul>
+ * <li>Scores are kept in an append-only {@link ScoreLog}; appending and replacing the
+ * history take the write lock, reading it never locks.</li>
+ * <li>The counters, distributions and summaries are guarded by a StampedLock; counters
+ * are read optimistically, distributions and summaries under the read lock.</li>
+ * <li>Username, timestamps and the preferences, item memory and confusion references
+ * are volatile; the preferences and trackers themselves are safe to read concurrently.</li>
+ * </ul>
+ * Fields are read individually, so a background reader may see a counter from just
+ * before a score and the score itself, but never a torn value.
  */
 public class User {
-    private String username;
-    private LocalDateTime createdAt;
-    private LocalDateTime lastLoginAt;
+    private volatile String username;
+    private volatile LocalDateTime createdAt;
+    private volatile LocalDateTime lastLoginAt;
     private int totalExercisesCompleted;
     private int currentStreak;
     private int longestStreak;
-    private List<Score> scores;
-    private UserPreferences preferences;
+    private final ScoreLog scores;
+    private final StampedLock lock = new StampedLock();
+    private ScoreDistributions distributions;
+    private ScoreSummaries summaries;
+    private volatile UserPreferences preferences;
+    private volatile ItemMemory itemMemory = new ItemMemory();
+    private volatile ConfusionTracker confusions = new ConfusionTracker();
     
     public User() {
         this.createdAt = LocalDateTime.now();
         this.lastLoginAt = LocalDateTime.now();
-        this.scores = new ArrayList<>();
+        this.scores = new ScoreLog();
+        this.distributions = new ScoreDistributions();
+        this.summaries = new ScoreSummaries();
         this.preferences = new UserPreferences();
         this.totalExercisesCompleted = 0;
         this.currentStreak = 0;
@@ -42,41 +61,211 @@ public class User {
     public LocalDateTime getLastLoginAt() { return lastLoginAt; }
     public void setLastLoginAt(LocalDateTime lastLoginAt) { this.lastLoginAt = lastLoginAt; }
     
-    public int getTotalExercisesCompleted() { return totalExercisesCompleted; }
+    public int getTotalExercisesCompleted() {
+        long stamp = lock.tryOptimisticRead();
+        int value = totalExercisesCompleted;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = totalExercisesCompleted;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
     public void setTotalExercisesCompleted(int totalExercisesCompleted) { 
-        this.totalExercisesCompleted = totalExercisesCompleted; 
+        long stamp = lock.writeLock();
+        try {
+            this.totalExercisesCompleted = totalExercisesCompleted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
     
-    public int getCurrentStreak() { return currentStreak; }
-    public void setCurrentStreak(int currentStreak) { this.currentStreak = currentStreak; }
+    public int getCurrentStreak() {
+        long stamp = lock.tryOptimisticRead();
+        int value = currentStreak;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = currentStreak;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+    public void setCurrentStreak(int currentStreak) {
+        long stamp = lock.writeLock();
+        try {
+            this.currentStreak = currentStreak;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
     
-    public int getLongestStreak() { return longestStreak; }
-    public void setLongestStreak(int longestStreak) { this.longestStreak = longestStreak; }
+    public int getLongestStreak() {
+        long stamp = lock.tryOptimisticRead();
+        int value = longestStreak;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = longestStreak;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+    public void setLongestStreak(int longestStreak) {
+        long stamp = lock.writeLock();
+        try {
+            this.longestStreak = longestStreak;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Immutable snapshot of the score history; later scores are not visible through it
+     */
+    public List<Score> getScores() { return scores.snapshot(); }
     
-    public List<Score> getScores() { return scores; }
-    public void setScores(List<Score> scores) { this.scores = scores; }
+    /**
+     * Replace the score history. Distributions and summaries are not recomputed, so they
+     * keep covering scores that were archived; see setDistributions and setSummaries.
+     */
+    public void setScores(List<Score> scores) {
+        long stamp = lock.writeLock();
+        try {
+            this.scores.replaceAll(scores);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Independent copy of this user's score and response-time distributions
+     */
+    public ScoreDistributions copyDistributions() {
+        long stamp = lock.readLock();
+        try {
+            return distributions.copy();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    public void setDistributions(ScoreDistributions distributions) {
+        long stamp = lock.writeLock();
+        try {
+            this.distributions = distributions;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Independent copy of this user's per-type best and average, covering archived scores too
+     */
+    public ScoreSummaries copySummaries() {
+        long stamp = lock.readLock();
+        try {
+            return summaries.copy();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    public void setSummaries(ScoreSummaries summaries) {
+        long stamp = lock.writeLock();
+        try {
+            this.summaries = summaries;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
     
     public UserPreferences getPreferences() { return preferences; }
+    
+    /**
+     * Spaced-repetition state for the individual items this user has practised
+     */
+    public ItemMemory getItemMemory() { return itemMemory; }
+    public void setItemMemory(ItemMemory itemMemory) { this.itemMemory = itemMemory; }
+    
+    /**
+     * Which items this user tends to give in place of which
+     */
+    public ConfusionTracker getConfusions() { return confusions; }
+    public void setConfusions(ConfusionTracker confusions) { this.confusions = confusions; }
     public void setPreferences(UserPreferences preferences) { this.preferences = preferences; }
     
     // Utility methods
     public void addScore(Score score) {
-        this.scores.add(score);
-        this.totalExercisesCompleted++;
+        long stamp = lock.writeLock();
+        try {
+            this.scores.append(score);
+            this.distributions.record(score);
+            this.summaries.record(score);
+            this.totalExercisesCompleted++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Consistent view of the score history; taking it does not copy or lock
+     */
+    public List<Score> getScoresSnapshot() {
+        return scores.snapshot();
+    }
+    
+    public int getScoreCount() {
+        return scores.size();
+    }
+    
+    /**
+     * Scores matching the query, in recording order, using the time and type index
+     */
+    public Stream<Score> queryScores(ScoreQuery query) {
+        return scores.query(query);
+    }
+    
+    /**
+     * Percentile (0-100) of a score among this user's own results at the same type and level
+     */
+    public double getScorePercentile(ExerciseType exerciseType, int level, double score) {
+        long stamp = lock.readLock();
+        try {
+            return distributions.getScorePercentile(exerciseType, level, score);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
     
+    /**
+     * Mean score of the type over the whole history, archived scores included
+     */
     public double getAverageScore(ExerciseType exerciseType) {
-        return scores.stream()
-                .filter(score -> score.getExerciseType() == exerciseType)
-                .mapToDouble(Score::getScore)
-                .average()
-                .orElse(0.0);
+        long stamp = lock.readLock();
+        try {
+            return summaries.getAverage(exerciseType);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
     
+    /**
+     * Best round of the type over the whole history, archived scores included
+     */
     public Score getBestScore(ExerciseType exerciseType) {
-        return scores.stream()
-                .filter(score -> score.getExerciseType() == exerciseType)
-                .max((s1, s2) -> Double.compare(s1.getScore(), s2.getScore()))
-                .orElse(null);
+        long stamp = lock.readLock();
+        try {
+            return summaries.getBest(exerciseType);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 }
\ No newline at end of file
@@ -1,16 +1,19 @@
 package com.memorytraining.model;
 
 /**
- * Stores user preferences and settings
+ * Stores user preferences and settings.
+ * Fields are volatile so a profile can be saved from a background thread while
+ * the settings are being changed on the FX thread.
  */
 public class UserPreferences {
-    private boolean soundEnabled;
-    private boolean animationsEnabled;
-    private int defaultDifficulty;
-    private boolean adaptiveDifficultyEnabled;
-    private String theme;
-    private int reminderFrequencyDays;
-    private boolean remindersEnabled;
+    private volatile boolean soundEnabled;
+    private volatile boolean animationsEnabled;
+    private volatile int defaultDifficulty;
+    private volatile boolean adaptiveDifficultyEnabled;
+    private volatile String theme;
+    private volatile int reminderFrequencyDays;
+    private volatile boolean remindersEnabled;
+    private volatile boolean confusionTrainingEnabled;
     
     public UserPreferences() {
         // Default settings
@@ -21,6 +24,7 @@ public class UserPreferences {
         this.theme = "light";
         this.reminderFrequencyDays = 1;
         this.remindersEnabled = false;
+        this.confusionTrainingEnabled = true;
     }
     
     // Getters and Setters
@@ -48,4 +52,10 @@ public class UserPreferences {
     
     public boolean isRemindersEnabled() { return remindersEnabled; }
     public void setRemindersEnabled(boolean remindersEnabled) { this.remindersEnabled = remindersEnabled; }
+    
+    /** Whether generated rounds lean toward items this user tends to mix up */
+    public boolean isConfusionTrainingEnabled() { return confusionTrainingEnabled; }
+    public void setConfusionTrainingEnabled(boolean confusionTrainingEnabled) {
+        this.confusionTrainingEnabled = confusionTrainingEnabled;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scores recalled items against the expected sequence.
+ * Individual items are compared with a bit-parallel (Myers) edit distance so
+ * small typos can be tolerated, and the sequence as a whole is aligned with an
+ * LCS pass so a single missed or extra item does not shift every later answer.
+ * One matcher can be shared between threads: each thread keeps its own scratch
+ * rows and pattern tables, so matching allocates nothing once they have grown.
+ */
+public class AnswerMatcher {
+    private static final int ASCII_SIZE = 128;
+    private static final int WORD_BITS = 64;
+
+    /**
+     * An expected item with its surrounding whitespace trimmed and, for patterns that fit
+     * in one machine word, its Myers match masks. Patterns are reset in place rather than
+     * rebuilt, clearing only the table entries the previous item set.
+     */
+    private static final class Pattern {
+        final long[] peq = new long[ASCII_SIZE];
+        String text;
+        int start;
+        int end;
+        boolean masks;
+        boolean wide;
+
+        boolean holds(String text, boolean masks) {
+            return this.text == text && this.masks == masks;
+        }
+
+        Pattern reset(String text, boolean masks) {
+            int first = firstNonSpace(text);
+            return reset(text, first, Math.max(first, lastNonSpace(text) + 1), masks);
+        }
+
+        Pattern reset(String text, int start, int end, boolean masks) {
+            if (hasMasks()) {
+                for (int i = this.start; i < this.end; i++) {
+                    char c = Character.toLowerCase(this.text.charAt(i));
+                    if (c < ASCII_SIZE) {
+                        peq[c] = 0L;
+                    }
+                }
+            }
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.masks = masks;
+            this.wide = false;
+            if (hasMasks()) {
+                for (int i = start; i < end; i++) {
+                    char c = Character.toLowerCase(text.charAt(i));
+                    if (c < ASCII_SIZE) {
+                        peq[c] |= 1L << (i - start);
+                    } else {
+                        wide = true;
+                    }
+                }
+            }
+            return this;
+        }
+
+        boolean hasMasks() {
+            return text != null && masks && end - start <= WORD_BITS;
+        }
+
+        int length() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Per-thread working memory: the LCS and DP rows, a pattern for one-off comparisons,
+     * and the patterns of the last sequence counted, reused while its items are unchanged
+     */
+    private static final class Scratch {
+        int[] prev = new int[0];
+        int[] curr = new int[0];
+        int[] dpPrev = new int[0];
+        int[] dpCurr = new int[0];
+        final Pattern single = new Pattern();
+        Pattern[] round = new Pattern[0];
+
+        void ensureRows(int size) {
+            if (prev.length < size) {
+                prev = new int[size];
+                curr = new int[size];
+            }
+        }
+
+        void ensureDpRows(int size) {
+            if (dpPrev.length < size) {
+                dpPrev = new int[size];
+                dpCurr = new int[size];
+            }
+        }
+
+        Pattern roundPattern(int index, String text, boolean masks) {
+            if (round.length <= index) {
+                Pattern[] grown = Arrays.copyOf(round, Math.max(index + 1, round.length * 2));
+                for (int i = round.length; i < grown.length; i++) {
+                    grown[i] = new Pattern();
+                }
+                round = grown;
+            }
+            Pattern pattern = round[index];
+            return pattern.holds(text, masks) ? pattern : pattern.reset(text, masks);
+        }
+    }
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Count the items recalled in the correct relative order.
+     * Items that are recalled but displaced by a missing or extra answer still
+     * count, as long as they keep their order relative to the other matches.
+     */
+    public int countCorrect(ExerciseType type, List<String> expected, List<String> actual) {
+        int m = expected.size();
+        int n = actual.size();
+        Scratch work = scratch.get();
+        work.ensureRows(n + 1);
+        int[] prev = work.prev;
+        int[] curr = work.curr;
+        Arrays.fill(prev, 0, n + 1, 0);
+
+        for (int i = 1; i <= m; i++) {
+            String expectedItem = expected.get(i - 1);
+            int tolerance = typoTolerance(type, expectedItem.length());
+            Pattern pattern = work.roundPattern(i - 1, expectedItem, tolerance > 0);
+            curr[0] = 0;
+            for (int j = 1; j <= n; j++) {
+                int best = Math.max(prev[j], curr[j - 1]);
+                if (prev[j - 1] + 1 > best && matches(work, pattern, actual.get(j - 1), tolerance)) {
+                    best = prev[j - 1] + 1;
+                }
+                curr[j] = best;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[n];
+    }
+
+    /**
+     * Check whether an answer matches the expected item within the given number of edits.
+     * Comparison is case-insensitive and ignores surrounding whitespace.
+     */
+    public boolean matches(String expected, String actual, int tolerance) {
+        Scratch work = scratch.get();
+        return matches(work, work.single.reset(expected, tolerance > 0), actual, tolerance);
+    }
+
+    private boolean matches(Scratch work, Pattern expected, String actual, int tolerance) {
+        int actualStart = firstNonSpace(actual);
+        int actualEnd = Math.max(actualStart, lastNonSpace(actual) + 1);
+        int expectedLength = expected.length();
+        int actualLength = actualEnd - actualStart;
+
+        if (Math.abs(expectedLength - actualLength) > tolerance) {
+            return false;
+        }
+        if (tolerance == 0) {
+            return expected.text.regionMatches(true, expected.start, actual, actualStart, expectedLength)
+                    && expectedLength == actualLength;
+        }
+        return editDistance(work, expected, actual, actualStart, actualEnd) <= tolerance;
+    }
+
+    /**
+     * Case-insensitive Levenshtein distance between two strings
+     */
+    public int editDistance(String a, String b) {
+        Scratch work = scratch.get();
+        return editDistance(work, work.single.reset(a, 0, a.length(), true), b, 0, b.length());
+    }
+
+    /**
+     * Number of edits tolerated for an item of the given type and length.
+     * Only free-text word answers allow typos; numbers, colors, actions and
+     * positions are either right or wrong.
+     */
+    public static int typoTolerance(ExerciseType type, int length) {
+        if (type != ExerciseType.WORD_MEMORY) {
+            return 0;
+        }
+        if (length < 4) return 0;
+        if (length < 8) return 1;
+        return 2;
+    }
+
+    private static int editDistance(Scratch work, Pattern pattern, String text, int tStart, int tEnd) {
+        int m = pattern.length();
+        int n = tEnd - tStart;
+        if (m == 0) return n;
+        if (n == 0) return m;
+        if (!pattern.hasMasks()) {
+            return editDistanceDp(work, pattern.text, pattern.start, pattern.end, text, tStart, tEnd);
+        }
+
+        // Myers 1999, Hyyro's global variant, with the pattern's match masks prebuilt
+        long[] peq = pattern.peq;
+        long pv = m == WORD_BITS ? -1L : (1L << m) - 1;
+        long mv = 0;
+        long last = 1L << (m - 1);
+        int score = m;
+
+        for (int j = 0; j < n; j++) {
+            char c = Character.toLowerCase(text.charAt(tStart + j));
+            long eq = c < ASCII_SIZE ? peq[c] : (pattern.wide ? wideMask(pattern, c) : 0L);
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) score++;
+            if ((mh & last) != 0) score--;
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
+
+    private static long wideMask(Pattern pattern, char c) {
+        long mask = 0L;
+        for (int i = pattern.start; i < pattern.end; i++) {
+            if (Character.toLowerCase(pattern.text.charAt(i)) == c) {
+                mask |= 1L << (i - pattern.start);
+            }
+        }
+        return mask;
+    }
+
+    private static int editDistanceDp(Scratch work, String a, int aStart, int aEnd, String b, int bStart, int bEnd) {
+        int n = bEnd - bStart;
+        work.ensureDpRows(n + 1);
+        int[] prev = work.dpPrev;
+        int[] curr = work.dpCurr;
+        for (int j = 0; j <= n; j++) {
+            prev[j] = j;
+        }
+        for (int i = aStart; i < aEnd; i++) {
+            char ca = Character.toLowerCase(a.charAt(i));
+            curr[0] = i - aStart + 1;
+            for (int j = 1; j <= n; j++) {
+                int cost = ca == Character.toLowerCase(b.charAt(bStart + j - 1)) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1], prev[j]) + 1, prev[j - 1] + cost);
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[n];
+    }
+
+    private static int firstNonSpace(String s) {
+        int i = 0;
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int lastNonSpace(String s) {
+        int i = s.length() - 1;
+        while (i >= 0 && Character.isWhitespace(s.charAt(i))) i--;
+        return i;
+    }
+}
@@ -0,0 +1,131 @@
+package com.memorytraining.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Serves the current exercise content and reloads it when files in the content directory
+ * change. A new snapshot is built completely off to the side and then swapped in with one
+ * volatile write, so generation never waits and never sees a mix of old and new content.
+ * Content that fails to load is reported and the previous snapshot stays in use.
+ *
+ * The directory is -Dlostart.content.dir, or "content" in the data directory.
+ */
+public class ContentService {
+    /** Wait for this long without further changes before reloading, so multi-file edits land together */
+    private static final long QUIET_PERIOD_MS = 300;
+
+    private final Path directory;
+    private final CopyOnWriteArrayList<Consumer<ExerciseContent>> listeners = new CopyOnWriteArrayList<>();
+    private volatile ExerciseContent content;
+    private volatile WatchService watchService;
+
+    public ContentService(Path dataDirectory) {
+        String configured = System.getProperty("lostart.content.dir");
+        this.directory = configured != null ? Path.of(configured) : dataDirectory.resolve("content");
+        this.content = loadOrDefaults();
+    }
+
+    public ExerciseContent get() {
+        return content;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Register a listener called with each new snapshot after it has been swapped in
+     */
+    public void addContentListener(Consumer<ExerciseContent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Start watching the content directory, creating it if needed
+     */
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("Error watching content directory " + directory + ": " + e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(this::watch, "content-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+        WatchService watch = watchService;
+        try {
+            while (true) {
+                WatchKey key = watch.take();
+                key.pollEvents();
+                key.reset();
+                // Drain the burst of events an editor or copy produces
+                WatchKey more;
+                while ((more = watch.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS)) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Load the directory now and swap the new snapshot in if it is valid
+     */
+    public void reload() {
+        try {
+            ExerciseContent loaded = Files.isDirectory(directory) ? ExerciseContent.load(directory) : ExerciseContent.defaults();
+            content = loaded;
+            for (Consumer<ExerciseContent> listener : listeners) {
+                listener.accept(loaded);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reloading content, keeping the previous version: " + e.getMessage());
+        }
+    }
+
+    private ExerciseContent loadOrDefaults() {
+        if (Files.isDirectory(directory)) {
+            try {
+                return ExerciseContent.load(directory);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading content, using built-in content: " + e.getMessage());
+            }
+        }
+        return ExerciseContent.defaults();
+    }
+
+    public void stop() {
+        WatchService watch = watchService;
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (IOException e) {
+                System.err.println("Error closing content watcher: " + e.getMessage());
+            }
+        }
+    }
+}
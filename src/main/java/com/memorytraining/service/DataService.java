@@ -1,14 +1,34 @@
 package com.memorytraining.service;
 
+import com.memorytraining.jfr.PersistenceEvent;
+import com.memorytraining.model.ConfusionTracker;
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.ItemMemory;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreDistributions;
+import com.memorytraining.model.ScoreQuery;
+import com.memorytraining.model.ScoreSummaries;
 import com.memorytraining.model.User;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing user data persistence
@@ -16,15 +36,43 @@ import java.time.format.DateTimeFormatter;
 public class DataService {
     private static final String DATA_DIR = System.getProperty("user.home") + "/.lost-art-memory";
     private static final String USER_DATA_FILE = "user_data.json";
+    private static final String PROFILES_DIR = "profiles";
+    private static final String ARCHIVE_DIR = "archive";
+    private static final String SESSIONS_DIR = "sessions";
+    private static final String ITEMS_DIR = "items";
+    private static final String CONFUSIONS_DIR = "confusions";
+    private static final long DEFAULT_ARCHIVE_RETENTION_DAYS = 90;
+    private static final long DEFAULT_PROFILE_CACHE_WEIGHT = 200_000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     
-    private User currentUser;
+    private volatile User currentUser;
     private Path dataDirectory;
     private Path userDataPath;
+    private Path profilesDirectory;
+    private ProfileCache profileCache;
+    private final ScoreRescorer rescorer = new ScoreRescorer();
+    private final ExecutorService profileWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "profile-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     public DataService() {
-        this.dataDirectory = Paths.get(DATA_DIR);
+        this(Paths.get(DATA_DIR));
+    }
+    
+    /**
+     * Data service over another data directory, e.g. a copy being maintained offline
+     */
+    public DataService(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
         this.userDataPath = dataDirectory.resolve(USER_DATA_FILE);
+        this.profilesDirectory = dataDirectory.resolve(PROFILES_DIR);
+        this.profileCache = new ProfileCache(
+            Long.getLong("lostart.profileCache.maxScores", DEFAULT_PROFILE_CACHE_WEIGHT),
+            this::loadProfile, this::saveProfile, profileWriter
+        );
         createDataDirectoryIfNotExists();
     }
     
@@ -41,31 +89,408 @@ public class DataService {
             if (!Files.exists(dataDirectory)) {
                 Files.createDirectories(dataDirectory);
             }
+            if (!Files.exists(profilesDirectory)) {
+                Files.createDirectories(profilesDirectory);
+            }
         } catch (IOException e) {
             System.err.println("Error creating data directory: " + e.getMessage());
         }
     }
     
-    public void saveData() {
+    public synchronized void saveData() {
+        User user = currentUser;
+        if (user == null) {
+            return;
+        }
+        PersistenceEvent event = PersistenceEvent.start("save", "user data", user.getUsername());
+        boolean saved = false;
         try {
-            JSONObject userJson = userToJson(currentUser);
+            JSONObject userJson = userToJson(user);
             try (FileWriter writer = new FileWriter(userDataPath.toFile())) {
                 writer.write(userJson.toString(2));
             }
+            saved = true;
         } catch (IOException e) {
             System.err.println("Error saving user data: " + e.getMessage());
+        } finally {
+            event.finish(userDataPath, saved);
         }
+        saveItemMemory(user);
+        saveConfusions(user);
     }
     
-    private void loadUserData() {
+    /**
+     * Switch profiles on the background profile writer, so loading the profile and any
+     * write-backs it causes never block the caller. Completes with the new current profile.
+     */
+    public CompletableFuture<User> switchUserInBackground(String username) {
+        return CompletableFuture.supplyAsync(() -> switchUser(username), profileWriter);
+    }
+    
+    /**
+     * Persist a profile after scores were added to it. The current profile is saved now;
+     * any other one is marked dirty in the cache and written back with it.
+     */
+    public void profileChanged(User user) {
+        if (user == currentUser) {
+            profileCache.markDirty(user.getUsername());
+            saveData();
+        } else {
+            profileCache.put(user, true);
+        }
+    }
+    
+    /**
+     * Wait for background profile I/O to finish. Call before the final save on exit.
+     */
+    public void shutdown() {
+        profileWriter.shutdown();
         try {
-            if (Files.exists(userDataPath)) {
-                String content = Files.readString(userDataPath);
-                JSONObject userJson = new JSONObject(content);
-                currentUser = jsonToUser(userJson);
+            profileWriter.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Make another profile current now, creating it if it does not exist yet.
+     * The previous profile stays cached and is written back before it is evicted.
+     */
+    public synchronized User switchUser(String username) {
+        User previous = currentUser;
+        if (previous != null) {
+            if (previous.getUsername().equals(username)) {
+                return previous;
+            }
+            profileCache.put(previous, true);
+        }
+        
+        User user = profileCache.get(username);
+        if (user == null) {
+            user = new User(username);
+            profileCache.put(user, true);
+        }
+        user.setLastLoginAt(LocalDateTime.now());
+        currentUser = user;
+        saveData();
+        return user;
+    }
+    
+    /**
+     * Add scores recorded on another station to their users' profiles, creating profiles
+     * this station has not seen yet. Profiles other than the current one are marked dirty
+     * in the cache and written back with it. Returns true if the current user changed.
+     */
+    public synchronized boolean addRemoteScores(List<SyncService.JournalEntry> entries) {
+        boolean currentChanged = false;
+        for (SyncService.JournalEntry entry : entries) {
+            User user = currentUser;
+            if (user != null && user.getUsername().equals(entry.getUsername())) {
+                user.addScore(entry.getScore());
+                currentChanged = true;
+                continue;
             }
+            user = profileCache.get(entry.getUsername());
+            if (user == null) {
+                user = new User(entry.getUsername());
+                user.addScore(entry.getScore());
+                profileCache.put(user, true);
+            } else {
+                user.addScore(entry.getScore());
+                profileCache.markDirty(user.getUsername());
+            }
+        }
+        return currentChanged;
+    }
+    
+    /**
+     * Write back all cached profiles that changed
+     */
+    public void flushProfiles() {
+        User user = currentUser;
+        if (user != null) {
+            profileCache.put(user, true);
+        }
+        profileCache.flush();
+    }
+    
+    public ProfileCache getProfileCache() {
+        return profileCache;
+    }
+    
+    private User loadProfile(String username) {
+        Path path = profilePath(username);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        PersistenceEvent event = PersistenceEvent.start("load", "profile", username);
+        User user;
+        try {
+            user = jsonToUser(new JSONObject(Files.readString(path)));
+            event.finish(path, true);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading profile " + username + ": " + e.getMessage());
+            event.finish(path, false);
+            return null;
+        }
+        user.setItemMemory(loadItemMemory(user.getUsername()));
+        user.setConfusions(loadConfusions(user.getUsername()));
+        if (upgradeProfile(user)) {
+            saveProfile(user);
+        }
+        return user;
+    }
+    
+    private void saveProfile(User user) {
+        Path path = profilePath(user.getUsername());
+        PersistenceEvent event = PersistenceEvent.start("save", "profile", user.getUsername());
+        boolean saved = false;
+        try {
+            Files.writeString(path, userToJson(user).toString(2));
+            saved = true;
         } catch (IOException e) {
+            System.err.println("Error saving profile " + user.getUsername() + ": " + e.getMessage());
+        } finally {
+            event.finish(path, saved);
+        }
+        saveItemMemory(user);
+        saveConfusions(user);
+    }
+    
+    private Path itemMemoryPath(String username) {
+        return dataDirectory.resolve(ITEMS_DIR).resolve(fileName(username) + ".bin");
+    }
+    
+    private ItemMemory loadItemMemory(String username) {
+        ItemMemory memory = readBinary(itemMemoryPath(username), ItemMemory::read, "item memory", username);
+        return memory != null ? memory : new ItemMemory();
+    }
+    
+    /**
+     * Item state is kept in its own binary file and only rewritten when it changed
+     */
+    private void saveItemMemory(User user) {
+        ItemMemory memory = user.getItemMemory();
+        if (memory.isDirty()) {
+            writeBinary(itemMemoryPath(user.getUsername()), memory::write, "item memory", user.getUsername());
+        }
+    }
+    
+    private Path confusionsPath(String username) {
+        return dataDirectory.resolve(CONFUSIONS_DIR).resolve(fileName(username) + ".bin");
+    }
+    
+    private ConfusionTracker loadConfusions(String username) {
+        ConfusionTracker confusions = readBinary(confusionsPath(username), ConfusionTracker::read, "confusions", username);
+        return confusions != null ? confusions : new ConfusionTracker();
+    }
+    
+    private void saveConfusions(User user) {
+        ConfusionTracker confusions = user.getConfusions();
+        if (confusions.isDirty()) {
+            writeBinary(confusionsPath(user.getUsername()), confusions::write, "confusions", user.getUsername());
+        }
+    }
+    
+    private interface BinaryReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+    
+    private interface BinaryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    private static <T> T readBinary(Path path, BinaryReader<T> reader, String what, String username) {
+        if (Files.exists(path)) {
+            PersistenceEvent event = PersistenceEvent.start("load", what, username);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                T value = reader.read(in);
+                event.finish(path, true);
+                return value;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading " + what + " for " + username + ": " + e.getMessage());
+                event.finish(path, false);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Write to a temporary file and move it into place, so a crash never leaves half a file
+     */
+    private static void writeBinary(Path path, BinaryWriter writer, String what, String username) {
+        PersistenceEvent event = PersistenceEvent.start("save", what, username);
+        boolean saved = false;
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                writer.write(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            saved = true;
+        } catch (IOException e) {
+            System.err.println("Error saving " + what + " for " + username + ": " + e.getMessage());
+        } finally {
+            event.finish(path, saved);
+        }
+    }
+    
+    /**
+     * Parse a profile file, streaming it through the JSON tokenizer rather than reading it
+     * into one string first. Load-time upgrades are not applied; see {@link #upgradeProfile}.
+     */
+    public User readProfile(Path file) throws IOException {
+        PersistenceEvent event = PersistenceEvent.start("load", "profile", file.getFileName().toString());
+        boolean loaded = false;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            User user = jsonToUser(new JSONObject(new JSONTokener(reader)));
+            event.username = user.getUsername();
+            loaded = true;
+            return user;
+        } catch (JSONException e) {
+            throw new IOException("Malformed profile " + file.getFileName() + ": " + e.getMessage(), e);
+        } finally {
+            event.finish(file, loaded);
+        }
+    }
+    
+    /**
+     * Write a profile to its file in the current format, via a temporary file
+     */
+    public void writeProfile(User user) throws IOException {
+        writeProfile(user, profilePath(user.getUsername()));
+    }
+
+    /**
+     * Write a profile back to the file it was read from, e.g. user_data.json
+     */
+    public void writeProfile(User user, Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        PersistenceEvent event = PersistenceEvent.start("save", "profile", user.getUsername());
+        boolean saved = false;
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                userToJson(user).write(writer, 2, 0);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            saved = true;
+        } finally {
+            event.finish(path, saved);
+        }
+    }
+    
+    /**
+     * Apply the upgrades done whenever a profile is loaded: re-score outdated scores and
+     * archive old ones. Returns true if the profile changed.
+     */
+    public boolean upgradeProfile(User user) {
+        // Re-score first, so scores moved into the archive are already current
+        return rescoreOutdated(user) | archiveOldScores(user);
+    }
+    
+    public Path getProfilesDirectory() {
+        return profilesDirectory;
+    }
+
+    public Path getUserDataPath() {
+        return userDataPath;
+    }
+
+    /**
+     * Every stored profile file: user_data.json first, then profiles/*.json. The copy under
+     * profiles/ of the user in user_data.json is left out, as it is only written when another
+     * user becomes current and so may be stale. Close the stream after use.
+     */
+    public Stream<Path> profileFiles() throws IOException {
+        String current = null;
+        if (Files.exists(userDataPath)) {
+            try {
+                current = fileName(readProfile(userDataPath).getUsername()) + ".json";
+            } catch (IOException | RuntimeException e) {
+                // Reported when the file itself is processed; keep every profile copy meanwhile
+                System.err.println("Error reading user data: " + e.getMessage());
+            }
+        }
+        String stale = current;
+        Stream<Path> profiles = Files.list(profilesDirectory)
+                .filter(file -> file.getFileName().toString().endsWith(".json"))
+                .filter(file -> !file.getFileName().toString().equals(stale));
+        return Files.exists(userDataPath) ? Stream.concat(Stream.of(userDataPath), profiles) : profiles;
+    }
+    
+    /**
+     * File name a username is stored under, without extension
+     */
+    public static String profileFileName(String username) {
+        return fileName(username);
+    }
+    
+    private Path profilePath(String username) {
+        return profilesDirectory.resolve(fileName(username) + ".json");
+    }
+    
+    private static String fileName(String username) {
+        return username.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+    
+    /**
+     * Compressed archive of a user's scores older than the retention window
+     */
+    public ScoreArchive getArchive(String username) {
+        return new ScoreArchive(dataDirectory.resolve(ARCHIVE_DIR).resolve(fileName(username)));
+    }
+    
+    /**
+     * Directory holding a user's recorded exercise sessions
+     */
+    public Path getSessionsDirectory(String username) {
+        return dataDirectory.resolve(SESSIONS_DIR).resolve(fileName(username));
+    }
+    
+    /**
+     * Roll scores older than -Dlostart.archive.retentionDays (default 90) out of a freshly
+     * loaded profile into its archive. Returns true if the profile changed and should be rewritten.
+     */
+    private boolean archiveOldScores(User user) {
+        long retentionDays = Long.getLong("lostart.archive.retentionDays", DEFAULT_ARCHIVE_RETENTION_DAYS);
+        if (retentionDays <= 0) {
+            return false;
+        }
+        List<Score> scores = user.getScoresSnapshot();
+        List<Score> remaining = getArchive(user.getUsername())
+                .rollOlderThan(scores, LocalDateTime.now().minusDays(retentionDays));
+        if (remaining.size() == scores.size()) {
+            return false;
+        }
+        // Distributions, summaries and counters already cover the archived scores, so only the list shrinks
+        user.setScores(remaining);
+        return true;
+    }
+    
+    private void loadUserData() {
+        if (!Files.exists(userDataPath)) {
+            return;
+        }
+        PersistenceEvent event = PersistenceEvent.start("load", "user data", null);
+        User user;
+        try {
+            String content = Files.readString(userDataPath);
+            JSONObject userJson = new JSONObject(content);
+            user = jsonToUser(userJson);
+            event.username = user.getUsername();
+            event.finish(userDataPath, true);
+        } catch (IOException | RuntimeException e) {
             System.err.println("Error loading user data: " + e.getMessage());
+            event.finish(userDataPath, false);
+            return;
+        }
+        user.setItemMemory(loadItemMemory(user.getUsername()));
+        user.setConfusions(loadConfusions(user.getUsername()));
+        boolean changed = upgradeProfile(user);
+        currentUser = user;
+        if (changed) {
+            saveData();
         }
     }
     
@@ -85,11 +510,60 @@ public class DataService {
         prefsJson.put("defaultDifficulty", user.getPreferences().getDefaultDifficulty());
         prefsJson.put("adaptiveDifficultyEnabled", user.getPreferences().isAdaptiveDifficultyEnabled());
         prefsJson.put("theme", user.getPreferences().getTheme());
+        prefsJson.put("confusionTrainingEnabled", user.getPreferences().isConfusionTrainingEnabled());
+        prefsJson.put("remindersEnabled", user.getPreferences().isRemindersEnabled());
+        prefsJson.put("reminderFrequencyDays", user.getPreferences().getReminderFrequencyDays());
         json.put("preferences", prefsJson);
         
+        // Add score history
+        JSONArray scoresJson = new JSONArray();
+        for (Score score : user.getScoresSnapshot()) {
+            scoresJson.put(scoreToJson(score));
+        }
+        json.put("scores", scoresJson);
+        json.put("distributions", user.copyDistributions().toJson());
+        json.put("summaries", summariesToJson(user.copySummaries()));
+        
+        return json;
+    }
+    
+    static JSONObject scoreToJson(Score score) {
+        JSONObject json = new JSONObject();
+        json.put("exerciseType", score.getExerciseType().name());
+        json.put("score", score.getScore());
+        json.put("level", score.getLevel());
+        json.put("timeSpentMs", score.getTimeSpentMs());
+        json.put("correctAnswers", score.getCorrectAnswers());
+        json.put("totalQuestions", score.getTotalQuestions());
+        json.put("completedAt", score.getCompletedAt().format(DATE_FORMATTER));
+        json.put("scoringVersion", score.getScoringVersion());
+        if (score.isDrill()) {
+            json.put("drill", true);
+        }
+        if (score.getDisplayTimeMs() > 0) {
+            json.put("displayTimeMs", score.getDisplayTimeMs());
+        }
         return json;
     }
     
+    static Score jsonToScore(JSONObject json) {
+        Score score = new Score(
+            ExerciseType.valueOf(json.getString("exerciseType")),
+            json.optDouble("score", 0),
+            json.optInt("level", 1),
+            json.optLong("timeSpentMs", 0),
+            json.optInt("correctAnswers", 0),
+            json.optInt("totalQuestions", 0)
+        );
+        if (json.has("completedAt")) {
+            score.setCompletedAt(LocalDateTime.parse(json.getString("completedAt"), DATE_FORMATTER));
+        }
+        score.setScoringVersion(json.optInt("scoringVersion", 1));
+        score.setDrill(json.optBoolean("drill", false));
+        score.setDisplayTimeMs(json.optInt("displayTimeMs", 0));
+        return score;
+    }
+    
     private User jsonToUser(JSONObject json) {
         User user = new User();
         user.setUsername(json.getString("username"));
@@ -113,11 +587,165 @@ public class DataService {
             user.getPreferences().setDefaultDifficulty(prefsJson.optInt("defaultDifficulty", 1));
             user.getPreferences().setAdaptiveDifficultyEnabled(prefsJson.optBoolean("adaptiveDifficultyEnabled", true));
             user.getPreferences().setTheme(prefsJson.optString("theme", "light"));
+            user.getPreferences().setConfusionTrainingEnabled(prefsJson.optBoolean("confusionTrainingEnabled", true));
+            user.getPreferences().setRemindersEnabled(prefsJson.optBoolean("remindersEnabled", false));
+            user.getPreferences().setReminderFrequencyDays(prefsJson.optInt("reminderFrequencyDays", 1));
+        }
+        
+        // Load score history
+        if (json.has("scores")) {
+            JSONArray scoresJson = json.getJSONArray("scores");
+            List<Score> scores = new ArrayList<>(scoresJson.length());
+            for (int i = 0; i < scoresJson.length(); i++) {
+                scores.add(jsonToScore(scoresJson.getJSONObject(i)));
+            }
+            user.setScores(scores);
+        }
+        
+        // Load distributions, rebuilding them for profiles saved before they existed
+        if (json.has("distributions")) {
+            user.setDistributions(ScoreDistributions.fromJson(json.getJSONArray("distributions")));
+        } else {
+            user.setDistributions(ScoreDistributions.fromScores(user.getScores()));
+        }
+        
+        // Summaries of profiles saved before they existed also cover what was already archived
+        if (json.has("summaries")) {
+            user.setSummaries(jsonToSummaries(json.getJSONArray("summaries")));
+        } else {
+            try (Stream<Score> scores = queryScores(user, ScoreQuery.all())) {
+                user.setSummaries(ScoreSummaries.fromScores(scores::iterator));
+            }
         }
         
         return user;
     }
     
+    private static JSONArray summariesToJson(ScoreSummaries summaries) {
+        JSONArray json = new JSONArray();
+        for (ExerciseType type : ExerciseType.values()) {
+            Score best = summaries.getBest(type);
+            if (best == null) {
+                continue;
+            }
+            JSONObject entry = new JSONObject();
+            entry.put("exerciseType", type.name());
+            entry.put("count", summaries.getCount(type));
+            entry.put("sum", summaries.getSum(type));
+            entry.put("best", scoreToJson(best));
+            json.put(entry);
+        }
+        return json;
+    }
+    
+    private static ScoreSummaries jsonToSummaries(JSONArray json) {
+        ScoreSummaries summaries = new ScoreSummaries();
+        for (int i = 0; i < json.length(); i++) {
+            JSONObject entry = json.getJSONObject(i);
+            summaries.set(ExerciseType.valueOf(entry.getString("exerciseType")),
+                jsonToScore(entry.getJSONObject("best")), entry.getLong("count"), entry.getDouble("sum"));
+        }
+        return summaries;
+    }
+    
+    /**
+     * Bring a freshly loaded profile to the current scoring version, archive included, when
+     * its live history is outdated. Returns true if the profile changed.
+     */
+    private boolean rescoreOutdated(User user) {
+        ScoringFunction current = ScoringFunctions.current();
+        if (!ScoreRescorer.isOutdated(user.getScoresSnapshot(), current)) {
+            return false;
+        }
+        rescoreProfile(user, current);
+        return true;
+    }
+    
+    /**
+     * Re-score a profile's live and archived scores with the given scoring version, rewriting
+     * outdated archive segments, then rebuild its distributions and summaries from the whole
+     * history. The profile itself is not saved. Returns the number of scores re-scored.
+     */
+    public int rescoreProfile(User user, ScoringFunction target) {
+        int rescored = rescorer.rescore(user.getScoresSnapshot(), target);
+        try {
+            rescored += getArchive(user.getUsername()).rescore(rescorer, target);
+        } catch (IOException e) {
+            System.err.println("Error re-scoring archive of " + user.getUsername() + ": " + e.getMessage());
+        }
+        if (rescored > 0) {
+            recomputeAggregates(user);
+        }
+        return rescored;
+    }
+    
+    /**
+     * Rebuild a profile's distributions and summaries from its archived and live history.
+     * Returns the number of scores read.
+     */
+    public int recomputeAggregates(User user) {
+        List<Score> history;
+        try (Stream<Score> scores = queryScores(user, ScoreQuery.all())) {
+            history = scores.collect(Collectors.toList());
+        }
+        user.setDistributions(ScoreDistributions.fromScores(history));
+        user.setSummaries(ScoreSummaries.fromScores(history));
+        return history.size();
+    }
+    
+    /**
+     * Current user's scores matching the query, archived ones first, then live history.
+     * Archive segments and live segments outside the time range or without the type are skipped.
+     */
+    public Stream<Score> queryScores(ScoreQuery query) {
+        User user = currentUser;
+        if (user == null) {
+            return Stream.empty();
+        }
+        return queryScores(user, query);
+    }
+    
+    /**
+     * A user's scores matching the query, archived ones first, then live history
+     */
+    public Stream<Score> queryScores(User user, ScoreQuery query) {
+        return Stream.concat(getArchive(user.getUsername()).query(query), user.queryScores(query));
+    }
+    
+    /**
+     * A user's scores matching the query from the given position on, in the same order.
+     * Archive segments before the position are skipped by their footer counts, so reading
+     * deep into a long history decompresses only the segments actually read.
+     */
+    public Stream<Score> queryScores(User user, ScoreQuery query, long offset) {
+        ScoreArchive archive = getArchive(user.getUsername());
+        long archived = archive.count(query);
+        if (offset >= archived) {
+            return user.queryScores(query).skip(offset - archived);
+        }
+        return Stream.concat(archive.query(query, offset), user.queryScores(query));
+    }
+    
+    /**
+     * Up to limit of a user's scores matching the query, starting at the given position
+     */
+    public List<Score> getScorePage(User user, ScoreQuery query, long offset, int limit) {
+        try (Stream<Score> scores = queryScores(user, query, offset)) {
+            return scores.limit(limit).collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Number of a user's scores matching the query, archived and live
+     */
+    public long countScores(User user, ScoreQuery query) {
+        return getArchive(user.getUsername()).count(query) + user.queryScores(query).count();
+    }
+    
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+    
     public User getCurrentUser() {
         return currentUser;
     }
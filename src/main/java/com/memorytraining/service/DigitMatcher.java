@@ -0,0 +1,55 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.DigitSequence;
+
+/**
+ * Streaming comparison of typed digits against a target sequence.
+ * Characters are fed as they arrive; whitespace and separators are ignored and each
+ * digit is compared with the target digit at the same position, as in competition
+ * recall sheets. Feeding never allocates.
+ */
+public class DigitMatcher {
+    private final DigitSequence target;
+    private int position;
+    private int correct;
+    private int firstError = -1;
+
+    public DigitMatcher(DigitSequence target) {
+        this.target = target;
+    }
+
+    public void reset() {
+        position = 0;
+        correct = 0;
+        firstError = -1;
+    }
+
+    public void feed(char c) {
+        if (c < '0' || c > '9') {
+            return;
+        }
+        if (position < target.length()) {
+            if (c - '0' == target.digitAt(position)) {
+                correct++;
+            } else if (firstError < 0) {
+                firstError = position;
+            }
+        }
+        position++;
+    }
+
+    public void feed(CharSequence input) {
+        for (int i = 0, n = input.length(); i < n; i++) {
+            feed(input.charAt(i));
+        }
+    }
+
+    /**
+     * Digits typed so far, including any beyond the target length
+     */
+    public int getTyped() { return position; }
+    public int getCorrect() { return correct; }
+    /** Position of the first wrong digit, or -1 if there is none yet */
+    public int getFirstError() { return firstError; }
+    public boolean isComplete() { return position >= target.length(); }
+}
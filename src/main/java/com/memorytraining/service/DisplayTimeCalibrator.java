@@ -0,0 +1,190 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreQuery;
+import com.memorytraining.model.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Offline job that derives a display time table from recorded score histories. Rounds whose
+ * recall rate is below the target get more time, rounds that are too easy get less.
+ *
+ * Accuracy is measured per type, level and length. Cells with few rounds are pulled toward
+ * their level's accuracy, and levels with few rounds toward the target, so sparse data
+ * leaves the shown times mostly alone. Adjustments scale the display time each cell's rounds
+ * were actually played with, recorded on every score (scores from before that count as the
+ * defaults), so a calibrated table is corrected rather than replaced and running the job
+ * again on the same data gives the same table. Cells without rounds keep the defaults.
+ * Profiles are read in parallel.
+ *
+ * <pre>
+ * java -cp lost-art-java.jar com.memorytraining.service.DisplayTimeCalibrator --data ~/.lost-art-memory
+ * </pre>
+ */
+public class DisplayTimeCalibrator {
+    public static final double DEFAULT_TARGET_ACCURACY = 0.75;
+
+    /** Rounds' worth of weight given to the prior when shrinking sparse estimates */
+    private static final double PRIOR_ROUNDS = 20;
+
+    /** Time scales by exp(SENSITIVITY * (target - accuracy)) */
+    private static final double SENSITIVITY = 2.0;
+    private static final double MIN_FACTOR = 0.5;
+    private static final double MAX_FACTOR = 2.0;
+
+    private static final int TYPES = ExerciseType.values().length;
+    private static final int LEVELS = DisplayTimeTable.MAX_LEVEL + 1;
+    private static final int LENGTHS = DisplayTimeTable.MAX_LENGTH + 1;
+
+    private final double targetAccuracy;
+
+    public DisplayTimeCalibrator(double targetAccuracy) {
+        this.targetAccuracy = targetAccuracy;
+    }
+
+    /**
+     * Round counts, accuracy sums and log sums of the display times shown per type, level
+     * and length. Not thread-safe; each worker fills its own and they are merged.
+     */
+    public static class Stats {
+        private static final DisplayTimeTable DEFAULTS = DisplayTimeTable.defaults();
+
+        private final long[] rounds = new long[TYPES * LEVELS * LENGTHS];
+        private final double[] accuracy = new double[TYPES * LEVELS * LENGTHS];
+        private final double[] logShown = new double[TYPES * LEVELS * LENGTHS];
+        private long total;
+
+        public void add(Score score) {
+            int length = score.getTotalQuestions();
+            if (score.getExerciseType() == null || score.isDrill() || length <= 0 || length > DisplayTimeTable.MAX_LENGTH) {
+                return;
+            }
+            int level = Math.max(0, Math.min(score.getLevel(), DisplayTimeTable.MAX_LEVEL));
+            int cell = cell(score.getExerciseType().ordinal(), level, length);
+            rounds[cell]++;
+            accuracy[cell] += (double) score.getCorrectAnswers() / length;
+            int shown = score.getDisplayTimeMs() > 0
+                ? score.getDisplayTimeMs() : DEFAULTS.getDisplayTimeMs(score.getExerciseType(), level, length);
+            logShown[cell] += Math.log(Math.max(1, shown));
+            total++;
+        }
+
+        public Stats merge(Stats other) {
+            for (int i = 0; i < rounds.length; i++) {
+                rounds[i] += other.rounds[i];
+                accuracy[i] += other.accuracy[i];
+                logShown[i] += other.logShown[i];
+            }
+            total += other.total;
+            return this;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        private static int cell(int type, int level, int length) {
+            return (type * LEVELS + level) * LENGTHS + length;
+        }
+    }
+
+    /**
+     * Read every profile's live and archived history in parallel
+     */
+    public Stats collect(DataService dataService) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = dataService.profileFiles()) {
+            files = listing.collect(Collectors.toList());
+        }
+        return files.parallelStream().collect(Stats::new, (stats, file) -> {
+            try {
+                User user = dataService.readProfile(file);
+                try (Stream<Score> archived = dataService.getArchive(user.getUsername()).query(ScoreQuery.all())) {
+                    archived.forEach(stats::add);
+                }
+                user.getScoresSnapshot().forEach(stats::add);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping " + file.getFileName() + ": " + e.getMessage());
+            }
+        }, Stats::merge);
+    }
+
+    public DisplayTimeTable calibrate(Stats stats) {
+        DisplayTimeTable defaults = DisplayTimeTable.defaults();
+        double[] levelAccuracy = new double[TYPES * LEVELS];
+        for (int type = 0; type < TYPES; type++) {
+            for (int level = 0; level < LEVELS; level++) {
+                long rounds = 0;
+                double sum = 0;
+                for (int length = 0; length < LENGTHS; length++) {
+                    rounds += stats.rounds[Stats.cell(type, level, length)];
+                    sum += stats.accuracy[Stats.cell(type, level, length)];
+                }
+                levelAccuracy[type * LEVELS + level] = (sum + PRIOR_ROUNDS * targetAccuracy) / (rounds + PRIOR_ROUNDS);
+            }
+        }
+
+        return DisplayTimeTable.compute((type, level, length) -> {
+            int cell = Stats.cell(type.ordinal(), level, length);
+            double prior = levelAccuracy[type.ordinal() * LEVELS + level];
+            double accuracy = (stats.accuracy[cell] + PRIOR_ROUNDS * prior) / (stats.rounds[cell] + PRIOR_ROUNDS);
+            double factor = Math.exp(SENSITIVITY * (targetAccuracy - accuracy));
+            factor = Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factor));
+            // Geometric mean of the times the cell's rounds were shown with
+            double shown = stats.rounds[cell] > 0
+                ? Math.exp(stats.logShown[cell] / stats.rounds[cell]) : defaults.getDisplayTimeMs(type, level, length);
+            return (int) Math.round(shown * factor);
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dataDirectory = Paths.get(System.getProperty("user.home"), ".lost-art-memory");
+        Path out = null;
+        double target = DEFAULT_TARGET_ACCURACY;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--data" -> dataDirectory = Paths.get(args[i + 1]);
+                case "--out" -> out = Paths.get(args[i + 1]);
+                case "--target" -> target = Double.parseDouble(args[i + 1]);
+                default -> {
+                    System.err.println("Usage: DisplayTimeCalibrator [--data DIR] [--out FILE] [--target ACCURACY]");
+                    System.exit(64);
+                }
+            }
+        }
+        if (!Files.isDirectory(dataDirectory.resolve("profiles"))) {
+            System.err.println("No profiles directory under " + dataDirectory);
+            System.exit(1);
+        }
+        if (out == null) {
+            out = dataDirectory.resolve(DisplayTimeTable.FILE_NAME);
+        }
+
+        long start = System.nanoTime();
+        DisplayTimeCalibrator calibrator = new DisplayTimeCalibrator(target);
+        Stats stats = calibrator.collect(new DataService(dataDirectory));
+        DisplayTimeTable table = calibrator.calibrate(stats);
+        table.save(out);
+
+        DisplayTimeTable defaults = DisplayTimeTable.defaults();
+        for (ExerciseType type : ExerciseType.values()) {
+            StringBuilder line = new StringBuilder(String.format("%-16s", type.getDisplayName()));
+            for (int level = 1; level <= DisplayTimeTable.MAX_LEVEL; level++) {
+                int length = Math.min(3 + level, DisplayTimeTable.MAX_LENGTH);
+                line.append(String.format(" L%d %+4.0f%%", level,
+                    100.0 * table.getDisplayTimeMs(type, level, length) / defaults.getDisplayTimeMs(type, level, length) - 100));
+            }
+            System.out.println(line);
+        }
+        System.out.printf("%d rounds calibrated in %.2f s, table written to %s%n",
+            stats.getTotal(), (System.nanoTime() - start) / 1e9, out);
+    }
+}
@@ -0,0 +1,161 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Total display time for a round by exercise type, level and sequence length, precomputed
+ * into one flat array so a lookup is a single read. Immutable.
+ *
+ * The defaults reproduce the original pacing formula; a calibrated table can be loaded
+ * from JSON of the form {"version": 1, "times": {"WORD_MEMORY": [[ms per length] per level]}}.
+ */
+public final class DisplayTimeTable {
+    /** Name of a calibrated table in the data directory */
+    public static final String FILE_NAME = "display-times.json";
+    public static final int MAX_LEVEL = 10;
+    public static final int MAX_LENGTH = 20;
+    private static final int FORMAT_VERSION = 1;
+    private static final int LEVELS = MAX_LEVEL + 1;
+    private static final int LENGTHS = MAX_LENGTH + 1;
+
+    private final int[] times;
+
+    private DisplayTimeTable(int[] times) {
+        this.times = times;
+    }
+
+    /**
+     * Table from the original formula: a per-item base time per type, reduced by 10% per
+     * level down to 30%
+     */
+    public static DisplayTimeTable defaults() {
+        return compute((type, level, length) ->
+            (int) (baseTimePerItem(type) * length * Math.max(0.3, 1.0 - (level * 0.1))));
+    }
+
+    /**
+     * Display time of one table entry
+     */
+    public interface Entry {
+        int timeMs(ExerciseType type, int level, int length);
+    }
+
+    /**
+     * Table with every entry computed by the given function
+     */
+    public static DisplayTimeTable compute(Entry entry) {
+        int[] times = new int[ExerciseType.values().length * LEVELS * LENGTHS];
+        for (ExerciseType type : ExerciseType.values()) {
+            for (int level = 0; level <= MAX_LEVEL; level++) {
+                for (int length = 0; length <= MAX_LENGTH; length++) {
+                    times[index(type, level, length)] = entry.timeMs(type, level, length);
+                }
+            }
+        }
+        return new DisplayTimeTable(times);
+    }
+
+    static int baseTimePerItem(ExerciseType type) {
+        return switch (type) {
+            case WORD_MEMORY -> 1500; // 1.5 seconds per word
+            case NUMBER_MEMORY -> 1000; // 1 second per number
+            case COLOR_MEMORY -> 1200; // 1.2 seconds per color
+            case SPATIAL_MEMORY -> 800; // 0.8 seconds per position
+            case SEQUENCE_MEMORY -> 1000; // 1 second per action
+        };
+    }
+
+    public int getDisplayTimeMs(ExerciseType type, int level, int sequenceLength) {
+        int clampedLevel = Math.max(0, Math.min(level, MAX_LEVEL));
+        if (sequenceLength <= MAX_LENGTH) {
+            return times[index(type, clampedLevel, Math.max(0, sequenceLength))];
+        }
+        // Longer rounds than the table covers get the per-item time of the longest entry
+        return (int) ((long) times[index(type, clampedLevel, MAX_LENGTH)] * sequenceLength / MAX_LENGTH);
+    }
+
+    private static int index(ExerciseType type, int level, int length) {
+        return (type.ordinal() * LEVELS + level) * LENGTHS + length;
+    }
+
+    /**
+     * Load a calibrated table. Types, levels or lengths missing from the file keep their defaults.
+     */
+    public static DisplayTimeTable load(Path file) throws IOException {
+        JSONObject json;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            json = new JSONObject(new JSONTokener(reader));
+        } catch (JSONException e) {
+            throw new IOException("Malformed display time table: " + e.getMessage(), e);
+        }
+        int version = json.optInt("version", 0);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported display time table version " + version);
+        }
+
+        int[] times = defaults().times;
+        JSONObject byType = json.getJSONObject("times");
+        for (ExerciseType type : ExerciseType.values()) {
+            JSONArray levels = byType.optJSONArray(type.name());
+            if (levels == null) {
+                continue;
+            }
+            for (int level = 0; level < Math.min(levels.length(), LEVELS); level++) {
+                JSONArray lengths = levels.getJSONArray(level);
+                for (int length = 0; length < Math.min(lengths.length(), LENGTHS); length++) {
+                    times[index(type, level, length)] = Math.max(0, lengths.getInt(length));
+                }
+            }
+        }
+        return new DisplayTimeTable(times);
+    }
+
+    /**
+     * Load the table at file if there is one, else the defaults
+     */
+    public static DisplayTimeTable loadOrDefaults(Path file) {
+        if (Files.exists(file)) {
+            try {
+                return load(file);
+            } catch (IOException e) {
+                System.err.println("Error loading display times, using defaults: " + e.getMessage());
+            }
+        }
+        return defaults();
+    }
+
+    public void save(Path file) throws IOException {
+        JSONObject byType = new JSONObject();
+        for (ExerciseType type : ExerciseType.values()) {
+            JSONArray levels = new JSONArray();
+            for (int level = 0; level <= MAX_LEVEL; level++) {
+                JSONArray lengths = new JSONArray();
+                for (int length = 0; length <= MAX_LENGTH; length++) {
+                    lengths.put(times[index(type, level, length)]);
+                }
+                levels.put(lengths);
+            }
+            byType.put(type.name(), levels);
+        }
+        JSONObject json = new JSONObject();
+        json.put("version", FORMAT_VERSION);
+        json.put("times", byType);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            json.write(writer, 1, 0);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
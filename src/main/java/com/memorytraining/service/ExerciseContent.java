@@ -0,0 +1,171 @@
+package com.memorytraining.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * One immutable snapshot of the items exercises are built from: word lists, the color
+ * palette, the action vocabulary and optionally a display time table. Lists are indexed
+ * for O(1) random picks and membership tests when the snapshot is built, so generation
+ * never does more than read from it.
+ *
+ * A content directory may override any part with one file each: words.txt, colors.txt,
+ * actions.txt, adjectives.txt, nouns.txt, animals.txt (one item per line, # starts a comment)
+ * and display-times.json. Parts without a file keep the built-in defaults.
+ */
+public final class ExerciseContent {
+    private static final String[] DEFAULT_WORDS = {
+        "Apple", "House", "Ocean", "Mountain", "Forest", "River", "Garden", "Castle",
+        "Bridge", "Sunset", "Rainbow", "Thunder", "Lightning", "Whisper", "Journey",
+        "Adventure", "Mystery", "Treasure", "Dragon", "Phoenix", "Crystal", "Diamond",
+        "Emerald", "Sapphire", "Golden", "Silver", "Ancient", "Modern", "Future"
+    };
+
+    private static final String[] DEFAULT_COLORS = {
+        "Red", "Blue", "Green", "Yellow", "Orange", "Purple", "Pink", "Cyan",
+        "Magenta", "Brown", "Gray", "Black", "White", "Lime", "Navy", "Maroon"
+    };
+
+    private static final String[] DEFAULT_ACTIONS = {
+        "Up", "Down", "Left", "Right", "Push", "Pull", "Turn", "Tap"
+    };
+
+    private static final String[] DEFAULT_ADJECTIVES = {
+        "Beautiful", "Mysterious", "Ancient", "Golden", "Silver", "Bright", "Dark",
+        "Peaceful", "Stormy", "Gentle", "Fierce", "Elegant", "Rustic", "Modern",
+        "Colorful", "Transparent", "Solid", "Liquid", "Frozen", "Burning"
+    };
+
+    private static final String[] DEFAULT_NOUNS = {
+        "Castle", "Forest", "Ocean", "Mountain", "Valley", "River", "Lake", "Desert",
+        "City", "Village", "Garden", "Tower", "Bridge", "Palace", "Temple", "Cave",
+        "Island", "Meadow", "Cliff", "Waterfall", "Prairie", "Volcano", "Glacier"
+    };
+
+    private static final String[] DEFAULT_ANIMALS = {
+        "Eagle", "Wolf", "Bear", "Lion", "Tiger", "Elephant", "Dolphin", "Whale",
+        "Fox", "Rabbit", "Deer", "Horse", "Butterfly", "Dragon", "Phoenix", "Unicorn"
+    };
+
+    /** Fewer words than this could not fill a top-level word round with distinct words */
+    private static final int MIN_WORDS = 15;
+    private static final int MIN_CHOICES = 2;
+
+    private static final ExerciseContent DEFAULTS = new ExerciseContent(
+        ItemList.of(DEFAULT_WORDS), ItemList.of(DEFAULT_COLORS), ItemList.of(DEFAULT_ACTIONS),
+        ItemList.of(DEFAULT_ADJECTIVES), ItemList.of(DEFAULT_NOUNS), ItemList.of(DEFAULT_ANIMALS), null);
+
+    /**
+     * Distinct items in order, with a set for membership tests
+     */
+    public static final class ItemList {
+        private final String[] items;
+        private final List<String> list;
+        private final Set<String> set;
+
+        private ItemList(String[] items) {
+            this.items = items;
+            this.list = List.of(items);
+            this.set = Set.of(items);
+        }
+
+        static ItemList of(String[] items) {
+            return new ItemList(new LinkedHashSet<>(Arrays.asList(items)).toArray(new String[0]));
+        }
+
+        public List<String> asList() {
+            return list;
+        }
+
+        public boolean contains(String item) {
+            return set.contains(item);
+        }
+
+        public int size() {
+            return items.length;
+        }
+
+        public String get(int index) {
+            return items[index];
+        }
+
+        public String random(Random random) {
+            return items[random.nextInt(items.length)];
+        }
+    }
+
+    private final ItemList words;
+    private final ItemList colors;
+    private final ItemList actions;
+    private final ItemList adjectives;
+    private final ItemList nouns;
+    private final ItemList animals;
+    private final DisplayTimeTable displayTimes;
+
+    private ExerciseContent(ItemList words, ItemList colors, ItemList actions, ItemList adjectives,
+                            ItemList nouns, ItemList animals, DisplayTimeTable displayTimes) {
+        this.words = words;
+        this.colors = colors;
+        this.actions = actions;
+        this.adjectives = adjectives;
+        this.nouns = nouns;
+        this.animals = animals;
+        this.displayTimes = displayTimes;
+    }
+
+    public static ExerciseContent defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Build a snapshot from a content directory. Throws if any file present is unreadable
+     * or too short, so a half-edited directory never replaces working content.
+     */
+    public static ExerciseContent load(Path directory) throws IOException {
+        Path displayTimesFile = directory.resolve(DisplayTimeTable.FILE_NAME);
+        return new ExerciseContent(
+            loadList(directory.resolve("words.txt"), DEFAULTS.words, MIN_WORDS),
+            loadList(directory.resolve("colors.txt"), DEFAULTS.colors, MIN_CHOICES),
+            loadList(directory.resolve("actions.txt"), DEFAULTS.actions, MIN_CHOICES),
+            loadList(directory.resolve("adjectives.txt"), DEFAULTS.adjectives, 1),
+            loadList(directory.resolve("nouns.txt"), DEFAULTS.nouns, 1),
+            loadList(directory.resolve("animals.txt"), DEFAULTS.animals, 1),
+            Files.exists(displayTimesFile) ? DisplayTimeTable.load(displayTimesFile) : null);
+    }
+
+    private static ItemList loadList(Path file, ItemList fallback, int minimum) throws IOException {
+        if (!Files.exists(file)) {
+            return fallback;
+        }
+        LinkedHashSet<String> items = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(file)) {
+            int comment = line.indexOf('#');
+            String item = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (!item.isEmpty()) {
+                items.add(item);
+            }
+        }
+        if (items.size() < minimum) {
+            throw new IOException(file.getFileName() + " needs at least " + minimum + " distinct items, has " + items.size());
+        }
+        return new ItemList(items.toArray(new String[0]));
+    }
+
+    public ItemList getWords() { return words; }
+    public ItemList getColors() { return colors; }
+    public ItemList getActions() { return actions; }
+    public ItemList getAdjectives() { return adjectives; }
+    public ItemList getNouns() { return nouns; }
+    public ItemList getAnimals() { return animals; }
+
+    /**
+     * Display times shipped with this content, or null to use the calibrated or default table
+     */
+    public DisplayTimeTable getDisplayTimes() { return displayTimes; }
+}
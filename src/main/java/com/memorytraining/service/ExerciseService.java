@@ -1,48 +1,73 @@
 package com.memorytraining.service;
 
+import com.memorytraining.model.ConfusionTracker;
+import com.memorytraining.model.DigitSequence;
 import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.ItemMemory;
+import com.memorytraining.model.Score;
 import com.memorytraining.util.WordGenerator;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Service for managing memory exercises
  */
 public class ExerciseService {
-    private static final String[] COLORS = {
-        "Red", "Blue", "Green", "Yellow", "Orange", "Purple", "Pink", "Cyan", 
-        "Magenta", "Brown", "Gray", "Black", "White", "Lime", "Navy", "Maroon"
-    };
-    
-    private static final String[] BASE_WORDS = {
-        "Apple", "House", "Ocean", "Mountain", "Forest", "River", "Garden", "Castle",
-        "Bridge", "Sunset", "Rainbow", "Thunder", "Lightning", "Whisper", "Journey",
-        "Adventure", "Mystery", "Treasure", "Dragon", "Phoenix", "Crystal", "Diamond",
-        "Emerald", "Sapphire", "Golden", "Silver", "Ancient", "Modern", "Future"
-    };
+    public static final int MAX_DRILL_DIGITS = 5000;
+    
+    /** At most this share of a round is taken from items due for review */
+    private static final double REVIEW_SHARE = 0.5;
+    
+    /** With confusion training on, at most this share of a round is made of confusable pairs */
+    private static final double CONFUSION_SHARE = 0.3;
+    
+    private static final int MAX_SPATIAL_GRID_SIZE = 32;
+    private static final int MAX_LEVEL = 10;
+    
+    /** Larger boards count cell confusions sparsely; a dense matrix would grow with the fourth power of the side */
+    private static final int MAX_DENSE_SPATIAL_GRID_SIZE = 12;
     
     private Random random;
+    private final int spatialScale;
     private WordGenerator wordGenerator;
+    private AnswerMatcher answerMatcher;
+    private volatile ItemMemory itemMemory;
+    private volatile ConfusionTracker confusions;
+    private volatile boolean confusionTraining;
+    private volatile DisplayTimeTable displayTimes = DisplayTimeTable.defaults();
+    private volatile ExerciseContent content = ExerciseContent.defaults();
     
     public ExerciseService() {
         this.random = new Random();
-        this.wordGenerator = new WordGenerator();
+        this.wordGenerator = new WordGenerator(() -> content.getAdjectives().asList(),
+            () -> content.getNouns().asList(), () -> content.getAnimals().asList());
+        this.answerMatcher = new AnswerMatcher();
+        this.spatialScale = Math.max(1, Integer.getInteger("lostart.spatial.scale", 1));
     }
     
     /**
-     * Generate a word memory exercise based on difficulty level
+     * Generate a word memory exercise based on difficulty level, from the given content snapshot
      */
-    public List<String> generateWordSequence(int level) {
+    public List<String> generateWordSequence(ExerciseContent content, int level) {
         int sequenceLength = Math.min(3 + level, 15); // Start with 3 words, max 15
-        List<String> sequence = new ArrayList<>();
+        ExerciseContent.ItemList words = content.getWords();
         
-        List<String> availableWords = new ArrayList<>(Arrays.asList(BASE_WORDS));
+        // Words due for review come back first, then fresh words fill the round
+        List<String> sequence = dueItems(ExerciseType.WORD_MEMORY, sequenceLength, words::contains);
+        Set<String> used = new HashSet<>(sequence);
+        addConfusablePairs(ExerciseType.WORD_MEMORY, sequence, sequenceLength, words::contains, used);
+        
+        List<String> availableWords = new ArrayList<>(words.asList());
         Collections.shuffle(availableWords, random);
         
-        for (int i = 0; i < sequenceLength && i < availableWords.size(); i++) {
-            sequence.add(availableWords.get(i));
+        for (int i = 0; sequence.size() < sequenceLength && i < availableWords.size(); i++) {
+            if (!used.contains(availableWords.get(i))) {
+                sequence.add(availableWords.get(i));
+            }
         }
         
+        Collections.shuffle(sequence, random);
         return sequence;
     }
     
@@ -64,16 +89,46 @@ public class ExerciseService {
     }
     
     /**
-     * Generate a color memory exercise based on difficulty level
+     * Generate the digits for a long-form number drill
      */
-    public List<String> generateColorSequence(int level) {
+    public DigitSequence generateDigitSequence(int digitCount) {
+        return DigitSequence.random(Math.max(1, Math.min(digitCount, MAX_DRILL_DIGITS)), random);
+    }
+    
+    /**
+     * Generate a color memory exercise based on difficulty level, from the given content snapshot
+     */
+    public List<String> generateColorSequence(ExerciseContent content, int level) {
         int sequenceLength = Math.min(3 + level, 12); // Start with 3 colors, max 12
-        List<String> sequence = new ArrayList<>();
+        ExerciseContent.ItemList colors = content.getColors();
+        List<String> sequence = dueItems(ExerciseType.COLOR_MEMORY, sequenceLength, colors::contains);
+        addConfusablePairs(ExerciseType.COLOR_MEMORY, sequence, sequenceLength, colors::contains,
+            new HashSet<>(sequence));
         
-        for (int i = 0; i < sequenceLength; i++) {
-            sequence.add(COLORS[random.nextInt(COLORS.length)]);
+        while (sequence.size() < sequenceLength) {
+            sequence.add(colors.random(random));
         }
         
+        Collections.shuffle(sequence, random);
+        return sequence;
+    }
+    
+    /**
+     * Generate a sequence of actions from the given content snapshot; actions may repeat,
+     * as in a dance or a drill
+     */
+    public List<String> generateActionSequence(ExerciseContent content, int level) {
+        int sequenceLength = Math.min(3 + level, 15);
+        ExerciseContent.ItemList actions = content.getActions();
+        List<String> sequence = dueItems(ExerciseType.SEQUENCE_MEMORY, sequenceLength, actions::contains);
+        addConfusablePairs(ExerciseType.SEQUENCE_MEMORY, sequence, sequenceLength, actions::contains,
+            new HashSet<>(sequence));
+        
+        while (sequence.size() < sequenceLength) {
+            sequence.add(actions.random(random));
+        }
+        
+        Collections.shuffle(sequence, random);
         return sequence;
     }
     
@@ -81,58 +136,271 @@ public class ExerciseService {
      * Generate spatial positions for spatial memory exercise
      */
     public List<Position> generateSpatialSequence(int level) {
-        int sequenceLength = Math.min(3 + level, 15);
-        List<Position> sequence = new ArrayList<>();
-        int gridSize = Math.min(3 + (level / 2), 6); // Grid grows with level
+        int gridSize = getSpatialGridSize(level);
+        int sequenceLength = getSpatialSequenceLength(level, gridSize);
+        
+        Predicate<String> onBoard = item -> parseCell(item, gridSize) >= 0;
+        List<String> due = dueItems(ExerciseType.SPATIAL_MEMORY, sequenceLength, onBoard);
+        addConfusablePairs(ExerciseType.SPATIAL_MEMORY, due, sequenceLength, onBoard, new HashSet<>(due));
+        int[] preselected = new int[due.size()];
+        for (int i = 0; i < preselected.length; i++) {
+            preselected[i] = parseCell(due.get(i), gridSize);
+        }
         
-        Set<Position> usedPositions = new HashSet<>();
+        List<Position> sequence = generateSpatialSequence(gridSize, sequenceLength, preselected);
+        Collections.shuffle(sequence, random);
+        return sequence;
+    }
+    
+    /**
+     * Generate distinct positions on a board of any size; positions repeat only once every cell has been used.
+     * A partial shuffle of cell indices keeps this linear even for hundreds of targets.
+     */
+    public List<Position> generateSpatialSequence(int gridSize, int sequenceLength) {
+        return generateSpatialSequence(gridSize, sequenceLength, new int[0]);
+    }
+    
+    /**
+     * As above, with the given distinct cells (x + y * gridSize) placed first
+     */
+    private List<Position> generateSpatialSequence(int gridSize, int sequenceLength, int[] preselected) {
+        int cells = gridSize * gridSize;
+        int[] order = new int[cells];
+        int[] where = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            order[i] = i;
+            where[i] = i;
+        }
         
+        List<Position> sequence = new ArrayList<>(sequenceLength);
         for (int i = 0; i < sequenceLength; i++) {
-            Position pos;
-            do {
-                pos = new Position(random.nextInt(gridSize), random.nextInt(gridSize));
-            } while (usedPositions.contains(pos) && usedPositions.size() < gridSize * gridSize);
-            
-            sequence.add(pos);
-            usedPositions.add(pos);
+            int slot = i % cells;
+            int pick = i < preselected.length ? where[preselected[i]] : slot + random.nextInt(cells - slot);
+            int cell = order[pick];
+            order[pick] = order[slot];
+            where[order[pick]] = pick;
+            order[slot] = cell;
+            where[cell] = slot;
+            sequence.add(new Position(cell % gridSize, cell / gridSize));
         }
         
         return sequence;
     }
     
+    /**
+     * Side length of the spatial board for a level. The grid grows by one every
+     * 2 / -Dlostart.spatial.scale levels, up to 32 x 32.
+     */
+    public int getSpatialGridSize(int level) {
+        return Math.max(1, Math.min(3 + level * spatialScale / 2, MAX_SPATIAL_GRID_SIZE));
+    }
+    
+    /**
+     * Number of positions shown at a level: 3 + level, times -Dlostart.spatial.scale,
+     * but never more than the board has cells
+     */
+    private int getSpatialSequenceLength(int level, int gridSize) {
+        return Math.max(1, Math.min((3 + level) * spatialScale, gridSize * gridSize));
+    }
+    
+    /**
+     * Use a user's item memory to bring due items back into generated rounds; null disables it
+     */
+    public void setItemMemory(ItemMemory itemMemory) {
+        this.itemMemory = itemMemory;
+    }
+    
+    /**
+     * Record a user's confusions after each round; with training on, rounds also include
+     * pairs the user mixes up, drawn in proportion to how often they were confused.
+     * Colors and board cells get dense matrices; words are counted sparsely.
+     */
+    public void setConfusions(ConfusionTracker confusions, boolean training) {
+        if (confusions != null) {
+            ensureMatrices(confusions, content);
+        }
+        this.confusions = confusions;
+        this.confusionTraining = training;
+    }
+    
+    /**
+     * Fit the dense matrices to the current palette, actions and largest board. Run again
+     * whenever the content changes, so new items are counted as well.
+     */
+    private void ensureMatrices(ConfusionTracker tracker, ExerciseContent current) {
+        tracker.ensureDense(ExerciseType.COLOR_MEMORY, current.getColors().asList());
+        tracker.ensureDense(ExerciseType.SEQUENCE_MEMORY, current.getActions().asList());
+        // Cells of the largest board reachable with the configured curve
+        int boardSize = getSpatialGridSize(MAX_LEVEL);
+        if (boardSize <= MAX_DENSE_SPATIAL_GRID_SIZE) {
+            List<String> cells = new ArrayList<>(boardSize * boardSize);
+            for (int y = 0; y < boardSize; y++) {
+                for (int x = 0; x < boardSize; x++) {
+                    cells.add(x + "," + y);
+                }
+            }
+            tracker.ensureDense(ExerciseType.SPATIAL_MEMORY, cells);
+        } else {
+            // A dense matrix kept from a smaller board would ignore the outer cells
+            tracker.ensureSparse(ExerciseType.SPATIAL_MEMORY);
+        }
+    }
+    
+    /**
+     * Update item memory and confusions after a round: each expected item counts as recalled
+     * if some unused answer matches it within the usual typo tolerance. Items that were not
+     * recalled are paired, in order, with the answers left over and counted as confusions.
+     * Number items are not tracked.
+     */
+    public void recordItemResults(ExerciseType type, List<String> expected, List<String> actual) {
+        ItemMemory memory = itemMemory;
+        ConfusionTracker tracker = confusions;
+        if ((memory == null && tracker == null) || type == ExerciseType.NUMBER_MEMORY) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] used = new boolean[actual.size()];
+        List<String> missed = new ArrayList<>();
+        for (String item : expected) {
+            int tolerance = AnswerMatcher.typoTolerance(type, item.length());
+            boolean recalled = false;
+            for (int j = 0; j < actual.size() && !recalled; j++) {
+                if (!used[j] && answerMatcher.matches(item, actual.get(j), tolerance)) {
+                    used[j] = true;
+                    recalled = true;
+                }
+            }
+            if (memory != null) {
+                memory.review(type, item, recalled, now);
+            }
+            if (!recalled) {
+                missed.add(item);
+            }
+        }
+        
+        if (tracker != null) {
+            int next = 0;
+            for (String item : missed) {
+                while (next < used.length && used[next]) {
+                    next++;
+                }
+                if (next == used.length) {
+                    break;
+                }
+                tracker.record(type, item, actual.get(next++));
+            }
+        }
+    }
+    
+    /**
+     * Add both items of sampled confusable pairs to the round, up to its confusion share.
+     * Items already in used are skipped so generated items stay distinct.
+     */
+    private void addConfusablePairs(ExerciseType type, List<String> sequence, int sequenceLength,
+                                    Predicate<String> accept, Set<String> used) {
+        ConfusionTracker tracker = confusions;
+        if (tracker == null || !confusionTraining) {
+            return;
+        }
+        int limit = Math.min(sequenceLength, sequence.size() + (int) (sequenceLength * CONFUSION_SHARE));
+        for (int attempt = 0; sequence.size() + 1 < limit && attempt < sequenceLength; attempt++) {
+            String[] pair = tracker.samplePair(type, random);
+            if (pair == null) {
+                return;
+            }
+            for (String item : pair) {
+                if (accept.test(item) && used.add(item)) {
+                    sequence.add(item);
+                }
+            }
+        }
+    }
+    
+    private List<String> dueItems(ExerciseType type, int sequenceLength, Predicate<String> accept) {
+        ItemMemory memory = itemMemory;
+        if (memory == null) {
+            return new ArrayList<>();
+        }
+        int reviewSlots = (int) (sequenceLength * REVIEW_SHARE);
+        return new ArrayList<>(memory.dueItems(type, reviewSlots, System.currentTimeMillis(), accept));
+    }
+    
+    /**
+     * Cell index of an "x,y" item on a board, or -1 if it does not fit
+     */
+    private static int parseCell(String item, int gridSize) {
+        int comma = item.indexOf(',');
+        if (comma < 0) {
+            return -1;
+        }
+        try {
+            int x = Integer.parseInt(item.substring(0, comma));
+            int y = Integer.parseInt(item.substring(comma + 1));
+            return x >= 0 && x < gridSize && y >= 0 && y < gridSize ? x + y * gridSize : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
     /**
      * Get display time for sequence based on difficulty and type
      */
     public int getDisplayTimeMs(ExerciseType type, int level, int sequenceLength) {
-        int baseTimePerItem = switch (type) {
-            case WORD_MEMORY -> 1500; // 1.5 seconds per word
-            case NUMBER_MEMORY -> 1000; // 1 second per number
-            case COLOR_MEMORY -> 1200; // 1.2 seconds per color
-            case SPATIAL_MEMORY -> 800; // 0.8 seconds per position
-            case SEQUENCE_MEMORY -> 1000; // 1 second per action
-        };
-        
-        // Reduce time as level increases
-        double difficultyMultiplier = Math.max(0.3, 1.0 - (level * 0.1));
-        return (int) (baseTimePerItem * sequenceLength * difficultyMultiplier);
+        DisplayTimeTable table = content.getDisplayTimes();
+        return (table != null ? table : displayTimes).getDisplayTimeMs(type, level, sequenceLength);
+    }
+    
+    /**
+     * Pace rounds from a calibrated table instead of the defaults. Display times shipped
+     * with the exercise content take precedence.
+     */
+    public void setDisplayTimeTable(DisplayTimeTable displayTimes) {
+        this.displayTimes = displayTimes;
     }
     
     /**
-     * Calculate score based on performance
+     * Draw rounds from a new content snapshot. Each round reads the snapshot once, so a swap
+     * in the middle of generation never mixes old and new content. Confusion matrices are
+     * extended to any new colors or actions.
+     */
+    public void setContent(ExerciseContent content) {
+        this.content = content;
+        ConfusionTracker tracker = confusions;
+        if (tracker != null) {
+            ensureMatrices(tracker, content);
+        }
+    }
+    
+    public ExerciseContent getContent() {
+        return content;
+    }
+    
+    /**
+     * Calculate score based on performance with the current scoring version
      */
     public double calculateScore(int correctAnswers, int totalQuestions, long timeSpentMs, 
                                int level, ExerciseType exerciseType) {
-        double accuracy = (double) correctAnswers / totalQuestions;
-        double baseScore = accuracy * 100;
-        
-        // Bonus points for higher levels
-        double levelBonus = level * 10;
-        
-        // Time bonus (faster completion gets more points, but accuracy is more important)
-        double expectedTimeMs = getDisplayTimeMs(exerciseType, level, totalQuestions) * 2;
-        double timeBonus = Math.max(0, (expectedTimeMs - timeSpentMs) / expectedTimeMs * 20);
-        
-        return Math.min(200, baseScore + levelBonus + timeBonus);
+        return ScoringFunctions.current().score(exerciseType, level, correctAnswers, totalQuestions, timeSpentMs);
+    }
+    
+    /**
+     * Score a completed round, stamping it with the scoring version used
+     */
+    public Score createScore(ExerciseType exerciseType, int level, long timeSpentMs,
+                             int correctAnswers, int totalQuestions) {
+        ScoringFunction scoring = ScoringFunctions.current();
+        Score score = new Score(exerciseType,
+            scoring.score(exerciseType, level, correctAnswers, totalQuestions, timeSpentMs),
+            level, timeSpentMs, correctAnswers, totalQuestions);
+        score.setScoringVersion(scoring.getVersion());
+        return score;
+    }
+    
+    /**
+     * Count correct answers, tolerating small typos and order shifts
+     */
+    public int countCorrectAnswers(ExerciseType type, List<String> expected, List<String> actual) {
+        return answerMatcher.countCorrect(type, expected, actual);
     }
     
     /**
@@ -0,0 +1,289 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local leaderboard across all profiles on this station.
+ * Each exercise type and level keeps a bounded, sorted board of the best result
+ * per user. Boards are updated as scores are recorded and persisted as a small
+ * index file, so rankings never require loading profiles or scanning histories.
+ * Boards are small (k entries), so positions are found by binary search and an
+ * insert or removal shifts the O(k) entries below it in one array copy.
+ */
+public class LeaderboardService {
+    private static final String LEADERBOARD_FILE = "leaderboard.json";
+    private static final int DEFAULT_CAPACITY = 100;
+    private static final int MAX_LEVEL = 10;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final Path indexPath;
+    private final int capacity;
+    private final Map<ExerciseType, Board[]> boards = new EnumMap<>(ExerciseType.class);
+
+    public LeaderboardService(Path dataDirectory) {
+        this(dataDirectory, DEFAULT_CAPACITY);
+    }
+
+    public LeaderboardService(Path dataDirectory, int capacity) {
+        this.indexPath = dataDirectory.resolve(LEADERBOARD_FILE);
+        this.capacity = capacity;
+        for (ExerciseType type : ExerciseType.values()) {
+            Board[] levels = new Board[MAX_LEVEL + 1];
+            for (int level = 0; level <= MAX_LEVEL; level++) {
+                levels[level] = new Board(capacity);
+            }
+            boards.put(type, levels);
+        }
+        load();
+    }
+
+    /**
+     * Offer a completed score. Returns true if the board changed.
+     */
+    public synchronized boolean record(String username, Score score) {
+        if (score.isDrill()) {
+            return false;
+        }
+        Board board = board(score.getExerciseType(), score.getLevel());
+        return board != null && board.offer(username, score.getScore(), score.getCompletedAt());
+    }
+
+    /**
+     * Best entries for a type and level, highest first
+     */
+    public synchronized List<Entry> getTop(ExerciseType type, int level, int limit) {
+        Board board = board(type, level);
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        return board.top(limit);
+    }
+
+    /**
+     * 1-based rank of a user's best result, or -1 if the user is not on the board
+     */
+    public synchronized int getRank(ExerciseType type, int level, String username) {
+        Board board = board(type, level);
+        return board == null ? -1 : board.rankOf(username);
+    }
+
+    public synchronized void save() {
+        JSONObject json = new JSONObject();
+        json.put("capacity", capacity);
+        JSONArray boardsJson = new JSONArray();
+        for (Map.Entry<ExerciseType, Board[]> typeBoards : boards.entrySet()) {
+            Board[] levels = typeBoards.getValue();
+            for (int level = 0; level < levels.length; level++) {
+                if (levels[level].size == 0) {
+                    continue;
+                }
+                JSONObject boardJson = new JSONObject();
+                boardJson.put("exerciseType", typeBoards.getKey().name());
+                boardJson.put("level", level);
+                JSONArray entriesJson = new JSONArray();
+                for (Entry entry : levels[level].top(capacity)) {
+                    JSONObject entryJson = new JSONObject();
+                    entryJson.put("username", entry.getUsername());
+                    entryJson.put("score", entry.getScore());
+                    entryJson.put("achievedAt", entry.getAchievedAt().format(DATE_FORMATTER));
+                    entriesJson.put(entryJson);
+                }
+                boardJson.put("entries", entriesJson);
+                boardsJson.put(boardJson);
+            }
+        }
+        json.put("boards", boardsJson);
+
+        try {
+            Path tempPath = indexPath.resolveSibling(LEADERBOARD_FILE + ".tmp");
+            Files.writeString(tempPath, json.toString());
+            Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving leaderboard: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        try {
+            if (!Files.exists(indexPath)) {
+                return;
+            }
+            JSONObject json = new JSONObject(Files.readString(indexPath));
+            JSONArray boardsJson = json.optJSONArray("boards");
+            if (boardsJson == null) {
+                return;
+            }
+            for (int i = 0; i < boardsJson.length(); i++) {
+                JSONObject boardJson = boardsJson.getJSONObject(i);
+                Board board = board(ExerciseType.valueOf(boardJson.getString("exerciseType")),
+                        boardJson.getInt("level"));
+                if (board == null) {
+                    continue;
+                }
+                JSONArray entriesJson = boardJson.getJSONArray("entries");
+                for (int j = 0; j < entriesJson.length(); j++) {
+                    JSONObject entryJson = entriesJson.getJSONObject(j);
+                    board.offer(entryJson.getString("username"), entryJson.getDouble("score"),
+                            LocalDateTime.parse(entryJson.getString("achievedAt"), DATE_FORMATTER));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading leaderboard: " + e.getMessage());
+        }
+    }
+
+    private Board board(ExerciseType type, int level) {
+        if (type == null || level < 0 || level > MAX_LEVEL) {
+            return null;
+        }
+        return boards.get(type)[level];
+    }
+
+    /**
+     * A user's best result on one board
+     */
+    public static class Entry {
+        private final String username;
+        private final double score;
+        private final LocalDateTime achievedAt;
+
+        public Entry(String username, double score, LocalDateTime achievedAt) {
+            this.username = username;
+            this.score = score;
+            this.achievedAt = achievedAt;
+        }
+
+        public String getUsername() { return username; }
+        public double getScore() { return score; }
+        public LocalDateTime getAchievedAt() { return achievedAt; }
+    }
+
+    /**
+     * Bounded board sorted by score (highest first, earlier result wins ties).
+     * Lookups are binary searches; an insert shifts at most capacity entries.
+     */
+    private static class Board {
+        private final Entry[] entries;
+        private final Map<String, Entry> bestByUser = new HashMap<>();
+        private int size;
+
+        Board(int capacity) {
+            this.entries = new Entry[capacity];
+        }
+
+        boolean offer(String username, double score, LocalDateTime achievedAt) {
+            Entry existing = bestByUser.get(username);
+            if (existing != null && existing.getScore() >= score) {
+                return false;
+            }
+            int position = insertionPoint(score, achievedAt);
+            if (position >= entries.length) {
+                return false;
+            }
+            if (existing != null) {
+                remove(existing);
+                position = insertionPoint(score, achievedAt);
+            }
+            if (size == entries.length) {
+                bestByUser.remove(entries[size - 1].getUsername());
+                size--;
+            }
+            System.arraycopy(entries, position, entries, position + 1, size - position);
+            Entry entry = new Entry(username, score, achievedAt);
+            entries[position] = entry;
+            size++;
+            bestByUser.put(username, entry);
+            return true;
+        }
+
+        int rankOf(String username) {
+            Entry entry = bestByUser.get(username);
+            if (entry == null) {
+                return -1;
+            }
+            return indexOf(entry) + 1;
+        }
+
+        List<Entry> top(int limit) {
+            int count = Math.min(limit, size);
+            List<Entry> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(entries[i]);
+            }
+            return result;
+        }
+
+        /**
+         * First position whose entry ranks below the given result
+         */
+        int insertionPoint(double score, LocalDateTime achievedAt) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranksAbove(entries[mid], score, achievedAt)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int indexOf(Entry entry) {
+            // Entries sharing score and time are adjacent; scan only that run
+            int index = insertionPointBefore(entry.getScore(), entry.getAchievedAt());
+            while (index < size && entries[index] != entry) {
+                index++;
+            }
+            return index;
+        }
+
+        private int insertionPointBefore(double score, LocalDateTime achievedAt) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Entry candidate = entries[mid];
+                boolean strictlyAbove = candidate.getScore() > score
+                        || (candidate.getScore() == score && candidate.getAchievedAt().isBefore(achievedAt));
+                if (strictlyAbove) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void remove(Entry entry) {
+            int index = indexOf(entry);
+            System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+            entries[--size] = null;
+            bestByUser.remove(entry.getUsername());
+        }
+
+        private static boolean ranksAbove(Entry entry, double score, LocalDateTime achievedAt) {
+            if (entry.getScore() != score) {
+                return entry.getScore() > score;
+            }
+            return !entry.getAchievedAt().isAfter(achievedAt);
+        }
+    }
+}
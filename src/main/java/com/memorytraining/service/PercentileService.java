@@ -0,0 +1,87 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreDistributions;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Station-wide score distributions across every profile that trains here.
+ * Only merged sketches are kept and persisted, so percentile ranks among
+ * thousands of users come from a few KB of state.
+ */
+public class PercentileService {
+    private static final String DISTRIBUTIONS_FILE = "distributions.json";
+
+    private final Path indexPath;
+    /** Serializes saves, which run on the bus and sync threads, without blocking record */
+    private final Object saveLock = new Object();
+    private ScoreDistributions stationDistributions = new ScoreDistributions();
+
+    public PercentileService(Path dataDirectory) {
+        this.indexPath = dataDirectory.resolve(DISTRIBUTIONS_FILE);
+        load();
+    }
+
+    public synchronized void record(Score score) {
+        stationDistributions.record(score);
+    }
+
+    /**
+     * Merge a profile's own distributions, e.g. when importing users from another station
+     */
+    public synchronized void merge(ScoreDistributions distributions) {
+        stationDistributions.merge(distributions);
+    }
+
+    /**
+     * Percentile (0-100) of a score among all results at the same type and level on this station
+     */
+    public synchronized double getScorePercentile(ExerciseType type, int level, double score) {
+        return stationDistributions.getScorePercentile(type, level, score);
+    }
+
+    /**
+     * Percentage of results on this station that were slower per item than the given time
+     */
+    public synchronized double getResponseTimePercentile(ExerciseType type, int level, double responseTimeMs) {
+        return stationDistributions.getResponseTimePercentile(type, level, responseTimeMs);
+    }
+
+    public void save() {
+        // Snapshot and write under one lock, so an older snapshot never overwrites a newer one
+        synchronized (saveLock) {
+            JSONObject json = new JSONObject();
+            synchronized (this) {
+                json.put("distributions", stationDistributions.toJson());
+            }
+            try {
+                Path tempPath = indexPath.resolveSibling(DISTRIBUTIONS_FILE + ".tmp");
+                Files.writeString(tempPath, json.toString());
+                Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Error saving distributions: " + e.getMessage());
+            }
+        }
+    }
+
+    private void load() {
+        try {
+            if (Files.exists(indexPath)) {
+                JSONObject json = new JSONObject(Files.readString(indexPath));
+                JSONArray distributionsJson = json.optJSONArray("distributions");
+                if (distributionsJson != null) {
+                    stationDistributions = ScoreDistributions.fromJson(distributionsJson);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading distributions: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreQuery;
+import com.memorytraining.model.User;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Headless maintenance over every profile in a data directory, including the last current
+ * user in user_data.json, without starting JavaFX.
+ * Profiles are processed in parallel on a fixed pool; the directory is listed lazily and
+ * the work queue is bounded, so memory use does not grow with the number of profiles.
+ * Meant to run while the app is closed, e.g. as a nightly job:
+ *
+ * <pre>
+ * java -cp lost-art-java.jar com.memorytraining.service.ProfileBatch migrate --data /srv/lost-art
+ * </pre>
+ *
+ * Commands:
+ * <ul>
+ *   <li>migrate: archive old scores, re-score outdated ones and rewrite in the current format</li>
+ *   <li>recompute: rebuild score distributions and summaries from live and archived history</li>
+ *   <li>rescore: re-score live and archived scores with the current scoring version, or the
+ *   one given with --version, rewriting outdated archive segments</li>
+ *   <li>validate: report inconsistent profiles without changing anything</li>
+ *   <li>export: write each profile's history as CSV to the --out directory</li>
+ * </ul>
+ */
+public class ProfileBatch {
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    public enum Command { MIGRATE, RECOMPUTE, RESCORE, VALIDATE, EXPORT }
+
+    private final DataService dataService;
+    private final Command command;
+    private final Path outDirectory;
+    private final int threads;
+    private final ScoringFunction scoring;
+
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger changed = new AtomicInteger();
+    private final AtomicLong scores = new AtomicLong();
+
+    public ProfileBatch(DataService dataService, Command command, Path outDirectory, int threads) {
+        this(dataService, command, outDirectory, threads, ScoringFunctions.current());
+    }
+
+    /**
+     * @param scoring scoring version the rescore command brings profiles to
+     */
+    public ProfileBatch(DataService dataService, Command command, Path outDirectory, int threads,
+                        ScoringFunction scoring) {
+        this.dataService = dataService;
+        this.command = command;
+        this.outDirectory = outDirectory;
+        this.threads = Math.max(1, threads);
+        this.scoring = scoring;
+    }
+
+    /**
+     * Process all profiles and print a summary. Returns the number of profiles that failed.
+     */
+    public int run() throws IOException, InterruptedException {
+        int total = countProfiles();
+        if (command == Command.EXPORT) {
+            Files.createDirectories(outDirectory);
+        }
+
+        // A full queue makes the listing thread run the task itself, which throttles it
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        progress.scheduleAtFixedRate(() -> printProgress(total, start),
+            PROGRESS_INTERVAL_MS, PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        try (Stream<Path> files = dataService.profileFiles()) {
+            files.forEach(file -> executor.execute(() -> processFile(file)));
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            progress.shutdownNow();
+        }
+
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        System.out.printf("%s: %d profiles (%d changed, %d failed), %d scores in %.2f s - %.0f profiles/s, %.0f scores/s%n",
+            command.name().toLowerCase(), processed.get(), changed.get(), failed.get(), scores.get(),
+            seconds, processed.get() / seconds, scores.get() / seconds);
+        return failed.get();
+    }
+
+    private void processFile(Path file) {
+        try {
+            User user = dataService.readProfile(file);
+            int count = switch (command) {
+                case MIGRATE -> migrate(file, user);
+                case RECOMPUTE -> recompute(file, user);
+                case RESCORE -> rescore(file, user);
+                case VALIDATE -> validate(file, user);
+                case EXPORT -> export(user);
+            };
+            scores.addAndGet(count);
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Error processing " + file.getFileName() + ": " + e.getMessage());
+        } finally {
+            processed.incrementAndGet();
+        }
+    }
+
+    private int migrate(Path file, User user) throws IOException {
+        dataService.upgradeProfile(user);
+        // Always rewritten, so files saved by older versions pick up new fields
+        dataService.writeProfile(user, file);
+        changed.incrementAndGet();
+        return user.getScoreCount();
+    }
+
+    private int recompute(Path file, User user) throws IOException {
+        int count = dataService.recomputeAggregates(user);
+        dataService.writeProfile(user, file);
+        changed.incrementAndGet();
+        return count;
+    }
+
+    private int rescore(Path file, User user) throws IOException {
+        int rescored = dataService.rescoreProfile(user, scoring);
+        if (rescored > 0) {
+            dataService.writeProfile(user, file);
+            changed.incrementAndGet();
+        }
+        return rescored;
+    }
+
+    private int validate(Path file, User user) {
+        List<String> problems = new ArrayList<>();
+        String expectedName = DataService.profileFileName(user.getUsername()) + ".json";
+        if (!file.equals(dataService.getUserDataPath()) && !file.getFileName().toString().equals(expectedName)) {
+            problems.add("stored as " + file.getFileName() + " instead of " + expectedName);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Score> history = user.getScoresSnapshot();
+        for (int i = 0; i < history.size(); i++) {
+            Score score = history.get(i);
+            if (score.getCorrectAnswers() < 0 || score.getCorrectAnswers() > score.getTotalQuestions()) {
+                problems.add("score " + i + " has " + score.getCorrectAnswers() + "/" + score.getTotalQuestions() + " correct");
+            }
+            if (score.getLevel() < 1) {
+                problems.add("score " + i + " has level " + score.getLevel());
+            }
+            if (score.getCompletedAt().isAfter(now)) {
+                problems.add("score " + i + " completed in the future");
+            }
+            if (score.getScoringVersion() < 1 || score.getScoringVersion() > ScoringFunctions.CURRENT_VERSION) {
+                problems.add("score " + i + " has unknown scoring version " + score.getScoringVersion());
+            }
+        }
+        if (!problems.isEmpty()) {
+            changed.incrementAndGet();
+            System.out.println(file.getFileName() + ": " + String.join("; ", problems));
+        }
+        return history.size();
+    }
+
+    private int export(User user) throws IOException {
+        Path file = outDirectory.resolve(DataService.profileFileName(user.getUsername()) + ".csv");
+        AtomicInteger count = new AtomicInteger();
+        try (BufferedWriter writer = Files.newBufferedWriter(file);
+             Stream<Score> archived = dataService.getArchive(user.getUsername()).query(ScoreQuery.all())) {
+            writer.write("exerciseType,level,score,correctAnswers,totalQuestions,timeSpentMs,completedAt,scoringVersion");
+            writer.newLine();
+            // Rows are written as they are read; the history is never held as text
+            for (Score score : (Iterable<Score>) Stream.concat(archived, user.getScoresSnapshot().stream())::iterator) {
+                writer.write(score.getExerciseType().name() + "," + score.getLevel() + "," + score.getScore() + ","
+                    + score.getCorrectAnswers() + "," + score.getTotalQuestions() + "," + score.getTimeSpentMs() + ","
+                    + score.getCompletedAt() + "," + score.getScoringVersion());
+                writer.newLine();
+                count.incrementAndGet();
+            }
+        }
+        changed.incrementAndGet();
+        return count.get();
+    }
+
+    private void printProgress(int total, long start) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        int done = processed.get();
+        System.out.printf("%d/%d profiles (%.0f%%), %.0f profiles/s%n",
+            done, total, total == 0 ? 100.0 : 100.0 * done / total, done / seconds);
+    }
+
+    private int countProfiles() throws IOException {
+        try (Stream<Path> files = dataService.profileFiles()) {
+            return (int) files.count();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        Command command;
+        try {
+            command = Command.valueOf(args[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            usage();
+            return;
+        }
+
+        Path dataDirectory = Paths.get(System.getProperty("user.home"), ".lost-art-memory");
+        Path outDirectory = Paths.get("export");
+        int threads = Runtime.getRuntime().availableProcessors();
+        ScoringFunction scoring = ScoringFunctions.current();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--data" -> dataDirectory = Paths.get(args[i + 1]);
+                case "--out" -> outDirectory = Paths.get(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--version" -> scoring = ScoringFunctions.forVersion(Integer.parseInt(args[i + 1]));
+                default -> {
+                    usage();
+                    return;
+                }
+            }
+        }
+        if (!Files.isDirectory(dataDirectory.resolve("profiles"))) {
+            System.err.println("No profiles directory under " + dataDirectory);
+            System.exit(1);
+        }
+
+        int failures = new ProfileBatch(new DataService(dataDirectory), command, outDirectory, threads, scoring).run();
+        System.exit(failures == 0 ? 0 : 2);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: ProfileBatch migrate|recompute|rescore|validate|export"
+            + " [--data DIR] [--out DIR] [--threads N] [--version N]");
+        System.exit(64);
+    }
+}
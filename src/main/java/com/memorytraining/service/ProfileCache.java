@@ -0,0 +1,213 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory cache of user profiles for shared stations.
+ * Entries are kept in least-recently-used order and weighted by their score
+ * count, so the cache holds many light profiles or a few heavy ones within
+ * the same budget. Dirty profiles are written back when they are evicted, on the
+ * write executor and outside the cache lock; until that write completes, a lookup
+ * is answered from the evicted instance rather than from the stale file.
+ */
+public class ProfileCache {
+    private final long maxWeight;
+    private final Function<String, User> loader;
+    private final Consumer<User> writer;
+    private final Executor writeExecutor;
+    private final LinkedHashMap<String, User> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> weights = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    private final Map<String, User> pendingWrites = new HashMap<>();
+    private final Map<String, Integer> queuedWrites = new HashMap<>();
+    private long totalWeight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writeBacks;
+
+    /**
+     * @param maxWeight budget in scores (each profile also weighs 1 on its own)
+     * @param loader    loads a profile from storage, or returns null if there is none
+     * @param writer    writes a profile back to storage
+     * @param writeExecutor runs the write-backs of evicted profiles
+     */
+    public ProfileCache(long maxWeight, Function<String, User> loader, Consumer<User> writer, Executor writeExecutor) {
+        this.maxWeight = maxWeight;
+        this.loader = loader;
+        this.writer = writer;
+        this.writeExecutor = writeExecutor;
+    }
+
+    /**
+     * Cached profile for the user, loading it on a miss. Returns null if the profile does not exist.
+     */
+    public synchronized User get(String username) {
+        User user = entries.get(username);
+        if (user != null) {
+            hits++;
+            return user;
+        }
+        misses++;
+        user = pendingWrites.get(username);
+        if (user == null) {
+            user = loader.apply(username);
+        }
+        if (user != null) {
+            insert(username, user);
+        }
+        return user;
+    }
+
+    /**
+     * Cached profile for the user, or null; never loads and does not count as a hit or miss
+     */
+    public synchronized User peek(String username) {
+        return entries.get(username);
+    }
+    
+    /**
+     * Add or replace a profile, e.g. one that was just created or modified
+     */
+    public synchronized void put(User user, boolean isDirty) {
+        insert(user.getUsername(), user);
+        if (isDirty) {
+            dirty.add(user.getUsername());
+        }
+    }
+
+    /**
+     * Record that a cached profile changed; its weight is refreshed and it will be written back
+     */
+    public synchronized void markDirty(String username) {
+        User user = entries.get(username);
+        if (user != null) {
+            dirty.add(username);
+            reweigh(username, user);
+            evictIfNeeded(username);
+        }
+    }
+
+    /**
+     * Write back every dirty profile
+     */
+    public synchronized void flush() {
+        for (String username : new ArrayList<>(dirty)) {
+            User user = entries.get(username);
+            if (user != null) {
+                writeBack(user);
+            }
+        }
+        dirty.clear();
+    }
+
+    public synchronized long getWeight() { return totalWeight; }
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getWriteBacks() { return writeBacks; }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ProfileCache[size=%d, weight=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, writeBacks=%d]",
+                entries.size(), totalWeight, maxWeight, hits, misses, getHitRate() * 100, evictions, writeBacks);
+    }
+
+    private void insert(String username, User user) {
+        entries.put(username, user);
+        reweigh(username, user);
+        evictIfNeeded(username);
+    }
+
+    private void reweigh(String username, User user) {
+        long weight = 1L + user.getScoreCount();
+        Long previous = weights.put(username, weight);
+        totalWeight += weight - (previous == null ? 0 : previous);
+    }
+
+    /**
+     * Evict least recently used profiles until under budget, never the one just touched
+     */
+    private void evictIfNeeded(String keep) {
+        Iterator<Map.Entry<String, User>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Map.Entry<String, User> eldest = iterator.next();
+            String username = eldest.getKey();
+            if (username.equals(keep)) {
+                continue;
+            }
+            if (dirty.remove(username)) {
+                writeBackLater(eldest.getValue());
+            }
+            iterator.remove();
+            totalWeight -= weights.remove(username);
+            evictions++;
+        }
+    }
+
+    private void writeBack(User user) {
+        writer.accept(user);
+        writeBacks++;
+    }
+
+    /**
+     * Queue an evicted profile's write-back. If the executor has shut down the
+     * profile is written here instead, so nothing is lost on exit.
+     */
+    private void writeBackLater(User user) {
+        String username = user.getUsername();
+        pendingWrites.put(username, user);
+        queuedWrites.merge(username, 1, Integer::sum);
+        try {
+            writeExecutor.execute(() -> {
+                try {
+                    writer.accept(user);
+                } finally {
+                    writeCompleted(user);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            try {
+                writer.accept(user);
+            } finally {
+                writeCompleted(user);
+            }
+        }
+    }
+
+    private synchronized void writeCompleted(User user) {
+        String username = user.getUsername();
+        writeBacks++;
+        if (queuedWrites.merge(username, -1, Integer::sum) == 0) {
+            queuedWrites.remove(username);
+            pendingWrites.remove(username);
+        }
+    }
+
+    /**
+     * Usernames currently cached, least recently used first
+     */
+    public synchronized List<String> getCachedUsernames() {
+        return new ArrayList<>(entries.keySet());
+    }
+}
@@ -0,0 +1,264 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.Score;
+import com.memorytraining.model.User;
+import com.memorytraining.model.UserPreferences;
+import com.memorytraining.util.TimerWheel;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Training reminders for every profile on the station, driven by one timer wheel on one
+ * thread. A profile's next reminder is due its reminder frequency after it last trained;
+ * a reminder that fires is repeated one period later until the user trains again.
+ *
+ * Next-fire times are kept in reminders.json in the data directory, so reminders survive
+ * restarts without loading every profile; profiles the file does not know yet are read
+ * once to seed it. Changes are written out on the next tick.
+ */
+public class ReminderService {
+    private static final String REMINDERS_FILE = "reminders.json";
+    private static final int FORMAT_VERSION = 1;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long TICK_MS = 60_000;
+    private static final int WHEEL_SIZE = 1024;
+
+    private final Path remindersPath;
+    private final TimerWheel<String> wheel;
+    private final Map<String, Integer> frequencyDays = new ConcurrentHashMap<>();
+    private final Set<String> unscheduled = ConcurrentHashMap.newKeySet();
+    private final Consumer<String> fire = this::onDue;
+    private final ScheduledExecutorService ticker;
+    private final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean dirty;
+
+    public ReminderService(Path dataDirectory) {
+        this.remindersPath = dataDirectory.resolve(REMINDERS_FILE);
+        this.wheel = new TimerWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        load();
+    }
+
+    /**
+     * Start ticking. Reminders that came due while the app was closed fire on the first tick.
+     */
+    public void start() {
+        ticker.scheduleAtFixedRate(this::tick, 0, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Register a listener called on the reminder thread with the username a reminder is for
+     */
+    public void addReminderListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Schedule every profile in the data directory that reminders.json has no entry for,
+     * from its stored preferences and the time it last trained. The current profile is
+     * left to {@link #update}.
+     */
+    public void seed(DataService dataService) {
+        Set<String> known = new HashSet<>();
+        for (String username : frequencyDays.keySet()) {
+            known.add(DataService.profileFileName(username) + ".json");
+        }
+        for (String username : unscheduled) {
+            known.add(DataService.profileFileName(username) + ".json");
+        }
+        Path userDataPath = dataService.getUserDataPath();
+        try (Stream<Path> files = dataService.profileFiles()) {
+            files.filter(file -> !file.equals(userDataPath))
+                    .filter(file -> !known.contains(file.getFileName().toString()))
+                    .forEach(file -> {
+                        try {
+                            update(dataService.readProfile(file));
+                        } catch (IOException e) {
+                            System.err.println("Error seeding reminders: " + e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            System.err.println("Error seeding reminders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bring a profile's reminder in line with its preferences, keeping a pending deadline if
+     * the frequency did not change. A new deadline is one period after the profile last trained.
+     */
+    public void update(User user) {
+        UserPreferences preferences = user.getPreferences();
+        String username = user.getUsername();
+        if (!preferences.isRemindersEnabled() || preferences.getReminderFrequencyDays() <= 0) {
+            boolean cancelled = frequencyDays.remove(username) != null;
+            if (cancelled) {
+                wheel.cancel(username);
+            }
+            if (unscheduled.add(username) || cancelled) {
+                dirty = true;
+            }
+            return;
+        }
+        int days = preferences.getReminderFrequencyDays();
+        unscheduled.remove(username);
+        Integer previous = frequencyDays.put(username, days);
+        if (previous == null || previous != days || wheel.getDeadline(username) < 0) {
+            wheel.schedule(username, lastTrainedMs(user) + days * DAY_MS);
+            dirty = true;
+        }
+    }
+
+    /**
+     * A profile trained: push its next reminder one period out
+     */
+    public void trained(User user) {
+        Integer days = frequencyDays.get(user.getUsername());
+        if (days == null) {
+            update(user);
+            return;
+        }
+        wheel.schedule(user.getUsername(), System.currentTimeMillis() + days * DAY_MS);
+        dirty = true;
+    }
+
+    /**
+     * When the profile's next reminder fires, or -1 if it has none
+     */
+    public long getNextReminder(String username) {
+        return wheel.getDeadline(username);
+    }
+
+    /**
+     * When the profile last completed an exercise, or else last logged in
+     */
+    private static long lastTrainedMs(User user) {
+        LocalDateTime last = null;
+        for (Score score : user.getScoresSnapshot()) {
+            LocalDateTime completedAt = score.getCompletedAt();
+            if (completedAt != null && (last == null || completedAt.isAfter(last))) {
+                last = completedAt;
+            }
+        }
+        if (last == null) {
+            last = user.getLastLoginAt();
+        }
+        return last != null ? last.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : System.currentTimeMillis();
+    }
+
+    private void tick() {
+        try {
+            wheel.advanceTo(System.currentTimeMillis(), fire);
+            if (dirty) {
+                save();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error processing reminders: " + e.getMessage());
+        }
+    }
+
+    private void onDue(String username) {
+        Integer days = frequencyDays.get(username);
+        if (days == null) {
+            return;
+        }
+        wheel.schedule(username, System.currentTimeMillis() + days * DAY_MS);
+        dirty = true;
+        for (Consumer<String> listener : listeners) {
+            listener.accept(username);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(remindersPath)) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(remindersPath)) {
+            JSONObject json = new JSONObject(new JSONTokener(reader));
+            if (json.optInt("version", 0) != FORMAT_VERSION) {
+                throw new IOException("Unsupported reminders version " + json.optInt("version", 0));
+            }
+            JSONArray reminders = json.getJSONArray("reminders");
+            for (int i = 0; i < reminders.length(); i++) {
+                JSONObject reminder = reminders.getJSONObject(i);
+                String username = reminder.getString("username");
+                frequencyDays.put(username, reminder.getInt("frequencyDays"));
+                wheel.schedule(username, reminder.getLong("nextFireAt"));
+            }
+            JSONArray off = json.optJSONArray("unscheduled");
+            for (int i = 0; off != null && i < off.length(); i++) {
+                unscheduled.add(off.getString(i));
+            }
+        } catch (IOException | JSONException e) {
+            System.err.println("Error loading reminders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the schedule if it changed since the last write
+     */
+    public synchronized void save() {
+        dirty = false;
+        JSONArray reminders = new JSONArray();
+        for (Map.Entry<String, Integer> entry : frequencyDays.entrySet()) {
+            long deadline = wheel.getDeadline(entry.getKey());
+            if (deadline < 0) {
+                continue;
+            }
+            JSONObject reminder = new JSONObject();
+            reminder.put("username", entry.getKey());
+            reminder.put("frequencyDays", entry.getValue());
+            reminder.put("nextFireAt", deadline);
+            reminders.put(reminder);
+        }
+        JSONObject json = new JSONObject();
+        json.put("version", FORMAT_VERSION);
+        json.put("reminders", reminders);
+        json.put("unscheduled", new JSONArray(unscheduled));
+
+        Path temp = remindersPath.resolveSibling(REMINDERS_FILE + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                json.write(writer);
+            }
+            Files.move(temp, remindersPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            System.err.println("Error saving reminders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop ticking and write any pending changes
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+        if (dirty) {
+            save();
+        }
+    }
+}
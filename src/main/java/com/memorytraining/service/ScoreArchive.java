@@ -0,0 +1,492 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreQuery;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Archive of old scores for one profile, rolled into immutable monthly segments.
+ * Each segment file holds its scores sorted by completion time and deflated, followed
+ * by an uncompressed footer with the record count, time range and per-type counts.
+ * Queries read only footers to decide which segments to open. A sealed segment is only
+ * ever rewritten whole, when its scores are re-scored.
+ *
+ * Segment layout: [deflated records][footer][footer length: int]. Version 2 segments ("LAS2")
+ * end each record with the scoring version; version 1 records are read as scoring version 1.
+ * Version 3 ("LAS3") adds the display time after it; older records read it as 0, not recorded.
+ * The high bit of a record's type byte marks a drill round, in either version.
+ */
+public class ScoreArchive {
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAGIC_V1 = 0x4C415331; // "LAS1", records without a scoring version
+    private static final int MAGIC_V2 = 0x4C415332; // "LAS2", records without a display time
+    private static final int MAGIC = 0x4C415333; // "LAS3"
+    private static final int RECORD_BYTES_V1 = 1 + 8 + 4 + 8 + 4 + 4 + 8 + 4;
+    private static final int RECORD_BYTES_V2 = RECORD_BYTES_V1 + 2;
+    private static final int RECORD_BYTES = RECORD_BYTES_V2 + 4;
+    private static final int LEVEL_OFFSET = 1 + 8;
+    private static final int TIME_OFFSET = 1 + 8 + 4 + 8 + 4 + 4;
+    private static final int DRILL_FLAG = 0x80;
+    private static final int TYPE_MASK = 0x7F;
+    private static final ExerciseType[] TYPES = ExerciseType.values();
+
+    private final Path directory;
+    private List<SegmentInfo> segments;
+
+    public ScoreArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Move scores completed before the cutoff into sealed segments, one or more per month.
+     * Returns the scores that remain live. If writing fails, nothing is removed.
+     */
+    public synchronized List<Score> rollOlderThan(List<Score> scores, LocalDateTime cutoff) {
+        Map<YearMonth, List<Score>> byMonth = new TreeMap<>();
+        List<Score> remaining = new ArrayList<>();
+        for (Score score : scores) {
+            if (score.getCompletedAt().isBefore(cutoff)) {
+                byMonth.computeIfAbsent(YearMonth.from(score.getCompletedAt()), m -> new ArrayList<>()).add(score);
+            } else {
+                remaining.add(score);
+            }
+        }
+        if (byMonth.isEmpty()) {
+            return scores;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<YearMonth, List<Score>> month : byMonth.entrySet()) {
+                List<Score> monthScores = withoutArchived(month.getKey(), month.getValue());
+                if (!monthScores.isEmpty()) {
+                    writeSegment(month.getKey(), monthScores);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error archiving scores: " + e.getMessage());
+            return scores;
+        }
+        return remaining;
+    }
+
+    /**
+     * Footers of all segments, oldest first. Segment bodies are not read.
+     */
+    public synchronized List<SegmentInfo> getSegments() {
+        if (segments == null) {
+            segments = new ArrayList<>();
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX))::iterator) {
+                        try {
+                            segments.add(readFooter(file));
+                        } catch (IOException | RuntimeException e) {
+                            System.err.println("Skipping unreadable segment " + file + ": " + e.getMessage());
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error listing archive: " + e.getMessage());
+                }
+            }
+            segments.sort(Comparator.comparingLong(SegmentInfo::getMinTimeMs));
+        }
+        return new ArrayList<>(segments);
+    }
+
+    /**
+     * Archived scores matching the query, oldest first. Segments whose footer rules them
+     * out are never decompressed, and within a segment the time range is found by binary
+     * search over the sorted records, so only matching records are decoded.
+     */
+    public Stream<Score> query(ScoreQuery query) {
+        return query(query, 0);
+    }
+
+    /**
+     * Archived scores matching the query from the given position on, oldest first. Segments
+     * wholly before the position are skipped by their count, so they are not decompressed
+     * unless the query cuts through them.
+     */
+    public Stream<Score> query(ScoreQuery query, long offset) {
+        List<SegmentInfo> candidates = candidates(query);
+        int first = 0;
+        long skip = offset;
+        while (skip > 0 && first < candidates.size()) {
+            int count = count(candidates.get(first), query);
+            if (skip < count) {
+                break;
+            }
+            skip -= count;
+            first++;
+        }
+        return candidates.subList(first, candidates.size()).stream()
+                .flatMap(segment -> querySegment(segment, query).stream())
+                .skip(skip);
+    }
+
+    /**
+     * Number of archived scores matching the query. Segments the query covers whole are
+     * counted from their footers; only segments it cuts through are decompressed.
+     */
+    public long count(ScoreQuery query) {
+        long count = 0;
+        for (SegmentInfo segment : candidates(query)) {
+            count += count(segment, query);
+        }
+        return count;
+    }
+
+    private List<SegmentInfo> candidates(ScoreQuery query) {
+        ExerciseType type = query.getExerciseType();
+        List<SegmentInfo> candidates = new ArrayList<>();
+        for (SegmentInfo segment : getSegments()) {
+            if (query.overlaps(segment.getMinTimeMs(), segment.getMaxTimeMs())
+                    && (type == null || segment.getCount(type) > 0)) {
+                candidates.add(segment);
+            }
+        }
+        return candidates;
+    }
+
+    private int count(SegmentInfo segment, ScoreQuery query) {
+        boolean whole = query.getFromMs() <= segment.getMinTimeMs() && segment.getMaxTimeMs() < query.getToMs()
+                && query.getMinLevel() == Integer.MIN_VALUE && query.getMaxLevel() == Integer.MAX_VALUE;
+        if (!whole) {
+            return querySegment(segment, query).size();
+        }
+        ExerciseType type = query.getExerciseType();
+        return type == null ? segment.getRecordCount() : segment.getCount(type);
+    }
+
+    private List<Score> querySegment(SegmentInfo segment, ScoreQuery query) {
+        ByteBuffer records;
+        try {
+            records = inflate(segment);
+        } catch (IOException e) {
+            System.err.println("Error reading segment " + segment.getPath() + ": " + e.getMessage());
+            return List.of();
+        }
+        int count = segment.getRecordCount();
+        int from = lowerBound(records, segment.getRecordBytes(), count, query.getFromMs());
+        int to = query.getToMs() == Long.MAX_VALUE ? count : lowerBound(records, segment.getRecordBytes(), count, query.getToMs());
+        List<Score> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int offset = i * segment.getRecordBytes();
+            if (query.getExerciseType() != null && (records.get(offset) & TYPE_MASK) != query.getExerciseType().ordinal()) {
+                continue;
+            }
+            if (!query.matchesLevel(records.getInt(offset + LEVEL_OFFSET))) {
+                continue;
+            }
+            records.position(offset);
+            result.add(readRecord(records, segment.getRecordBytes()));
+        }
+        return result;
+    }
+
+    /**
+     * First record whose completion time is >= key
+     */
+    private static int lowerBound(ByteBuffer records, int recordBytes, int count, long key) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (recordTimeMs(records, recordBytes, mid) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long recordTimeMs(ByteBuffer records, int recordBytes, int index) {
+        int offset = index * recordBytes + TIME_OFFSET;
+        return records.getLong(offset) * 1000 + records.getInt(offset + 8) / 1_000_000;
+    }
+
+    /**
+     * Re-score archived scores not at the target version. Each affected segment, and every
+     * segment in an older format, is rewritten in place in the current format. Returns the number re-scored.
+     */
+    public synchronized int rescore(ScoreRescorer rescorer, ScoringFunction target) throws IOException {
+        int rescored = 0;
+        for (SegmentInfo segment : getSegments()) {
+            List<Score> scores = readSegment(segment);
+            if (segment.getRecordBytes() == RECORD_BYTES && !ScoreRescorer.isOutdated(scores, target)) {
+                continue;
+            }
+            rescored += rescorer.rescore(scores, target);
+            SegmentInfo rewritten = writeSegmentFile(segment.getPath(), scores);
+            segments.set(segments.indexOf(segment), rewritten);
+        }
+        return rescored;
+    }
+
+    /**
+     * Decompress and decode every score in a segment, in completion order
+     */
+    public List<Score> readSegment(SegmentInfo segment) throws IOException {
+        ByteBuffer buffer = inflate(segment);
+        List<Score> scores = new ArrayList<>(segment.getRecordCount());
+        for (int i = 0; i < segment.getRecordCount(); i++) {
+            scores.add(readRecord(buffer, segment.getRecordBytes()));
+        }
+        return scores;
+    }
+
+    private static ByteBuffer inflate(SegmentInfo segment) throws IOException {
+        byte[] compressed;
+        try (RandomAccessFile file = new RandomAccessFile(segment.getPath().toFile(), "r")) {
+            compressed = new byte[segment.getCompressedBytes()];
+            file.readFully(compressed);
+        }
+
+        byte[] raw = new byte[segment.getRecordCount() * segment.getRecordBytes()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int offset = 0;
+            while (offset < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, offset, raw.length - offset);
+                if (read == 0 && inflater.needsInput()) {
+                    break;
+                }
+                offset += read;
+            }
+            if (offset != raw.length) {
+                throw new IOException("Truncated segment body");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt segment body", e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private List<Score> withoutArchived(YearMonth month, List<Score> scores) throws IOException {
+        // A crash between sealing a segment and rewriting the profile must not archive twice
+        Set<String> archived = new HashSet<>();
+        String prefix = month + "-";
+        for (SegmentInfo segment : getSegments()) {
+            if (segment.getPath().getFileName().toString().startsWith(prefix)) {
+                for (Score score : readSegment(segment)) {
+                    archived.add(recordKey(score));
+                }
+            }
+        }
+        if (archived.isEmpty()) {
+            return scores;
+        }
+        List<Score> fresh = new ArrayList<>();
+        for (Score score : scores) {
+            if (!archived.contains(recordKey(score))) {
+                fresh.add(score);
+            }
+        }
+        return fresh;
+    }
+
+    private void writeSegment(YearMonth month, List<Score> scores) throws IOException {
+        SegmentInfo written = writeSegmentFile(nextSegmentPath(month), scores);
+        getSegments();
+        segments.add(written);
+        segments.sort(Comparator.comparingLong(SegmentInfo::getMinTimeMs));
+    }
+
+    /**
+     * Write a sealed segment via a temporary file, replacing any segment at the path
+     */
+    private static SegmentInfo writeSegmentFile(Path target, List<Score> scores) throws IOException {
+        List<Score> sorted = new ArrayList<>(scores);
+        sorted.sort(Comparator.comparing(Score::getCompletedAt));
+
+        ByteBuffer raw = ByteBuffer.allocate(sorted.size() * RECORD_BYTES);
+        int[] typeCounts = new int[TYPES.length];
+        for (Score score : sorted) {
+            writeRecord(raw, score);
+            typeCounts[score.getExerciseType().ordinal()]++;
+        }
+
+        byte[] compressed = deflate(raw.array());
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        try (DataOutputStream footer = new DataOutputStream(footerBytes)) {
+            footer.writeInt(MAGIC);
+            footer.writeInt(sorted.size());
+            footer.writeLong(ScoreQuery.epochMs(sorted.get(0).getCompletedAt()));
+            footer.writeLong(ScoreQuery.epochMs(sorted.get(sorted.size() - 1).getCompletedAt()));
+            footer.writeInt(compressed.length);
+            footer.writeInt(TYPES.length);
+            for (ExerciseType type : TYPES) {
+                footer.writeUTF(type.name());
+                footer.writeInt(typeCounts[type.ordinal()]);
+            }
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.write(compressed);
+            out.write(footerBytes.toByteArray());
+            out.writeInt(footerBytes.size());
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return readFooter(target);
+    }
+
+    private Path nextSegmentPath(YearMonth month) {
+        int sequence = 1;
+        Path path;
+        do {
+            path = directory.resolve(String.format("%s-%04d%s", month, sequence++, SEGMENT_SUFFIX));
+        } while (Files.exists(path));
+        return path;
+    }
+
+    private static SegmentInfo readFooter(Path path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            long length = file.length();
+            file.seek(length - 4);
+            int footerLength = file.readInt();
+            file.seek(length - 4 - footerLength);
+            byte[] footerBytes = new byte[footerLength];
+            file.readFully(footerBytes);
+
+            DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerBytes));
+            int magic = footer.readInt();
+            if (magic != MAGIC && magic != MAGIC_V2 && magic != MAGIC_V1) {
+                throw new IOException("Not a score segment");
+            }
+            int recordBytes = magic == MAGIC ? RECORD_BYTES : magic == MAGIC_V2 ? RECORD_BYTES_V2 : RECORD_BYTES_V1;
+            int recordCount = footer.readInt();
+            long minTime = footer.readLong();
+            long maxTime = footer.readLong();
+            int compressedBytes = footer.readInt();
+            int typeCount = footer.readInt();
+            int[] typeCounts = new int[TYPES.length];
+            for (int i = 0; i < typeCount; i++) {
+                String name = footer.readUTF();
+                int count = footer.readInt();
+                for (ExerciseType type : TYPES) {
+                    if (type.name().equals(name)) {
+                        typeCounts[type.ordinal()] = count;
+                    }
+                }
+            }
+            return new SegmentInfo(path, recordCount, recordBytes, minTime, maxTime, compressedBytes, typeCounts);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.write(chunk, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Score score) {
+        buffer.put((byte) (score.getExerciseType().ordinal() | (score.isDrill() ? DRILL_FLAG : 0)));
+        buffer.putDouble(score.getScore());
+        buffer.putInt(score.getLevel());
+        buffer.putLong(score.getTimeSpentMs());
+        buffer.putInt(score.getCorrectAnswers());
+        buffer.putInt(score.getTotalQuestions());
+        buffer.putLong(score.getCompletedAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(score.getCompletedAt().getNano());
+        buffer.putShort((short) score.getScoringVersion());
+        buffer.putInt(score.getDisplayTimeMs());
+    }
+
+    private static Score readRecord(ByteBuffer buffer, int recordBytes) {
+        int typeByte = buffer.get();
+        ExerciseType type = TYPES[typeByte & TYPE_MASK];
+        double value = buffer.getDouble();
+        int level = buffer.getInt();
+        long timeSpentMs = buffer.getLong();
+        int correct = buffer.getInt();
+        int total = buffer.getInt();
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        Score score = new Score(type, value, level, timeSpentMs, correct, total);
+        score.setCompletedAt(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+        score.setScoringVersion(recordBytes >= RECORD_BYTES_V2 ? buffer.getShort() : 1);
+        score.setDisplayTimeMs(recordBytes >= RECORD_BYTES ? buffer.getInt() : 0);
+        score.setDrill((typeByte & DRILL_FLAG) != 0);
+        return score;
+    }
+
+    private static String recordKey(Score score) {
+        // Raw fields only, so re-scored copies still match
+        return score.getExerciseType() + "|" + score.getCompletedAt() + "|" + score.getLevel() + "|" + score.getTimeSpentMs() + "|" + score.getCorrectAnswers() + "|"
+                + score.getTotalQuestions();
+    }
+
+    /**
+     * Footer of a sealed segment
+     */
+    public static class SegmentInfo {
+        private final Path path;
+        private final int recordCount;
+        private final int recordBytes;
+        private final long minTimeMs;
+        private final long maxTimeMs;
+        private final int compressedBytes;
+        private final int[] typeCounts;
+
+        SegmentInfo(Path path, int recordCount, int recordBytes, long minTimeMs, long maxTimeMs,
+                    int compressedBytes, int[] typeCounts) {
+            this.path = path;
+            this.recordCount = recordCount;
+            this.recordBytes = recordBytes;
+            this.minTimeMs = minTimeMs;
+            this.maxTimeMs = maxTimeMs;
+            this.compressedBytes = compressedBytes;
+            this.typeCounts = typeCounts;
+        }
+
+        public Path getPath() { return path; }
+        public int getRecordCount() { return recordCount; }
+        public int getRecordBytes() { return recordBytes; }
+        public long getMinTimeMs() { return minTimeMs; }
+        public long getMaxTimeMs() { return maxTimeMs; }
+        public int getCompressedBytes() { return compressedBytes; }
+        public int getCount(ExerciseType type) { return typeCounts[type.ordinal()]; }
+    }
+}
@@ -0,0 +1,167 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.Score;
+import com.memorytraining.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer ring buffer that fans score-completion events out to subscribers.
+ * Publishing only writes a slot and advances a cursor, so the thread finishing an
+ * exercise never waits for persistence or any other consumer. Each subscriber runs
+ * on its own daemon thread and receives every event that arrived since its last
+ * call as one batch. Events carry the profile the score was recorded for, since
+ * the current user may have changed by the time a subscriber gets to them.
+ */
+public class ScoreEventBus {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    /**
+     * Consumer of batched score events.
+     * The batch list is reused between calls and must not be retained.
+     */
+    public interface Subscriber {
+        void onBatch(List<ScoreEvent> batch);
+    }
+
+    /**
+     * A score together with the profile it was added to
+     */
+    public static final class ScoreEvent {
+        private final User user;
+        private final Score score;
+
+        public ScoreEvent(User user, Score score) {
+            this.user = user;
+            this.score = score;
+        }
+
+        public User getUser() { return user; }
+        public String getUsername() { return user.getUsername(); }
+        public Score getScore() { return score; }
+    }
+
+    private final ScoreEvent[] ring;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<SubscriberWorker> consumers = new ArrayList<>();
+    private volatile boolean running;
+
+    public ScoreEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ScoreEventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ring = new ScoreEvent[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Register a subscriber. Must be called before start.
+     */
+    public void subscribe(String name, Subscriber subscriber) {
+        if (running) {
+            throw new IllegalStateException("Cannot subscribe after the bus has started");
+        }
+        consumers.add(new SubscriberWorker(name, subscriber));
+    }
+
+    public void start() {
+        running = true;
+        for (SubscriberWorker consumer : consumers) {
+            consumer.thread.start();
+        }
+    }
+
+    /**
+     * Publish a score recorded for the given profile. Only one thread may publish.
+     */
+    public void publish(User user, Score score) {
+        long next = cursor.get() + 1;
+
+        // Wait only if the slowest subscriber is a full ring behind
+        while (next - ring.length > slowestSequence()) {
+            LockSupport.parkNanos(100_000);
+        }
+
+        ring[(int) (next & mask)] = new ScoreEvent(user, score);
+        cursor.lazySet(next);
+
+        for (SubscriberWorker consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+    }
+
+    /**
+     * Stop accepting events and wait for subscribers to drain what was published
+     */
+    public void shutdown() {
+        running = false;
+        for (SubscriberWorker consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        for (SubscriberWorker consumer : consumers) {
+            try {
+                consumer.thread.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private long slowestSequence() {
+        long min = cursor.get();
+        for (SubscriberWorker consumer : consumers) {
+            min = Math.min(min, consumer.sequence.get());
+        }
+        return min;
+    }
+
+    private class SubscriberWorker implements Runnable {
+        private final String name;
+        private final Subscriber subscriber;
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final List<ScoreEvent> batch = new ArrayList<>();
+        private final Thread thread;
+
+        SubscriberWorker(String name, Subscriber subscriber) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.thread = new Thread(this, "score-bus-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long consumed = sequence.get();
+            while (true) {
+                long available = cursor.get();
+                if (available > consumed) {
+                    batch.clear();
+                    for (long seq = consumed + 1; seq <= available; seq++) {
+                        batch.add(ring[(int) (seq & mask)]);
+                    }
+                    try {
+                        subscriber.onBatch(batch);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error in score subscriber " + name + ": " + e.getMessage());
+                    }
+                    consumed = available;
+                    sequence.lazySet(consumed);
+                } else if (!running) {
+                    return;
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.Score;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recomputes stored score values from their raw fields with a given scoring version.
+ * Work is split into ranges on a fork-join pool; each task only reads the raw fields
+ * and writes the score of its own range, so no locking is needed within a batch.
+ */
+public class ScoreRescorer {
+    private static final int THRESHOLD = 4096;
+
+    private final ForkJoinPool pool;
+
+    public ScoreRescorer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ScoreRescorer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Re-score every score not already at the target version. Returns the number re-scored.
+     * The list should be a snapshot; the scores are updated in place.
+     */
+    public int rescore(List<Score> scores, ScoringFunction target) {
+        Score[] array = scores.toArray(new Score[0]);
+        if (array.length == 0) {
+            return 0;
+        }
+        return pool.invoke(new RescoreTask(array, 0, array.length, target));
+    }
+
+    /**
+     * Whether any score was produced by a version other than the target
+     */
+    public static boolean isOutdated(List<Score> scores, ScoringFunction target) {
+        for (Score score : scores) {
+            if (score.getScoringVersion() != target.getVersion()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class RescoreTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Score[] scores;
+        private final int from;
+        private final int to;
+        private final ScoringFunction target;
+
+        RescoreTask(Score[] scores, int from, int to, ScoringFunction target) {
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+            this.target = target;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= THRESHOLD) {
+                int version = target.getVersion();
+                int rescored = 0;
+                for (int i = from; i < to; i++) {
+                    Score score = scores[i];
+                    if (score.getScoringVersion() != version) {
+                        score.setScore(target.score(score.getExerciseType(), score.getLevel(),
+                                score.getCorrectAnswers(), score.getTotalQuestions(), score.getTimeSpentMs()));
+                        score.setScoringVersion(version);
+                        rescored++;
+                    }
+                }
+                return rescored;
+            }
+            int mid = (from + to) >>> 1;
+            RescoreTask left = new RescoreTask(scores, from, mid, target);
+            left.fork();
+            int right = new RescoreTask(scores, mid, to, target).compute();
+            return left.join() + right;
+        }
+    }
+}
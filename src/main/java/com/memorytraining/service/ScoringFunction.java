@@ -0,0 +1,13 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+
+/**
+ * A frozen version of the score formula. Once released a version must never change;
+ * formula changes get a new version so stored scores stay comparable after re-scoring.
+ */
+public interface ScoringFunction {
+    int getVersion();
+
+    double score(ExerciseType exerciseType, int level, int correctAnswers, int totalQuestions, long timeSpentMs);
+}
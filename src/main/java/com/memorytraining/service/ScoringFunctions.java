@@ -0,0 +1,61 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+
+/**
+ * Registry of released scoring versions
+ */
+public final class ScoringFunctions {
+    public static final int CURRENT_VERSION = 1;
+
+    /**
+     * Version 1: accuracy out of 100, 10 points per level and up to 20 points for finishing
+     * within twice the display time, capped at 200. Display times are the original per-item
+     * values, copied here so later display tuning does not change version 1 results.
+     */
+    public static final ScoringFunction V1 = new ScoringFunction() {
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public double score(ExerciseType exerciseType, int level, int correctAnswers, int totalQuestions, long timeSpentMs) {
+            if (totalQuestions <= 0) {
+                return 0;
+            }
+            double accuracy = (double) correctAnswers / totalQuestions;
+            double baseScore = accuracy * 100;
+            double levelBonus = level * 10;
+
+            int baseTimePerItem = switch (exerciseType) {
+                case WORD_MEMORY -> 1500;
+                case NUMBER_MEMORY -> 1000;
+                case COLOR_MEMORY -> 1200;
+                case SPATIAL_MEMORY -> 800;
+                case SEQUENCE_MEMORY -> 1000;
+            };
+            double difficultyMultiplier = Math.max(0.3, 1.0 - (level * 0.1));
+            double expectedTimeMs = (int) (baseTimePerItem * totalQuestions * difficultyMultiplier) * 2;
+            double timeBonus = Math.max(0, (expectedTimeMs - timeSpentMs) / expectedTimeMs * 20);
+
+            return Math.min(200, baseScore + levelBonus + timeBonus);
+        }
+    };
+
+    private static final ScoringFunction[] VERSIONS = { null, V1 };
+
+    private ScoringFunctions() {
+    }
+
+    public static ScoringFunction current() {
+        return VERSIONS[CURRENT_VERSION];
+    }
+
+    public static ScoringFunction forVersion(int version) {
+        if (version < 1 || version >= VERSIONS.length) {
+            throw new IllegalArgumentException("Unknown scoring version " + version);
+        }
+        return VERSIONS[version];
+    }
+}
@@ -0,0 +1,179 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded exercise session as read back from disk.
+ * Events are kept in parallel primitive arrays; values (words, colors, "x,y" positions)
+ * are stored once in a table and referenced by id.
+ *
+ * File layout, big-endian:
+ * magic, version, type, level, start time, value table, expected value ids,
+ * completed flag and score fields, dropped event count, events (type, index, nanos, value id)
+ */
+public final class SessionLog {
+    static final int MAGIC = 0x4C415353; // "LASS"
+    static final short VERSION = 1;
+
+    public static final byte SESSION_START = 0;
+    public static final byte DISPLAY = 1;
+    public static final byte INPUT_PHASE = 2;
+    public static final byte INPUT = 3;
+    public static final byte COMPLETE = 4;
+    public static final byte ABANDON = 5;
+
+    /** Value id for events that carry no value */
+    public static final int NO_VALUE = -1;
+
+    private final ExerciseType exerciseType;
+    private final int level;
+    private final long startedAtMs;
+    private final List<String> values;
+    private final int[] expected;
+    private final boolean completed;
+    private final double score;
+    private final int correctAnswers;
+    private final int totalQuestions;
+    private final long timeSpentMs;
+    private final int droppedEvents;
+    private final byte[] eventTypes;
+    private final int[] eventIndexes;
+    private final long[] eventNanos;
+    private final int[] eventValues;
+
+    SessionLog(ExerciseType exerciseType, int level, long startedAtMs, List<String> values, int[] expected,
+               boolean completed, double score, int correctAnswers, int totalQuestions, long timeSpentMs,
+               int droppedEvents, byte[] eventTypes, int[] eventIndexes, long[] eventNanos, int[] eventValues) {
+        this.exerciseType = exerciseType;
+        this.level = level;
+        this.startedAtMs = startedAtMs;
+        this.values = values;
+        this.expected = expected;
+        this.completed = completed;
+        this.score = score;
+        this.correctAnswers = correctAnswers;
+        this.totalQuestions = totalQuestions;
+        this.timeSpentMs = timeSpentMs;
+        this.droppedEvents = droppedEvents;
+        this.eventTypes = eventTypes;
+        this.eventIndexes = eventIndexes;
+        this.eventNanos = eventNanos;
+        this.eventValues = eventValues;
+    }
+
+    public static SessionLog read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a session log");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported session log version " + version);
+            }
+            ExerciseType type = ExerciseType.valueOf(in.readUTF());
+            int level = in.readInt();
+            long startedAtMs = in.readLong();
+
+            int valueCount = in.readInt();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int i = 0; i < valueCount; i++) {
+                values.add(in.readUTF());
+            }
+            int[] expected = new int[in.readInt()];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = in.readInt();
+            }
+
+            boolean completed = in.readBoolean();
+            double score = in.readDouble();
+            int correct = in.readInt();
+            int total = in.readInt();
+            long timeSpentMs = in.readLong();
+
+            int dropped = in.readInt();
+            int count = in.readInt();
+            byte[] types = new byte[count];
+            int[] indexes = new int[count];
+            long[] nanos = new long[count];
+            int[] valueIds = new int[count];
+            for (int i = 0; i < count; i++) {
+                types[i] = in.readByte();
+                indexes[i] = in.readInt();
+                nanos[i] = in.readLong();
+                valueIds[i] = in.readInt();
+            }
+            return new SessionLog(type, level, startedAtMs, Collections.unmodifiableList(values), expected,
+                    completed, score, correct, total, timeSpentMs, dropped, types, indexes, nanos, valueIds);
+        }
+    }
+
+    public ExerciseType getExerciseType() { return exerciseType; }
+    public int getLevel() { return level; }
+    public long getStartedAtMs() { return startedAtMs; }
+    public boolean isCompleted() { return completed; }
+    public double getScore() { return score; }
+    public int getCorrectAnswers() { return correctAnswers; }
+    public int getTotalQuestions() { return totalQuestions; }
+    public long getTimeSpentMs() { return timeSpentMs; }
+    public int getDroppedEvents() { return droppedEvents; }
+    public int getEventCount() { return eventTypes.length; }
+
+    public byte getEventType(int event) { return eventTypes[event]; }
+    public int getEventIndex(int event) { return eventIndexes[event]; }
+    /** Nanoseconds since the session started */
+    public long getEventNanos(int event) { return eventNanos[event]; }
+    public int getEventValueId(int event) { return eventValues[event]; }
+
+    public String getValue(int valueId) {
+        return valueId == NO_VALUE ? null : values.get(valueId);
+    }
+
+    /**
+     * The answers the user was meant to give, in order
+     */
+    public List<String> getExpectedAnswers() {
+        List<String> answers = new ArrayList<>(expected.length);
+        for (int id : expected) {
+            answers.add(values.get(id));
+        }
+        return answers;
+    }
+
+    /**
+     * The answers the user gave, reconstructed from input events in input order
+     */
+    public List<String> getActualAnswers() {
+        List<String> answers = new ArrayList<>();
+        for (int i = 0; i < eventTypes.length; i++) {
+            if (eventTypes[i] == INPUT) {
+                int index = eventIndexes[i];
+                while (answers.size() <= index) {
+                    answers.add("");
+                }
+                answers.set(index, values.get(eventValues[i]));
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Nanoseconds of the first event of the given type, or -1
+     */
+    public long firstEventNanos(byte type) {
+        for (int i = 0; i < eventTypes.length; i++) {
+            if (eventTypes[i] == type) {
+                return eventNanos[i];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,200 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records the display and input events of one exercise round into a fixed-size
+ * binary ring buffer and writes them to a session file when the round ends.
+ * Recording an event writes 17 bytes into a preallocated buffer; when the buffer is
+ * full the oldest events are overwritten and counted as dropped.
+ * Call only from the FX thread; files are written on a background thread.
+ */
+public class SessionRecorder {
+    private static final int RECORD_BYTES = 1 + 4 + 8 + 4;
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path directory;
+    private final ExerciseType exerciseType;
+    private final int level;
+    private final LocalDateTime startedAt;
+    private final long startNanos;
+    private final ByteBuffer ring;
+    private final int capacity;
+    private int next;
+    private int count;
+    private int dropped;
+
+    private final Map<String, Integer> valueIds = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int[] expected = new int[0];
+    private boolean finished;
+
+    public SessionRecorder(Path directory, ExerciseType exerciseType, int level) {
+        this(directory, exerciseType, level, DEFAULT_CAPACITY);
+    }
+
+    public SessionRecorder(Path directory, ExerciseType exerciseType, int level, int capacity) {
+        this.directory = directory;
+        this.exerciseType = exerciseType;
+        this.level = level;
+        this.capacity = capacity;
+        this.ring = ByteBuffer.allocate(capacity * RECORD_BYTES);
+        this.startedAt = LocalDateTime.now();
+        this.startNanos = System.nanoTime();
+        record(SessionLog.SESSION_START, 0, SessionLog.NO_VALUE);
+    }
+
+    /**
+     * The answers expected for this round, in order, as the matcher compares them
+     */
+    public void setExpected(List<String> answers) {
+        expected = new int[answers.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = valueId(answers.get(i));
+        }
+    }
+
+    public void display(int index, String value) {
+        record(SessionLog.DISPLAY, index, valueId(value));
+    }
+
+    public void inputPhase() {
+        record(SessionLog.INPUT_PHASE, 0, SessionLog.NO_VALUE);
+    }
+
+    public void input(int index, String value) {
+        record(SessionLog.INPUT, index, valueId(value));
+    }
+
+    /**
+     * Record the final score and write the session
+     */
+    public void complete(Score score) {
+        if (finished) {
+            return;
+        }
+        record(SessionLog.COMPLETE, score.getCorrectAnswers(), SessionLog.NO_VALUE);
+        flush(score);
+    }
+
+    /**
+     * Write the session of a round that was closed before completion
+     */
+    public void abandon() {
+        if (finished) {
+            return;
+        }
+        record(SessionLog.ABANDON, 0, SessionLog.NO_VALUE);
+        flush(null);
+    }
+
+    private void record(byte type, int index, int valueId) {
+        if (finished) {
+            return;
+        }
+        int offset = next * RECORD_BYTES;
+        ring.put(offset, type);
+        ring.putInt(offset + 1, index);
+        ring.putLong(offset + 5, System.nanoTime() - startNanos);
+        ring.putInt(offset + 13, valueId);
+        next = (next + 1) % capacity;
+        if (count < capacity) {
+            count++;
+        } else {
+            dropped++;
+        }
+    }
+
+    private int valueId(String value) {
+        Integer id = valueIds.get(value);
+        if (id == null) {
+            id = values.size();
+            valueIds.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    private void flush(Score score) {
+        finished = true;
+        byte[] encoded;
+        try {
+            encoded = encode(score);
+        } catch (IOException e) {
+            System.err.println("Error encoding session: " + e.getMessage());
+            return;
+        }
+        Path target = directory.resolve(startedAt.format(FILE_TIME) + "-" + exerciseType.name() + ".session");
+        WRITER.execute(() -> {
+            try {
+                Files.createDirectories(directory);
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                Files.write(temp, encoded);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Error saving session: " + e.getMessage());
+            }
+        });
+    }
+
+    private byte[] encode(Score score) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + count * RECORD_BYTES);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bytes))) {
+            out.writeInt(SessionLog.MAGIC);
+            out.writeShort(SessionLog.VERSION);
+            out.writeUTF(exerciseType.name());
+            out.writeInt(level);
+            out.writeLong(startedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+            out.writeInt(values.size());
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+            out.writeInt(expected.length);
+            for (int id : expected) {
+                out.writeInt(id);
+            }
+
+            out.writeBoolean(score != null);
+            out.writeDouble(score == null ? 0 : score.getScore());
+            out.writeInt(score == null ? 0 : score.getCorrectAnswers());
+            out.writeInt(score == null ? 0 : score.getTotalQuestions());
+            out.writeLong(score == null ? 0 : score.getTimeSpentMs());
+
+            // Oldest surviving event first
+            out.writeInt(dropped);
+            out.writeInt(count);
+            int first = count < capacity ? 0 : next;
+            for (int i = 0; i < count; i++) {
+                int offset = ((first + i) % capacity) * RECORD_BYTES;
+                out.write(ring.array(), offset, RECORD_BYTES);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,135 @@
+package com.memorytraining.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Re-scores recorded sessions without a UI. The expected and typed answers are rebuilt
+ * from the session events and run through the current matching and scoring code, so
+ * scoring changes can be checked against real rounds. Sessions whose recorder overflowed
+ * lost some of their events, so they are replayed but flagged as incomplete and never
+ * reported as scored differently.
+ *
+ * Usage: SessionReplayer [sessions directory]
+ */
+public class SessionReplayer {
+    private static final String DEFAULT_SESSIONS_DIR = System.getProperty("user.home") + "/.lost-art-memory/sessions";
+
+    private final ExerciseService exerciseService;
+
+    public SessionReplayer(ExerciseService exerciseService) {
+        this.exerciseService = exerciseService;
+    }
+
+    /**
+     * Re-score one session with the recorded time spent
+     */
+    public Result replay(SessionLog session) {
+        List<String> expected = session.getExpectedAnswers();
+        List<String> actual = session.getActualAnswers();
+        int correct = exerciseService.countCorrectAnswers(session.getExerciseType(), expected, actual);
+        double score = expected.isEmpty() ? 0 : exerciseService.calculateScore(
+            correct, expected.size(), session.getTimeSpentMs(), session.getLevel(), session.getExerciseType()
+        );
+
+        long firstDisplay = session.firstEventNanos(SessionLog.DISPLAY);
+        long complete = session.firstEventNanos(SessionLog.COMPLETE);
+        long eventTimeMs = firstDisplay >= 0 && complete >= 0 ? (complete - firstDisplay) / 1_000_000 : -1;
+        return new Result(session, correct, score, eventTimeMs);
+    }
+
+    /**
+     * Replay every completed session file under a directory
+     */
+    public List<Result> replayAll(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(path -> path.toString().endsWith(".session")).sorted().collect(Collectors.toList());
+        }
+        List<Result> results = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                SessionLog session = SessionLog.read(file);
+                if (session.isCompleted()) {
+                    results.add(replay(session));
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping " + file + ": " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : DEFAULT_SESSIONS_DIR);
+        if (!Files.isDirectory(directory)) {
+            System.err.println("No sessions directory at " + directory);
+            System.exit(1);
+        }
+
+        List<Result> results = new SessionReplayer(new ExerciseService()).replayAll(directory);
+        int changed = 0;
+        int incomplete = 0;
+        for (Result result : results) {
+            if (result.isIncomplete()) {
+                incomplete++;
+            } else if (result.isChanged()) {
+                changed++;
+            }
+            System.out.println(result);
+        }
+        System.out.printf("%d sessions replayed, %d scored differently, %d incomplete%n",
+                results.size(), changed, incomplete);
+    }
+
+    /**
+     * Outcome of replaying one session
+     */
+    public static class Result {
+        private final SessionLog session;
+        private final int correctAnswers;
+        private final double score;
+        private final long eventTimeMs;
+
+        Result(SessionLog session, int correctAnswers, double score, long eventTimeMs) {
+            this.session = session;
+            this.correctAnswers = correctAnswers;
+            this.score = score;
+            this.eventTimeMs = eventTimeMs;
+        }
+
+        public SessionLog getSession() { return session; }
+        public int getCorrectAnswers() { return correctAnswers; }
+        public double getScore() { return score; }
+        /** Time from the first displayed item to completion according to the events, or -1 */
+        public long getEventTimeMs() { return eventTimeMs; }
+
+        /** True if the recorder dropped events, so the replayed answers may be missing some input */
+        public boolean isIncomplete() {
+            return session.getDroppedEvents() > 0;
+        }
+
+        /** True if a complete session scores differently now; incomplete sessions never count */
+        public boolean isChanged() {
+            return !isIncomplete()
+                    && (correctAnswers != session.getCorrectAnswers() || Math.abs(score - session.getScore()) > 1e-9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s level %d at %d: recorded %d/%d %.1f, replayed %d/%d %.1f, time %dms (events %dms)%s",
+                    session.getExerciseType(), session.getLevel(), session.getStartedAtMs(),
+                    session.getCorrectAnswers(), session.getTotalQuestions(), session.getScore(),
+                    correctAnswers, session.getTotalQuestions(), score,
+                    session.getTimeSpentMs(), eventTimeMs,
+                    isIncomplete() ? " INCOMPLETE (" + session.getDroppedEvents() + " events dropped)"
+                            : isChanged() ? " CHANGED" : "");
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.Score;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Optional replication of score journals between training stations.
+ * Every score recorded here is appended to a journal under this station's id
+ * and a per-station sequence number. Peers exchange vector clocks (the highest
+ * sequence seen from each origin) and then ship only the entries the other side
+ * is missing, in gzip-compressed batches over a small HTTP endpoint. Scores are
+ * deduplicated by content hash on merge, so replaying a batch is harmless.
+ *
+ * Stations share a secret. Every request and response carries an HMAC-SHA256 of its
+ * path and body under that secret, and anything without a valid signature is refused,
+ * so only stations configured with the same secret can read or add scores.
+ */
+public class SyncService {
+    private static final String STATION_ID_FILE = "station.id";
+    private static final String JOURNAL_FILE = "sync-journal.jsonl";
+    private static final int BATCH_SIZE = 500;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final String SIGNATURE_HEADER = "X-Sync-Signature";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Path journalPath;
+    private final String stationId;
+    private final Map<String, List<JournalEntry>> entriesByOrigin = new HashMap<>();
+    private final Set<String> knownHashes = new HashSet<>();
+    private final HttpClient httpClient;
+    private final SecretKeySpec secret;
+    private Consumer<List<JournalEntry>> remoteScoreHandler;
+    private HttpServer server;
+
+    /**
+     * @param secret shared by every station that may sync with this one
+     */
+    public SyncService(Path dataDirectory, String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("A shared sync secret is required");
+        }
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.journalPath = dataDirectory.resolve(JOURNAL_FILE);
+        this.stationId = loadStationId(dataDirectory.resolve(STATION_ID_FILE));
+        this.httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        loadJournal();
+    }
+
+    /**
+     * Handler for scores that arrive from other stations, called once per merged batch
+     * with the entries that were new
+     */
+    public void setRemoteScoreHandler(Consumer<List<JournalEntry>> remoteScoreHandler) {
+        this.remoteScoreHandler = remoteScoreHandler;
+    }
+
+    public String getStationId() {
+        return stationId;
+    }
+
+    /**
+     * Journal a score recorded on this station. Returns false if it was already known.
+     */
+    public synchronized boolean recordLocal(String username, Score score) {
+        String hash = contentHash(username, score);
+        if (knownHashes.contains(hash)) {
+            return false;
+        }
+        long seq = clockValue(stationId) + 1;
+        JournalEntry entry = new JournalEntry(stationId, seq, username, hash, score);
+        addEntry(entry);
+        appendToJournal(List.of(entry));
+        return true;
+    }
+
+    /**
+     * Highest sequence number seen from each origin station
+     */
+    public synchronized Map<String, Long> getVectorClock() {
+        Map<String, Long> clock = new HashMap<>();
+        for (String origin : entriesByOrigin.keySet()) {
+            clock.put(origin, clockValue(origin));
+        }
+        return clock;
+    }
+
+    /**
+     * Entries the holder of the given clock has not seen yet, at most limit of them
+     */
+    public synchronized List<JournalEntry> deltaSince(Map<String, Long> clock, int limit) {
+        List<JournalEntry> delta = new ArrayList<>();
+        for (Map.Entry<String, List<JournalEntry>> origin : entriesByOrigin.entrySet()) {
+            List<JournalEntry> entries = origin.getValue();
+            // Sequences are contiguous from 1, so the first missing entry is at index seen
+            long seen = clock.getOrDefault(origin.getKey(), 0L);
+            for (int i = (int) Math.min(seen, entries.size()); i < entries.size() && delta.size() < limit; i++) {
+                delta.add(entries.get(i));
+            }
+            if (delta.size() >= limit) {
+                break;
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Merge entries from a peer. Returns the number of entries that were new.
+     */
+    public int merge(List<JournalEntry> entries) {
+        List<JournalEntry> added = new ArrayList<>();
+        List<JournalEntry> accepted = new ArrayList<>();
+        synchronized (this) {
+            for (JournalEntry entry : entries) {
+                // Accept each origin's entries strictly in order; anything else is re-sent later
+                if (entry.seq != clockValue(entry.origin) + 1) {
+                    continue;
+                }
+                // Duplicates are still journaled to keep the origin's sequence contiguous
+                boolean duplicate = knownHashes.contains(entry.hash);
+                addEntry(entry);
+                added.add(entry);
+                if (!duplicate) {
+                    accepted.add(entry);
+                }
+            }
+            appendToJournal(added);
+        }
+        Consumer<List<JournalEntry>> handler = remoteScoreHandler;
+        if (handler != null && !accepted.isEmpty()) {
+            handler.accept(accepted);
+        }
+        return accepted.size();
+    }
+
+    /**
+     * Exchange deltas with a peer station: push what it lacks, then pull what we lack
+     */
+    public int syncWith(URI peer) throws IOException, InterruptedException {
+        JSONObject peerClockJson = new JSONObject(send(peer.resolve("/sync/clock"), null));
+        Map<String, Long> peerClock = jsonToClock(peerClockJson.getJSONObject("clock"));
+
+        // Push in batches, advancing our copy of the peer's clock as we go
+        while (true) {
+            List<JournalEntry> delta = deltaSince(peerClock, BATCH_SIZE);
+            if (delta.isEmpty()) {
+                break;
+            }
+            send(peer.resolve("/sync/push"), entriesToJson(delta).toString());
+            for (JournalEntry entry : delta) {
+                peerClock.merge(entry.origin, entry.seq, Math::max);
+            }
+        }
+
+        // Pull until the peer has nothing more for us
+        int received = 0;
+        while (true) {
+            JSONObject request = new JSONObject();
+            request.put("clock", clockToJson(getVectorClock()));
+            JSONObject response = new JSONObject(send(peer.resolve("/sync/pull"), request.toString()));
+            List<JournalEntry> entries = jsonToEntries(response.getJSONArray("entries"));
+            received += merge(entries);
+            if (!response.optBoolean("more", false) || entries.isEmpty()) {
+                break;
+            }
+        }
+        return received;
+    }
+
+    /**
+     * Serve this station's journal to peers on the given address
+     */
+    public synchronized void startServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/sync/clock", exchange -> handle(exchange, body -> {
+            JSONObject response = new JSONObject();
+            response.put("stationId", stationId);
+            response.put("clock", clockToJson(getVectorClock()));
+            return response.toString();
+        }));
+        server.createContext("/sync/pull", exchange -> handle(exchange, body -> {
+            Map<String, Long> clock = jsonToClock(new JSONObject(body).getJSONObject("clock"));
+            List<JournalEntry> delta = deltaSince(clock, BATCH_SIZE + 1);
+            boolean more = delta.size() > BATCH_SIZE;
+            JSONObject response = new JSONObject();
+            response.put("entries", entriesToJson(more ? delta.subList(0, BATCH_SIZE) : delta));
+            response.put("more", more);
+            return response.toString();
+        }));
+        server.createContext("/sync/push", exchange -> handle(exchange, body -> {
+            int accepted = merge(jsonToEntries(new JSONArray(body)));
+            JSONObject response = new JSONObject();
+            response.put("accepted", accepted);
+            return response.toString();
+        }));
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sync-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private interface RequestHandler {
+        String handle(String body) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, RequestHandler handler) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            byte[] response;
+            try {
+                String body = exchange.getRequestMethod().equals("POST")
+                        ? new String(gunzip(exchange.getRequestBody()), StandardCharsets.UTF_8)
+                        : "";
+                if (!verify(exchange.getRequestHeaders().getFirst(SIGNATURE_HEADER), "request " + path, body)) {
+                    System.err.println("Refused unsigned sync request from " + exchange.getRemoteAddress());
+                    exchange.sendResponseHeaders(401, -1);
+                    return;
+                }
+                String text = handler.handle(body);
+                exchange.getResponseHeaders().set(SIGNATURE_HEADER, sign("response " + path, text));
+                response = gzip(text);
+            } catch (RuntimeException e) {
+                System.err.println("Error handling sync request: " + e.getMessage());
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    private String send(URI uri, String body) throws IOException, InterruptedException {
+        String path = uri.getPath();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Encoding", "gzip")
+                .header(SIGNATURE_HEADER, sign("request " + path, body == null ? "" : body));
+        if (body == null) {
+            builder.GET();
+        } else {
+            builder.POST(HttpRequest.BodyPublishers.ofByteArray(gzip(body)));
+        }
+        HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Sync request to " + uri + " failed with status " + response.statusCode());
+        }
+        String text = new String(gunzip(response.body()), StandardCharsets.UTF_8);
+        if (!verify(response.headers().firstValue(SIGNATURE_HEADER).orElse(null), "response " + path, text)) {
+            throw new IOException("Sync response from " + uri + " is not signed with the shared secret");
+        }
+        return text;
+    }
+
+    /**
+     * Hex HMAC of a message's purpose and path together with its body
+     */
+    private String sign(String context, String body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            mac.update(context.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) '\n');
+            return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " not available", e);
+        }
+    }
+
+    private boolean verify(String signature, String context, String body) {
+        return signature != null && MessageDigest.isEqual(
+                sign(context, body).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void addEntry(JournalEntry entry) {
+        entriesByOrigin.computeIfAbsent(entry.origin, origin -> new ArrayList<>()).add(entry);
+        knownHashes.add(entry.hash);
+    }
+
+    private long clockValue(String origin) {
+        List<JournalEntry> entries = entriesByOrigin.get(origin);
+        return entries == null || entries.isEmpty() ? 0 : entries.get(entries.size() - 1).seq;
+    }
+
+    private void appendToJournal(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (JournalEntry entry : entries) {
+                writer.write(entry.toJson().toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing sync journal: " + e.getMessage());
+        }
+    }
+
+    private void loadJournal() {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (var lines = Files.lines(journalPath, StandardCharsets.UTF_8)) {
+            lines.filter(line -> !line.isBlank()).forEach(line -> {
+                JournalEntry entry = JournalEntry.fromJson(new JSONObject(line));
+                if (entry.seq == clockValue(entry.origin) + 1) {
+                    addEntry(entry);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading sync journal: " + e.getMessage());
+        }
+    }
+
+    private static String loadStationId(Path path) {
+        try {
+            if (Files.exists(path)) {
+                return Files.readString(path).trim();
+            }
+            String id = UUID.randomUUID().toString();
+            Files.writeString(path, id);
+            return id;
+        } catch (IOException e) {
+            System.err.println("Error reading station id: " + e.getMessage());
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    /**
+     * Stable hash of a score's content, independent of which station journaled it
+     */
+    static String contentHash(String username, Score score) {
+        String canonical = username + '|' + score.getExerciseType().name() + '|' + score.getScore()
+                + '|' + score.getLevel() + '|' + score.getTimeSpentMs() + '|' + score.getCorrectAnswers()
+                + '|' + score.getTotalQuestions() + '|' + score.getCompletedAt()
+                + (score.isDrill() ? "|drill" : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static JSONObject clockToJson(Map<String, Long> clock) {
+        JSONObject json = new JSONObject();
+        clock.forEach(json::put);
+        return json;
+    }
+
+    private static Map<String, Long> jsonToClock(JSONObject json) {
+        Map<String, Long> clock = new HashMap<>();
+        for (String origin : json.keySet()) {
+            clock.put(origin, json.getLong(origin));
+        }
+        return clock;
+    }
+
+    private static JSONArray entriesToJson(List<JournalEntry> entries) {
+        JSONArray json = new JSONArray();
+        for (JournalEntry entry : entries) {
+            json.put(entry.toJson());
+        }
+        return json;
+    }
+
+    private static List<JournalEntry> jsonToEntries(JSONArray json) {
+        List<JournalEntry> entries = new ArrayList<>(json.length());
+        for (int i = 0; i < json.length(); i++) {
+            entries.add(JournalEntry.fromJson(json.getJSONObject(i)));
+        }
+        return entries;
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(InputStream in) throws IOException {
+        try (GZIPInputStream gzipIn = new GZIPInputStream(in)) {
+            return gzipIn.readAllBytes();
+        }
+    }
+
+    /**
+     * One replicated score: where it was first recorded, its position there, and its content
+     */
+    public static class JournalEntry {
+        private final String origin;
+        private final long seq;
+        private final String username;
+        private final String hash;
+        private final Score score;
+
+        JournalEntry(String origin, long seq, String username, String hash, Score score) {
+            this.origin = origin;
+            this.seq = seq;
+            this.username = username;
+            this.hash = hash;
+            this.score = score;
+        }
+
+        public String getOrigin() { return origin; }
+        public long getSeq() { return seq; }
+        public String getUsername() { return username; }
+        public String getHash() { return hash; }
+        public Score getScore() { return score; }
+
+        JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("origin", origin);
+            json.put("seq", seq);
+            json.put("username", username);
+            json.put("hash", hash);
+            json.put("score", DataService.scoreToJson(score));
+            return json;
+        }
+
+        /**
+         * The hash is always recomputed from the content; a peer's claimed hash is ignored
+         */
+        static JournalEntry fromJson(JSONObject json) {
+            Score score = DataService.jsonToScore(json.getJSONObject("score"));
+            String username = json.getString("username");
+            return new JournalEntry(json.getString("origin"), json.getLong("seq"), username,
+                    contentHash(username, score), score);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.memorytraining.util;
+
+import java.util.Random;
+
+/**
+ * Walker/Vose alias table for sampling an index in proportion to its weight.
+ * Building is O(n); each sample costs one random int, one random double and one lookup.
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights non-negative weights with a positive sum
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight)) {
+                throw new IllegalArgumentException("Weights must be non-negative");
+            }
+            total += weight;
+        }
+        if (n == 0 || total <= 0) {
+            throw new IllegalArgumentException("Weights must have a positive sum");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1 up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    public int sample(Random random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+}
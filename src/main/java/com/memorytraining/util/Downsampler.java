@@ -0,0 +1,230 @@
+package com.memorytraining.util;
+
+import java.util.Arrays;
+
+/**
+ * Utility class for reducing long data series to a drawable number of points
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Select representative points with the largest-triangle-three-buckets algorithm.
+     * The x coordinate of each point is its index in the values array. Selected
+     * indices are written to {@code out} in ascending order and the number of
+     * selected points is returned; no memory is allocated.
+     *
+     * @param values    the full series
+     * @param from      first index of the range to sample (inclusive)
+     * @param to        last index of the range to sample (exclusive)
+     * @param threshold maximum number of points to keep, usually the pixel width
+     * @param out       destination for the selected indices, at least max(threshold, 2) long
+     */
+    public static int largestTriangleThreeBuckets(double[] values, int from, int to, int threshold, int[] out) {
+        int length = to - from;
+        if (length <= 0) {
+            return 0;
+        }
+        if (threshold >= length) {
+            for (int i = 0; i < length; i++) {
+                out[i] = from + i;
+            }
+            return length;
+        }
+        if (threshold < 3) {
+            out[0] = from;
+            out[1] = to - 1;
+            return 2;
+        }
+
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int selected = from;
+        int count = 0;
+        out[count++] = selected;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket serves as the third triangle vertex
+            int nextStart = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min(from + (int) Math.floor((bucket + 2) * bucketSize) + 1, to);
+            double avgX = 0;
+            double avgY = 0;
+            int nextLength = nextEnd - nextStart;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += values[i];
+            }
+            if (nextLength > 0) {
+                avgX /= nextLength;
+                avgY /= nextLength;
+            } else {
+                avgX = to - 1;
+                avgY = values[to - 1];
+            }
+
+            int rangeStart = from + (int) Math.floor(bucket * bucketSize) + 1;
+            int rangeEnd = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double pointX = selected;
+            double pointY = values[selected];
+            double maxArea = -1;
+            int maxIndex = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((pointX - avgX) * (values[i] - pointY)
+                        - (pointX - i) * (avgY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            out[count++] = maxIndex;
+            selected = maxIndex;
+        }
+
+        out[count++] = to - 1;
+        return count;
+    }
+
+    /**
+     * Largest-triangle-three-buckets over a series fed one value at a time, for series
+     * that are read in order and never held whole. The length must be known up front;
+     * only the bucket being decided and the one after it are kept. Selects the same
+     * points as {@link #largestTriangleThreeBuckets}, with indices counted from 0.
+     */
+    public static final class Streaming {
+        private final int length;
+        private final int threshold;
+        private final double bucketSize;
+        private final int[] indices;
+        private final double[] values;
+        private int count;
+
+        private double[] window;
+        private int windowStart = 1;
+        private int received;
+        private int bucket;
+        private int selected;
+        private double selectedValue;
+
+        /**
+         * @param length    number of values that will be added
+         * @param threshold maximum number of points to keep, usually the pixel width
+         */
+        public Streaming(int length, int threshold) {
+            this.length = Math.max(0, length);
+            this.threshold = threshold;
+            int capacity = Math.min(this.length, Math.max(threshold, 2));
+            this.indices = new int[capacity];
+            this.values = new double[capacity];
+            boolean bucketed = threshold >= 3 && threshold < this.length;
+            this.bucketSize = bucketed ? (double) (this.length - 2) / (threshold - 2) : 0;
+            this.window = new double[bucketed ? 2 * ((int) Math.ceil(bucketSize) + 2) : 0];
+        }
+
+        public void add(double value) {
+            int index = received++;
+            if (index >= length) {
+                throw new IllegalStateException("More than " + length + " values added");
+            }
+            if (threshold >= length) {
+                select(index, value);
+                return;
+            }
+            if (index == 0) {
+                selected = 0;
+                selectedValue = value;
+                select(0, value);
+                return;
+            }
+            if (threshold >= 3) {
+                int slot = index - windowStart;
+                if (slot >= window.length) {
+                    window = Arrays.copyOf(window, window.length * 2);
+                }
+                window[slot] = value;
+                while (bucket < threshold - 2 && canDecide(index)) {
+                    decideBucket();
+                }
+            }
+            if (index == length - 1) {
+                select(index, value);
+            }
+        }
+
+        /** Number of points selected so far; complete once every value has been added */
+        public int getCount() {
+            return count;
+        }
+
+        public int getIndex(int point) {
+            return indices[point];
+        }
+
+        public double getValue(int point) {
+            return values[point];
+        }
+
+        private int bucketStart(int b) {
+            return (int) Math.floor(b * bucketSize) + 1;
+        }
+
+        /**
+         * A bucket is decided once the whole next bucket, or for the last one the final value, has arrived
+         */
+        private boolean canDecide(int index) {
+            int nextStart = bucketStart(bucket + 1);
+            int nextEnd = Math.min(bucketStart(bucket + 2), length);
+            return nextEnd > nextStart ? index >= nextEnd - 1 : index == length - 1;
+        }
+
+        private void decideBucket() {
+            int nextStart = bucketStart(bucket + 1);
+            int nextEnd = Math.min(bucketStart(bucket + 2), length);
+            double avgX = 0;
+            double avgY = 0;
+            int nextLength = nextEnd - nextStart;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += window[i - windowStart];
+            }
+            if (nextLength > 0) {
+                avgX /= nextLength;
+                avgY /= nextLength;
+            } else {
+                avgX = length - 1;
+                avgY = window[length - 1 - windowStart];
+            }
+
+            int rangeStart = bucketStart(bucket);
+            int rangeEnd = nextStart;
+            double pointX = selected;
+            double pointY = selectedValue;
+            double maxArea = -1;
+            int maxIndex = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((pointX - avgX) * (window[i - windowStart] - pointY)
+                        - (pointX - i) * (avgY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected = maxIndex;
+            selectedValue = window[maxIndex - windowStart];
+            select(selected, selectedValue);
+            bucket++;
+
+            // Values before the next bucket are no longer needed
+            int drop = rangeEnd - windowStart;
+            System.arraycopy(window, drop, window, 0, received - windowStart - drop);
+            windowStart = rangeEnd;
+        }
+
+        private void select(int index, double value) {
+            indices[count] = index;
+            values[count] = value;
+            count++;
+        }
+    }
+}
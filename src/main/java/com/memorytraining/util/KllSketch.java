@@ -0,0 +1,286 @@
+package com.memorytraining.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch over float values.
+ * Keeps a few hundred retained items regardless of how many values are added,
+ * answers rank and quantile queries with a bounded error (about 1.7% at the
+ * default k), and two sketches can be merged into one that summarizes both
+ * streams. Not thread-safe.
+ */
+public class KllSketch {
+    public static final int DEFAULT_K = 200;
+    private static final int MIN_CAPACITY = 8;
+    private static final int FORMAT_VERSION = 1;
+
+    private final int k;
+    private long count;
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+    private float[][] levels = new float[1][];
+    private int[] sizes = new int[1];
+    private int numLevels = 1;
+    private long coinState = 0x9E3779B97F4A7C15L;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        this.levels[0] = new float[MIN_CAPACITY];
+    }
+
+    public void update(float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        append(0, value);
+        count++;
+        compressIfNeeded();
+    }
+
+    /**
+     * Fold another sketch into this one
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int h = 0; h < other.numLevels; h++) {
+            ensureLevel(h);
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        compressIfNeeded();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    /**
+     * Estimated fraction of values less than or equal to the given value, in [0, 1]
+     */
+    public double rank(float value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long weight = 0;
+        for (int h = 0; h < numLevels; h++) {
+            float[] items = levels[h];
+            for (int i = 0; i < sizes[h]; i++) {
+                if (items[i] <= value) {
+                    weight += 1L << h;
+                }
+            }
+        }
+        return (double) weight / count;
+    }
+
+    /**
+     * Estimated value at the given fraction, q in [0, 1]
+     */
+    public float quantile(double q) {
+        if (count == 0) {
+            return Float.NaN;
+        }
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+
+        int retained = retainedItems();
+        long[] packed = new long[retained];
+        int index = 0;
+        for (int h = 0; h < numLevels; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                // Sortable float bits in the high word, level in the low bits
+                packed[index++] = ((long) sortableBits(levels[h][i]) << 8) | h;
+            }
+        }
+        Arrays.sort(packed);
+
+        long target = (long) Math.ceil(q * count);
+        long cumulative = 0;
+        for (long entry : packed) {
+            cumulative += 1L << (entry & 0xFF);
+            if (cumulative >= target) {
+                return fromSortableBits((int) (entry >> 8));
+            }
+        }
+        return max;
+    }
+
+    public int retainedItems() {
+        int total = 0;
+        for (int h = 0; h < numLevels; h++) {
+            total += sizes[h];
+        }
+        return total;
+    }
+
+    /**
+     * Serialize to a compact binary form: header, then each level's items
+     */
+    public byte[] toByteArray() {
+        int retained = retainedItems();
+        ByteBuffer buffer = ByteBuffer.allocate(5 * 4 + 8 + 4 * numLevels + 4 * retained);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(k);
+        buffer.putLong(count);
+        buffer.putFloat(min);
+        buffer.putFloat(max);
+        buffer.putInt(numLevels);
+        for (int h = 0; h < numLevels; h++) {
+            buffer.putInt(sizes[h]);
+        }
+        for (int h = 0; h < numLevels; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putFloat(levels[h][i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static KllSketch fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch format: " + version);
+        }
+        KllSketch sketch = new KllSketch(buffer.getInt());
+        sketch.count = buffer.getLong();
+        sketch.min = buffer.getFloat();
+        sketch.max = buffer.getFloat();
+        int levelCount = buffer.getInt();
+        int[] levelSizes = new int[levelCount];
+        for (int h = 0; h < levelCount; h++) {
+            levelSizes[h] = buffer.getInt();
+        }
+        for (int h = 0; h < levelCount; h++) {
+            sketch.ensureLevel(h);
+            for (int i = 0; i < levelSizes[h]; i++) {
+                sketch.append(h, buffer.getFloat());
+            }
+        }
+        return sketch;
+    }
+
+    public KllSketch copy() {
+        KllSketch copy = new KllSketch(k);
+        copy.merge(this);
+        return copy;
+    }
+
+    private void append(int level, float value) {
+        float[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private void ensureLevel(int level) {
+        if (level < numLevels) {
+            return;
+        }
+        if (level >= levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+        }
+        for (int h = numLevels; h <= level; h++) {
+            levels[h] = new float[MIN_CAPACITY];
+            sizes[h] = 0;
+        }
+        numLevels = level + 1;
+    }
+
+    private int capacity(int level) {
+        int depth = numLevels - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+
+    private void compressIfNeeded() {
+        while (true) {
+            int totalCapacity = 0;
+            for (int h = 0; h < numLevels; h++) {
+                totalCapacity += capacity(h);
+            }
+            if (retainedItems() < totalCapacity) {
+                return;
+            }
+            // Compact the lowest level that is over its own capacity
+            for (int h = 0; h < numLevels; h++) {
+                if (sizes[h] >= capacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        ensureLevel(level + 1);
+        float[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+
+        // An odd item out stays behind so total weight is preserved exactly
+        int pairs = size / 2;
+        float leftover = items[size - 1];
+        boolean hasLeftover = (size & 1) == 1;
+        int offset = nextCoin();
+        for (int i = 0; i < pairs; i++) {
+            append(level + 1, items[2 * i + offset]);
+        }
+        sizes[level] = 0;
+        if (hasLeftover) {
+            items[0] = leftover;
+            sizes[level] = 1;
+        }
+    }
+
+    private int nextCoin() {
+        coinState ^= coinState << 13;
+        coinState ^= coinState >>> 7;
+        coinState ^= coinState << 17;
+        return (int) (coinState & 1);
+    }
+
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    private static float fromSortableBits(int bits) {
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+    }
+}
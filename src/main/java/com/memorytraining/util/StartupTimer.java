@@ -0,0 +1,51 @@
+package com.memorytraining.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records how long each startup phase took to complete, measured from a common origin.
+ * Phases may be marked from any thread.
+ */
+public class StartupTimer {
+    private final long originNanos;
+    private final List<String> phases = new ArrayList<>();
+    private final List<Long> offsetsNanos = new ArrayList<>();
+
+    public StartupTimer() {
+        this.originNanos = System.nanoTime();
+    }
+
+    /**
+     * Mark the end of a phase
+     */
+    public synchronized void mark(String phase) {
+        phases.add(phase);
+        offsetsNanos.add(System.nanoTime() - originNanos);
+    }
+
+    /**
+     * Milliseconds from the origin to the end of each phase, in the order they were marked
+     */
+    public synchronized Map<String, Long> getPhaseOffsetsMs() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < phases.size(); i++) {
+            result.put(phases.get(i), offsetsNanos.get(i) / 1_000_000);
+        }
+        return result;
+    }
+
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder("Startup timings:");
+        long previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            long offset = offsetsNanos.get(i);
+            sb.append(String.format("%n  %-20s +%5d ms  (%d ms since previous)",
+                    phases.get(i), offset / 1_000_000, (offset - previous) / 1_000_000));
+            previous = offset;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.memorytraining.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel keyed by K. Each key has at most one deadline; scheduling, rescheduling
+ * and cancelling are O(1), and advancing one tick only walks that tick's bucket. Deadlines
+ * further out than one rotation share buckets with nearer ones and are skipped until due.
+ * Thread-safe; expired keys are handed to the callback outside the lock.
+ */
+public class TimerWheel<K> {
+    private static final class Node<K> {
+        final K key;
+        long deadlineMs;
+        long deadlineTick;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    private final long tickMs;
+    private final Node<K>[] buckets;
+    private final int mask;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    /** Last tick that has been processed */
+    private long currentTick;
+
+    /**
+     * @param tickMs resolution of deadlines
+     * @param wheelSize number of buckets, rounded up to a power of two
+     * @param nowMs the wheel starts at this time
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMs, int wheelSize, long nowMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMs = tickMs;
+        this.buckets = (Node<K>[]) new Node<?>[size];
+        this.mask = size - 1;
+        this.currentTick = nowMs / tickMs;
+    }
+
+    /**
+     * Set the deadline of a key, replacing any earlier one. Deadlines in the past fire on the next tick.
+     */
+    public synchronized void schedule(K key, long deadlineMs) {
+        Node<K> node = nodes.get(key);
+        if (node != null) {
+            unlink(node);
+        } else {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        }
+        node.deadlineMs = deadlineMs;
+        node.deadlineTick = Math.max(ceilDiv(deadlineMs, tickMs), currentTick + 1);
+        link(node);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Deadline of a key, or -1 if it has none
+     */
+    public synchronized long getDeadline(K key) {
+        Node<K> node = nodes.get(key);
+        return node == null ? -1 : node.deadlineMs;
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Process every tick up to now and pass each expired key to expired. Expired keys are
+     * removed before the callback runs, so it may schedule them again.
+     */
+    public void advanceTo(long nowMs, Consumer<K> expired) {
+        List<K> fired = new ArrayList<>();
+        synchronized (this) {
+            long target = nowMs / tickMs;
+            if (target - currentTick >= buckets.length) {
+                // Asleep for a whole rotation or more: one pass over every bucket
+                for (int bucket = 0; bucket < buckets.length; bucket++) {
+                    collectExpired(bucket, target, fired);
+                }
+            } else {
+                for (long tick = currentTick + 1; tick <= target; tick++) {
+                    collectExpired((int) (tick & mask), tick, fired);
+                }
+            }
+            currentTick = Math.max(currentTick, target);
+        }
+        for (K key : fired) {
+            expired.accept(key);
+        }
+    }
+
+    private void collectExpired(int bucket, long tick, List<K> fired) {
+        Node<K> node = buckets[bucket];
+        while (node != null) {
+            Node<K> next = node.next;
+            if (node.deadlineTick <= tick) {
+                unlink(node);
+                nodes.remove(node.key);
+                fired.add(node.key);
+            }
+            node = next;
+        }
+    }
+
+    private void link(Node<K> node) {
+        int bucket = (int) (node.deadlineTick & mask);
+        node.prev = null;
+        node.next = buckets[bucket];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        buckets[bucket] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[(int) (node.deadlineTick & mask)] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+}
@@ -1,35 +1,29 @@
 package com.memorytraining.util;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
- * Utility class for generating words for memory exercises
+ * Utility class for generating words for memory exercises. Word lists are supplied by
+ * the caller and read again on every call, so they can be replaced while in use.
  */
 public class WordGenerator {
-    private static final String[] ADJECTIVES = {
-        "Beautiful", "Mysterious", "Ancient", "Golden", "Silver", "Bright", "Dark", 
-        "Peaceful", "Stormy", "Gentle", "Fierce", "Elegant", "Rustic", "Modern",
-        "Colorful", "Transparent", "Solid", "Liquid", "Frozen", "Burning"
-    };
-    
-    private static final String[] NOUNS = {
-        "Castle", "Forest", "Ocean", "Mountain", "Valley", "River", "Lake", "Desert",
-        "City", "Village", "Garden", "Tower", "Bridge", "Palace", "Temple", "Cave",
-        "Island", "Meadow", "Cliff", "Waterfall", "Prairie", "Volcano", "Glacier"
-    };
-    
-    private static final String[] ANIMALS = {
-        "Eagle", "Wolf", "Bear", "Lion", "Tiger", "Elephant", "Dolphin", "Whale",
-        "Fox", "Rabbit", "Deer", "Horse", "Butterfly", "Dragon", "Phoenix", "Unicorn"
-    };
+    private final Supplier<List<String>> adjectives;
+    private final Supplier<List<String>> nouns;
+    private final Supplier<List<String>> animals;
     
     private Random random = new Random();
     
+    public WordGenerator(Supplier<List<String>> adjectives, Supplier<List<String>> nouns,
+                         Supplier<List<String>> animals) {
+        this.adjectives = adjectives;
+        this.nouns = nouns;
+        this.animals = animals;
+    }
+    
     public List<String> generateWordSet(int count, WordCategory category) {
         List<String> words = new ArrayList<>();
-        String[] sourceArray = getSourceArray(category);
-        
-        List<String> availableWords = new ArrayList<>(Arrays.asList(sourceArray));
+        List<String> availableWords = new ArrayList<>(getSourceList(category));
         Collections.shuffle(availableWords, random);
         
         for (int i = 0; i < count && i < availableWords.size(); i++) {
@@ -40,29 +34,32 @@ public class WordGenerator {
     }
     
     public String generateCompoundWord() {
-        String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
-        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        List<String> adjectiveList = adjectives.get();
+        List<String> nounList = nouns.get();
+        String adjective = adjectiveList.get(random.nextInt(adjectiveList.size()));
+        String noun = nounList.get(random.nextInt(nounList.size()));
         return adjective + " " + noun;
     }
     
-    private String[] getSourceArray(WordCategory category) {
+    private List<String> getSourceList(WordCategory category) {
         return switch (category) {
-            case ADJECTIVES -> ADJECTIVES;
-            case NOUNS -> NOUNS;
-            case ANIMALS -> ANIMALS;
-            case MIXED -> combineArrays(ADJECTIVES, NOUNS, ANIMALS);
+            case ADJECTIVES -> adjectives.get();
+            case NOUNS -> nouns.get();
+            case ANIMALS -> animals.get();
+            case MIXED -> combineLists(adjectives.get(), nouns.get(), animals.get());
         };
     }
     
-    private String[] combineArrays(String[]... arrays) {
+    @SafeVarargs
+    private List<String> combineLists(List<String>... lists) {
         List<String> combined = new ArrayList<>();
-        for (String[] array : arrays) {
-            combined.addAll(Arrays.asList(array));
+        for (List<String> list : lists) {
+            combined.addAll(list);
         }
-        return combined.toArray(new String[0]);
+        return combined;
     }
     
     public enum WordCategory {
         ADJECTIVES, NOUNS, ANIMALS, MIXED
     }
-}
\ No newline at end of file
+}
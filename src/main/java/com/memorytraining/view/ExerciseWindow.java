@@ -1,12 +1,22 @@
 package com.memorytraining.view;
 
+import com.memorytraining.exercise.ExercisePlugin;
+import com.memorytraining.exercise.ExercisePlugins;
+import com.memorytraining.exercise.ExerciseRenderer;
+import com.memorytraining.jfr.AnswerInputEvent;
+import com.memorytraining.jfr.PlaybackEvent;
+import com.memorytraining.jfr.RoundGenerationEvent;
+import com.memorytraining.jfr.ScoringEvent;
 import com.memorytraining.model.ExerciseType;
 import com.memorytraining.model.Score;
+import com.memorytraining.service.ExerciseContent;
 import com.memorytraining.service.ExerciseService;
+import com.memorytraining.service.SessionRecorder;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -18,21 +28,63 @@ import javafx.stage.Window;
 import javafx.util.Duration;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 /**
- * Window for conducting memory exercises
+ * Window for conducting memory exercises. What is generated, shown and checked comes
+ * from the exercise type's plugin; the window runs the round around it.
+ *
+ * In continuous training the stage and its controls stay up between rounds: results are
+ * shown in place and the next round is generated in the background meanwhile.
  */
 public class ExerciseWindow {
+    /**
+     * Supplies each further round of continuous training
+     */
+    public interface RoundSource {
+        /** Level of the next round, asked once the previous score has been recorded */
+        int nextLevel();
+        
+        SessionRecorder newRecorder(int level);
+    }
+    
+    /**
+     * A generated round with the content snapshot it was drawn from, so the round is shown
+     * with the same content even if it is reloaded in between
+     */
+    private static final class Round {
+        final ExerciseContent content;
+        final List<?> sequence;
+        
+        Round(ExerciseContent content, List<?> sequence) {
+            this.content = content;
+            this.sequence = sequence;
+        }
+    }
+    
+    private static final ExecutorService ROUND_GENERATOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "round-generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
     private Stage stage;
     private ExerciseType exerciseType;
+    private ExercisePlugin plugin;
+    private ExerciseRenderer renderer;
     private int level;
     private ExerciseService exerciseService;
     private Consumer<Score> onCompleted;
+    private SessionRecorder recorder;
+    private RoundSource roundSource;
+    private CompletableFuture<Round> nextRound;
     
     private VBox contentPane;
+    private Label levelLabel;
     private Label instructionLabel;
     private Label sequenceLabel;
     private VBox inputPane;
@@ -40,17 +92,36 @@ public class ExerciseWindow {
     private ProgressBar progressBar;
     
     private List<?> currentSequence;
+    private PlaybackEvent playbackEvent;
+    private AnswerInputEvent inputEvent;
     private List<String> userInputs;
     private long startTime;
-    private boolean inInputPhase;
+    private int displayTime;
     private int currentInputIndex;
     
     public ExerciseWindow(ExerciseType exerciseType, int level, 
-                         ExerciseService exerciseService, Consumer<Score> onCompleted) {
+                         ExerciseService exerciseService, SessionRecorder recorder,
+                         Consumer<Score> onCompleted) {
+        this(exerciseType, level, exerciseService, recorder, onCompleted, null);
+    }
+    
+    /**
+     * Continuous training: rounds follow each other in this window until it is closed
+     */
+    public ExerciseWindow(ExerciseType exerciseType, int level, ExerciseService exerciseService,
+                          RoundSource roundSource, Consumer<Score> onCompleted) {
+        this(exerciseType, level, exerciseService, roundSource.newRecorder(level), onCompleted, roundSource);
+    }
+    
+    private ExerciseWindow(ExerciseType exerciseType, int level, ExerciseService exerciseService,
+                           SessionRecorder recorder, Consumer<Score> onCompleted, RoundSource roundSource) {
         this.exerciseType = exerciseType;
+        this.plugin = ExercisePlugins.get(exerciseType);
         this.level = level;
         this.exerciseService = exerciseService;
+        this.recorder = recorder;
         this.onCompleted = onCompleted;
+        this.roundSource = roundSource;
         this.userInputs = new ArrayList<>();
         
         initializeStage();
@@ -65,6 +136,16 @@ public class ExerciseWindow {
         stage.setResizable(false);
         stage.setWidth(600);
         stage.setHeight(500);
+        stage.setOnHidden(e -> {
+            // No-op if the round was completed
+            recorder.abandon();
+            if (renderer != null) {
+                renderer.dispose();
+            }
+            if (nextRound != null) {
+                nextRound.cancel(false);
+            }
+        });
     }
     
     private void initializeComponents() {
@@ -76,7 +157,7 @@ public class ExerciseWindow {
         Label titleLabel = new Label(exerciseType.getDisplayName());
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
         
-        Label levelLabel = new Label("Level " + level);
+        levelLabel = new Label("Level " + level);
         levelLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
         
         // Instructions
@@ -121,18 +202,13 @@ public class ExerciseWindow {
             stage.initOwner(parent);
         }
         stage.show();
-        startExercise();
+        startExercise(generateRound(level, false));
     }
     
-    private void startExercise() {
-        // Generate sequence based on exercise type
-        switch (exerciseType) {
-            case WORD_MEMORY -> currentSequence = exerciseService.generateWordSequence(level);
-            case NUMBER_MEMORY -> currentSequence = exerciseService.generateNumberSequence(level);
-            case COLOR_MEMORY -> currentSequence = exerciseService.generateColorSequence(level);
-            case SPATIAL_MEMORY -> currentSequence = exerciseService.generateSpatialSequence(level);
-            case SEQUENCE_MEMORY -> currentSequence = exerciseService.generateWordSequence(level); // Simplified
-        }
+    private void startExercise(Round round) {
+        currentSequence = round.sequence;
+        renderer = plugin.createRenderer(exerciseService, round.content, level);
+        recorder.setExpected(expectedAnswers());
         
         // Show instructions
         showInstructions();
@@ -144,24 +220,40 @@ public class ExerciseWindow {
     }
     
     private void showInstructions() {
-        String instructions = switch (exerciseType) {
-            case WORD_MEMORY -> "Memorize the sequence of words that will appear. Then type them back in the correct order.";
-            case NUMBER_MEMORY -> "Memorize the sequence of numbers that will appear. Then type them back in the correct order.";
-            case COLOR_MEMORY -> "Memorize the sequence of colors that will appear. Then select them in the correct order.";
-            case SPATIAL_MEMORY -> "Memorize the positions that light up. Then click them in the correct order.";
-            case SEQUENCE_MEMORY -> "Memorize the sequence of actions. Then repeat them in the correct order.";
-        };
-        
-        instructionLabel.setText(instructions);
+        instructionLabel.setText(plugin.getInstructions());
         sequenceLabel.setText("Get ready...");
     }
     
+    private Round generateRound(int roundLevel, boolean prefetched) {
+        ExerciseContent content = exerciseService.getContent();
+        RoundGenerationEvent event = new RoundGenerationEvent();
+        event.begin();
+        List<?> sequence = plugin.generate(exerciseService, content, roundLevel);
+        event.end();
+        if (event.shouldCommit()) {
+            event.exerciseType = exerciseType.name();
+            event.level = roundLevel;
+            event.items = sequence.size();
+            event.prefetched = prefetched;
+            event.commit();
+        }
+        return new Round(content, sequence);
+    }
+    
     private void showSequence() {
         startTime = System.currentTimeMillis();
         
-        int displayTime = exerciseService.getDisplayTimeMs(exerciseType, level, currentSequence.size());
+        displayTime = plugin.getDisplayTimeMs(exerciseService, level, currentSequence.size());
+        playbackEvent = new PlaybackEvent();
+        playbackEvent.begin();
+        playbackEvent.plannedMs = displayTime;
         int itemTime = displayTime / currentSequence.size();
         
+        Node display = renderer.createDisplay();
+        if (display != null) {
+            inputPane.getChildren().setAll(display);
+        }
+        
         showSequenceItem(0, itemTime);
     }
     
@@ -172,7 +264,8 @@ public class ExerciseWindow {
         }
         
         Object item = currentSequence.get(index);
-        sequenceLabel.setText(item.toString());
+        recorder.display(index, plugin.expectedAnswer(item));
+        sequenceLabel.setText(renderer.showItem(item, index, currentSequence.size()));
         
         double progress = (double) (index + 1) / currentSequence.size();
         progressBar.setProgress(progress);
@@ -192,147 +285,46 @@ public class ExerciseWindow {
     }
     
     private void startInputPhase() {
-        inInputPhase = true;
         currentInputIndex = 0;
+        recorder.inputPhase();
+        playbackEvent.end();
+        if (playbackEvent.shouldCommit()) {
+            playbackEvent.exerciseType = exerciseType.name();
+            playbackEvent.level = level;
+            playbackEvent.items = currentSequence.size();
+            playbackEvent.commit();
+        }
+        inputEvent = new AnswerInputEvent();
+        inputEvent.begin();
         
         instructionLabel.setText("Now enter the sequence in the correct order:");
         sequenceLabel.setText("");
         progressBar.setProgress(0);
         
-        createInputControls();
+        inputPane.getChildren().setAll(renderer.createInput(currentSequence.size(), this::acceptAnswer));
         submitButton.setDisable(false);
     }
     
-    private void createInputControls() {
-        inputPane.getChildren().clear();
-        
-        if (exerciseType == ExerciseType.COLOR_MEMORY) {
-            createColorButtons();
-        } else if (exerciseType == ExerciseType.SPATIAL_MEMORY) {
-            createSpatialGrid();
-        } else {
-            createTextInput();
-        }
-    }
-    
-    private void createTextInput() {
-        TextField textField = new TextField();
-        textField.setPromptText("Enter item #" + (currentInputIndex + 1));
-        textField.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
-        textField.setMaxWidth(300);
-        
-        textField.setOnAction(e -> {
-            String input = textField.getText().trim();
-            if (!input.isEmpty()) {
-                userInputs.add(input);
-                currentInputIndex++;
-                
-                if (currentInputIndex < currentSequence.size()) {
-                    textField.clear();
-                    textField.setPromptText("Enter item #" + (currentInputIndex + 1));
-                    updateProgress();
-                } else {
-                    textField.setDisable(true);
-                    submitButton.setText("Complete Exercise");
-                    updateProgress();
-                }
-            }
-        });
-        
-        inputPane.getChildren().add(textField);
-        Platform.runLater(textField::requestFocus);
-    }
-    
-    private void createColorButtons() {
-        // Simplified color selection
-        String[] colors = {"Red", "Blue", "Green", "Yellow", "Orange", "Purple", "Pink", "Brown"};
-        
-        GridPane colorGrid = new GridPane();
-        colorGrid.setHgap(10);
-        colorGrid.setVgap(10);
-        colorGrid.setAlignment(Pos.CENTER);
-        
-        int col = 0, row = 0;
-        for (String color : colors) {
-            Button colorButton = new Button(color);
-            colorButton.setPrefSize(80, 40);
-            colorButton.setOnAction(e -> selectColor(color));
-            
-            colorGrid.add(colorButton, col, row);
-            col++;
-            if (col >= 4) {
-                col = 0;
-                row++;
-            }
-        }
-        
-        Label progressLabel = new Label("Select color #" + (currentInputIndex + 1));
-        progressLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
-        
-        inputPane.getChildren().addAll(progressLabel, colorGrid);
-    }
-    
-    private void createSpatialGrid() {
-        // Simplified spatial grid
-        GridPane spatialGrid = new GridPane();
-        spatialGrid.setHgap(5);
-        spatialGrid.setVgap(5);
-        spatialGrid.setAlignment(Pos.CENTER);
-        
-        int gridSize = Math.min(3 + (level / 2), 6);
-        
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                Button gridButton = new Button();
-                gridButton.setPrefSize(50, 50);
-                gridButton.setStyle("-fx-background-color: lightgray;");
-                
-                final int finalRow = row, finalCol = col;
-                gridButton.setOnAction(e -> selectPosition(finalCol, finalRow));
-                
-                spatialGrid.add(gridButton, col, row);
-            }
+    private void acceptAnswer(String answer) {
+        if (currentInputIndex >= currentSequence.size()) {
+            return;
         }
-        
-        Label progressLabel = new Label("Click position #" + (currentInputIndex + 1));
-        progressLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
-        
-        inputPane.getChildren().addAll(progressLabel, spatialGrid);
-    }
-    
-    private void selectColor(String color) {
-        userInputs.add(color);
-        currentInputIndex++;
-        
-        if (currentInputIndex < currentSequence.size()) {
-            updateColorProgress();
-        } else {
-            submitButton.setText("Complete Exercise");
-            updateProgress();
+        recorder.input(currentInputIndex, answer);
+        inputEvent.end();
+        if (inputEvent.shouldCommit()) {
+            inputEvent.exerciseType = exerciseType.name();
+            inputEvent.index = currentInputIndex;
+            inputEvent.commit();
         }
-    }
-    
-    private void selectPosition(int x, int y) {
-        userInputs.add(x + "," + y);
+        inputEvent = new AnswerInputEvent();
+        inputEvent.begin();
+        userInputs.add(answer);
         currentInputIndex++;
         
-        if (currentInputIndex < currentSequence.size()) {
-            updateSpatialProgress();
-        } else {
+        renderer.answered(currentInputIndex, currentSequence.size());
+        if (currentInputIndex == currentSequence.size()) {
             submitButton.setText("Complete Exercise");
-            updateProgress();
         }
-    }
-    
-    private void updateColorProgress() {
-        inputPane.getChildren().clear();
-        createColorButtons();
-        updateProgress();
-    }
-    
-    private void updateSpatialProgress() {
-        inputPane.getChildren().clear();
-        createSpatialGrid();
         updateProgress();
     }
     
@@ -359,16 +351,35 @@ public class ExerciseWindow {
         long timeSpent = endTime - startTime;
         
         // Calculate score
+        ScoringEvent scoringEvent = new ScoringEvent();
+        scoringEvent.begin();
         int correctAnswers = calculateCorrectAnswers();
+        exerciseService.recordItemResults(exerciseType, expectedAnswers(), userInputs);
         int totalQuestions = currentSequence.size();
         
-        double scoreValue = exerciseService.calculateScore(
-            correctAnswers, totalQuestions, timeSpent, level, exerciseType
+        Score score = exerciseService.createScore(
+            exerciseType, level, timeSpent, correctAnswers, totalQuestions
         );
+        score.setDisplayTimeMs(displayTime);
+        scoringEvent.end();
+        if (scoringEvent.shouldCommit()) {
+            scoringEvent.exerciseType = exerciseType.name();
+            scoringEvent.level = level;
+            scoringEvent.correctAnswers = correctAnswers;
+            scoringEvent.totalQuestions = totalQuestions;
+            scoringEvent.score = score.getScore();
+            scoringEvent.scoringVersion = score.getScoringVersion();
+            scoringEvent.commit();
+        }
         
-        Score score = new Score(exerciseType, scoreValue, level, timeSpent, 
-                               correctAnswers, totalQuestions);
-        
+        recorder.complete(score);
+        if (roundSource != null) {
+            if (onCompleted != null) {
+                onCompleted.accept(score);
+            }
+            prepareNextRound(score);
+            return;
+        }
         showResults(score);
         
         if (onCompleted != null) {
@@ -378,34 +389,103 @@ public class ExerciseWindow {
         stage.close();
     }
     
-    private int calculateCorrectAnswers() {
-        int correct = 0;
-        
-        for (int i = 0; i < Math.min(userInputs.size(), currentSequence.size()); i++) {
-            String userInput = userInputs.get(i);
-            String expectedAnswer = currentSequence.get(i).toString();
-            
-            if (exerciseType == ExerciseType.SPATIAL_MEMORY) {
-                // Special handling for spatial positions
-                ExerciseService.Position expectedPos = (ExerciseService.Position) currentSequence.get(i);
-                String expectedPosStr = expectedPos.getX() + "," + expectedPos.getY();
-                if (userInput.equals(expectedPosStr)) {
-                    correct++;
-                }
-            } else if (userInput.equalsIgnoreCase(expectedAnswer)) {
-                correct++;
+    /**
+     * Show the results in place and generate the next round while they are read
+     */
+    private void prepareNextRound(Score score) {
+        int nextLevel = roundSource.nextLevel();
+        CompletableFuture<Round> round = CompletableFuture.supplyAsync(() -> generateRound(nextLevel, true), ROUND_GENERATOR);
+        nextRound = round;
+        
+        instructionLabel.setText("Round complete");
+        sequenceLabel.setText(resultText(score));
+        progressBar.setProgress(1);
+        submitButton.setDisable(true);
+        
+        Button nextButton = new Button("Preparing...");
+        nextButton.setDisable(true);
+        Button finishButton = new Button("Finish");
+        finishButton.setOnAction(e -> stage.close());
+        HBox buttons = new HBox(10, nextButton, finishButton);
+        buttons.setAlignment(Pos.CENTER);
+        inputPane.getChildren().setAll(buttons);
+        
+        round.whenCompleteAsync((prepared, error) -> {
+            if (round.isCancelled()) {
+                return;
+            }
+            nextButton.setText("Next Round (Level " + nextLevel + ")");
+            nextButton.setDisable(false);
+            if (error != null) {
+                // Try once more on the FX thread when asked, rather than leaving the button dead
+                System.err.println("Error preparing next round: " + error.getMessage());
+                nextButton.setOnAction(e -> generateNextRoundNow(nextLevel));
+            } else {
+                nextButton.setOnAction(e -> startNextRound(nextLevel, prepared));
             }
+            nextButton.requestFocus();
+        }, Platform::runLater);
+    }
+    
+    private void generateNextRoundNow(int nextLevel) {
+        Round prepared;
+        try {
+            prepared = generateRound(nextLevel, false);
+        } catch (RuntimeException e) {
+            System.err.println("Error generating round: " + e.getMessage());
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Next Round");
+            alert.setHeaderText(null);
+            alert.setContentText("Could not prepare the next round.");
+            alert.show();
+            return;
         }
+        startNextRound(nextLevel, prepared);
+    }
+
+    /**
+     * Reset the round state and controls; the stage and scene are kept
+     */
+    private void startNextRound(int nextLevel, Round round) {
+        renderer.dispose();
+        level = nextLevel;
+        recorder = roundSource.newRecorder(level);
+        nextRound = null;
+        userInputs = new ArrayList<>();
+        currentInputIndex = 0;
         
-        return correct;
+        stage.setTitle(exerciseType.getDisplayName() + " - Level " + level);
+        levelLabel.setText("Level " + level);
+        inputPane.getChildren().clear();
+        progressBar.setProgress(0);
+        submitButton.setText("Submit Answer");
+        submitButton.setDisable(true);
+        
+        startExercise(round);
+    }
+    
+    private int calculateCorrectAnswers() {
+        return plugin.countCorrect(exerciseService, expectedAnswers(), userInputs);
+    }
+    
+    private List<String> expectedAnswers() {
+        List<String> expectedAnswers = new ArrayList<>(currentSequence.size());
+        for (Object item : currentSequence) {
+            expectedAnswers.add(plugin.expectedAnswer(item));
+        }
+        return expectedAnswers;
     }
     
     private void showResults(Score score) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Exercise Complete");
         alert.setHeaderText("Results for " + exerciseType.getDisplayName());
-        
-        String message = String.format(
+        alert.setContentText(resultText(score));
+        alert.showAndWait();
+    }
+    
+    private static String resultText(Score score) {
+        return String.format(
             "Score: %.1f points\n" +
             "Accuracy: %s\n" +
             "Time: %s\n" +
@@ -418,8 +498,5 @@ public class ExerciseWindow {
             score.getCorrectAnswers(),
             score.getTotalQuestions()
         );
-        
-        alert.setContentText(message);
-        alert.showAndWait();
     }
 }
\ No newline at end of file
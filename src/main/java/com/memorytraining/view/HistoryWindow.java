@@ -0,0 +1,403 @@
+package com.memorytraining.view;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreQuery;
+import com.memorytraining.model.User;
+import com.memorytraining.service.DataService;
+import com.memorytraining.service.PercentileService;
+import com.memorytraining.util.Downsampler;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.StringConverter;
+
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Window for browsing the score history, archived scores included, for all exercises
+ * or one type. Nothing holds the whole history: the virtualized list reads it a page at
+ * a time through the indexed score query, which skips archive segments before the page,
+ * and the chart streams the visible range in the background through a downsampler that
+ * keeps one point per pixel. Both stay responsive regardless of how many scores have been
+ * recorded. Each row also shows where the round stands among the user's own results and
+ * the station's at that level.
+ */
+public class HistoryWindow {
+    private static final int MIN_VISIBLE_POINTS = 10;
+    private static final int PAGE_SIZE = 200;
+    private static final int CACHED_PAGES = 8;
+    private static final double MAX_SCORE = 200;
+    private static final DateTimeFormatter ROW_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private Stage stage;
+    private DataService dataService;
+    private PercentileService percentileService;
+    private User user;
+
+    private ChoiceBox<ExerciseType> typeChoice;
+    private Canvas chartCanvas;
+    private Label rangeLabel;
+    private ListView<Score> scoreList;
+
+    private ScoreQuery query = ScoreQuery.all();
+    private int total;
+    private int loadGeneration;
+    private int sampleGeneration;
+    private int viewFrom;
+    private int viewTo;
+    private Downsampler.Streaming samples;
+    private int samplesFrom;
+    private double dragStartX;
+    private int dragStartFrom;
+
+    public HistoryWindow(DataService dataService, PercentileService percentileService) {
+        this.dataService = dataService;
+        this.percentileService = percentileService;
+        this.user = dataService.getCurrentUser();
+        initializeStage();
+        initializeComponents();
+        loadHistory();
+    }
+
+    private void initializeStage() {
+        stage = new Stage();
+        stage.setTitle("Score History");
+        stage.setWidth(1000);
+        stage.setHeight(650);
+    }
+
+    private void initializeComponents() {
+        VBox contentPane = new VBox(15);
+        contentPane.setPadding(new Insets(20));
+        contentPane.setAlignment(Pos.TOP_CENTER);
+
+        Label titleLabel = new Label("Score History");
+        titleLabel.getStyleClass().add("section-title");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+
+        // A null type stands for all exercises
+        typeChoice = new ChoiceBox<>();
+        typeChoice.getItems().add(null);
+        typeChoice.getItems().addAll(ExerciseType.values());
+        typeChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(ExerciseType type) {
+                return type == null ? "All exercises" : type.getDisplayName();
+            }
+
+            @Override
+            public ExerciseType fromString(String text) {
+                return null;
+            }
+        });
+        typeChoice.setValue(null);
+        typeChoice.setOnAction(e -> loadHistory());
+
+        rangeLabel = new Label();
+        rangeLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 12));
+
+        // Chart canvas resizes with its container and repaints only what is visible
+        Pane chartPane = new Pane();
+        chartPane.setPrefHeight(240);
+        chartPane.setMinHeight(240);
+        chartCanvas = new Canvas();
+        chartCanvas.widthProperty().bind(chartPane.widthProperty());
+        chartCanvas.heightProperty().bind(chartPane.heightProperty());
+        chartCanvas.widthProperty().addListener((obs, oldValue, newValue) -> resample());
+        chartCanvas.heightProperty().addListener((obs, oldValue, newValue) -> drawChart());
+        chartCanvas.setOnScroll(this::zoomChart);
+        chartCanvas.setOnMousePressed(e -> {
+            dragStartX = e.getX();
+            dragStartFrom = viewFrom;
+        });
+        chartCanvas.setOnMouseDragged(e -> panChart(e.getX()));
+        chartCanvas.setOnMouseReleased(e -> resample());
+        chartCanvas.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                resetZoom();
+            }
+        });
+        chartPane.getChildren().add(chartCanvas);
+
+        Label hintLabel = new Label("Scroll to zoom, drag to pan, double-click to reset");
+        hintLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 11));
+
+        // ListView only creates cells for visible rows and recycles them while scrolling
+        scoreList = new ListView<>();
+        scoreList.setPlaceholder(new Label("Loading history..."));
+        scoreList.setFixedCellSize(28);
+        scoreList.setCellFactory(list -> new ScoreCell());
+        VBox.setVgrow(scoreList, Priority.ALWAYS);
+
+        contentPane.getChildren().addAll(titleLabel, typeChoice, chartPane, rangeLabel, hintLabel, scoreList);
+
+        Scene scene = new Scene(contentPane);
+        stage.setScene(scene);
+    }
+
+    public void show(Window parent) {
+        if (parent != null) {
+            stage.initOwner(parent);
+            if (parent.getScene() != null) {
+                stage.getScene().getStylesheets().addAll(parent.getScene().getStylesheets());
+            }
+        }
+        stage.show();
+        drawChart();
+    }
+
+    /**
+     * Count the archive and live history for the selected type off the FX thread, then show it
+     */
+    private void loadHistory() {
+        int generation = ++loadGeneration;
+        ExerciseType type = typeChoice.getValue();
+        ScoreQuery selected = type == null ? ScoreQuery.all() : ScoreQuery.all().type(type);
+        if (user == null) {
+            showHistory(selected, 0);
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> dataService.countScores(user, selected)).whenComplete((count, error) -> Platform.runLater(() -> {
+            // A later selection supersedes this load
+            if (generation != loadGeneration) {
+                return;
+            }
+            if (error != null) {
+                System.err.println("Error loading score history: " + error.getMessage());
+                scoreList.setPlaceholder(new Label("Could not load history"));
+                return;
+            }
+            showHistory(selected, (int) Math.min(count, Integer.MAX_VALUE));
+        }));
+    }
+    
+    private void showHistory(ScoreQuery selected, int count) {
+        query = selected;
+        total = count;
+        viewFrom = 0;
+        viewTo = total;
+        samples = null;
+        scoreList.setPlaceholder(new Label("No scores recorded yet"));
+        scoreList.setItems(FXCollections.observableList(new PagedScores(dataService, user, query, total)));
+        resample();
+    }
+
+    /**
+     * Stream the visible range through the downsampler off the FX thread, then redraw.
+     * Until it completes the previous samples are drawn shifted to the new range.
+     */
+    private void resample() {
+        drawChart();
+        int generation = ++sampleGeneration;
+        int from = viewFrom;
+        int visible = viewTo - viewFrom;
+        if (user == null || visible <= 0) {
+            samples = null;
+            return;
+        }
+        int threshold = Math.max(2, (int) chartCanvas.getWidth());
+        User profile = user;
+        ScoreQuery selected = query;
+        CompletableFuture.supplyAsync(() -> {
+            Downsampler.Streaming sampler = new Downsampler.Streaming(visible, threshold);
+            try (Stream<Score> scores = dataService.queryScores(profile, selected, from)) {
+                scores.limit(visible).forEach(score -> sampler.add(score.getScore()));
+            }
+            return sampler;
+        }).whenComplete((sampler, error) -> Platform.runLater(() -> {
+            if (generation != sampleGeneration) {
+                return;
+            }
+            if (error != null) {
+                System.err.println("Error sampling score history: " + error.getMessage());
+                return;
+            }
+            samples = sampler;
+            samplesFrom = from;
+            drawChart();
+        }));
+    }
+
+    private void zoomChart(ScrollEvent event) {
+        int visible = viewTo - viewFrom;
+        if (visible <= 0 || chartCanvas.getWidth() <= 0) {
+            return;
+        }
+        double factor = event.getDeltaY() > 0 ? 0.8 : 1.25;
+        int newVisible = (int) Math.round(visible * factor);
+        newVisible = Math.max(Math.min(MIN_VISIBLE_POINTS, total), Math.min(total, newVisible));
+
+        // Keep the point under the cursor fixed while zooming
+        double anchor = event.getX() / chartCanvas.getWidth();
+        int anchorIndex = viewFrom + (int) (anchor * visible);
+        int newFrom = anchorIndex - (int) (anchor * newVisible);
+        setViewRange(newFrom, newVisible);
+        resample();
+    }
+
+    private void panChart(double x) {
+        int visible = viewTo - viewFrom;
+        if (visible <= 0 || chartCanvas.getWidth() <= 0) {
+            return;
+        }
+        int shift = (int) ((dragStartX - x) / chartCanvas.getWidth() * visible);
+        setViewRange(dragStartFrom + shift, visible);
+    }
+
+    private void resetZoom() {
+        setViewRange(0, total);
+        resample();
+    }
+
+    private void setViewRange(int from, int visible) {
+        viewFrom = Math.max(0, Math.min(from, total - visible));
+        viewTo = viewFrom + visible;
+        drawChart();
+    }
+
+    private void drawChart() {
+        double width = chartCanvas.getWidth();
+        double height = chartCanvas.getHeight();
+        GraphicsContext gc = chartCanvas.getGraphicsContext2D();
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, width, height);
+        gc.setStroke(Color.web("#dee2e6"));
+        gc.strokeRect(0.5, 0.5, width - 1, height - 1);
+
+        int visible = viewTo - viewFrom;
+        rangeLabel.setText(total == 0
+                ? "No scores recorded yet"
+                : String.format("Showing scores %d-%d of %d", viewFrom + 1, viewTo, total));
+        Downsampler.Streaming points = samples;
+        if (visible < 1 || width < 2 || points == null) {
+            return;
+        }
+
+        // The samples hold one point per horizontal pixel, which is all the screen can show
+        double xScale = visible > 1 ? (width - 1) / (visible - 1) : 0;
+        double yScale = (height - 10) / MAX_SCORE;
+        gc.setStroke(Color.web("#007bff"));
+        gc.setLineWidth(1.5);
+        gc.beginPath();
+        for (int i = 0; i < points.getCount(); i++) {
+            int index = samplesFrom + points.getIndex(i);
+            double x = (index - viewFrom) * xScale;
+            double y = height - 5 - points.getValue(i) * yScale;
+            if (i == 0) {
+                gc.moveTo(x, y);
+            } else {
+                gc.lineTo(x, y);
+            }
+        }
+        gc.stroke();
+    }
+
+    /**
+     * "Beats 72% of yours, 64% here, faster than 58%", leaving out parts with no data
+     */
+    private String percentiles(Score score) {
+        StringBuilder text = new StringBuilder();
+        double own = user == null ? Double.NaN
+                : user.getScorePercentile(score.getExerciseType(), score.getLevel(), score.getScore());
+        double station = percentileService.getScorePercentile(score.getExerciseType(), score.getLevel(), score.getScore());
+        if (!Double.isNaN(own)) {
+            text.append(String.format("beats %.0f%% of yours", own));
+        }
+        if (!Double.isNaN(station)) {
+            text.append(text.length() > 0 ? ", " : "beats ").append(String.format("%.0f%% here", station));
+        }
+        if (score.getTotalQuestions() > 0) {
+            double speed = percentileService.getResponseTimePercentile(score.getExerciseType(), score.getLevel(),
+                    (double) score.getTimeSpentMs() / score.getTotalQuestions());
+            if (!Double.isNaN(speed)) {
+                text.append(text.length() > 0 ? ", " : "").append(String.format("faster than %.0f%%", speed));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Read-only view of the history, newest first, fetched a page at a time. The last few
+     * pages read are kept, so scrolling back and forth does not read them again.
+     */
+    private static class PagedScores extends AbstractList<Score> {
+        private final DataService dataService;
+        private final User user;
+        private final ScoreQuery query;
+        private final int size;
+        private final Map<Integer, List<Score>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Score>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+
+        PagedScores(DataService dataService, User user, ScoreQuery query, int size) {
+            this.dataService = dataService;
+            this.user = user;
+            this.query = query;
+            this.size = size;
+        }
+
+        @Override
+        public Score get(int index) {
+            int chronological = size - 1 - index;
+            int page = chronological / PAGE_SIZE;
+            List<Score> scores = pages.computeIfAbsent(page,
+                    p -> dataService.getScorePage(user, query, (long) p * PAGE_SIZE, PAGE_SIZE));
+            int offset = chronological - page * PAGE_SIZE;
+            return offset < scores.size() ? scores.get(offset) : null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Recycled row showing a single score and its percentiles
+     */
+    private class ScoreCell extends ListCell<Score> {
+        @Override
+        protected void updateItem(Score score, boolean empty) {
+            super.updateItem(score, empty);
+            if (empty || score == null) {
+                setText(null);
+            } else {
+                setText(String.format("%s   %-16s  Level %-2d  %6.1f pts  %s   %s",
+                        score.getCompletedAt().format(ROW_FORMATTER),
+                        score.getExerciseType().getDisplayName() + (score.isDrill() ? " (drill)" : ""),
+                        score.getLevel(),
+                        score.getScore(),
+                        score.getFormattedAccuracy(),
+                        percentiles(score)));
+            }
+        }
+    }
+}
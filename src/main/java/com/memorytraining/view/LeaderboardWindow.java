@@ -0,0 +1,135 @@
+package com.memorytraining.view;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.service.LeaderboardService;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Window showing the station leaderboard for one exercise type and level at a time,
+ * with the current user's rank on that board
+ */
+public class LeaderboardWindow {
+    private static final int MAX_LEVEL = 10;
+    private static final int SHOWN_ENTRIES = 100;
+    private static final DateTimeFormatter ROW_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final LeaderboardService leaderboardService;
+    private final String username;
+    private Stage stage;
+    private ChoiceBox<ExerciseType> typeChoice;
+    private ChoiceBox<Integer> levelChoice;
+    private ListView<LeaderboardService.Entry> entryList;
+    private Label rankLabel;
+
+    public LeaderboardWindow(LeaderboardService leaderboardService, String username, ExerciseType type, int level) {
+        this.leaderboardService = leaderboardService;
+        this.username = username;
+        initializeStage();
+        initializeComponents(type, level);
+        refresh();
+    }
+
+    private void initializeStage() {
+        stage = new Stage();
+        stage.setTitle("Leaderboard");
+        stage.setWidth(520);
+        stage.setHeight(600);
+    }
+
+    private void initializeComponents(ExerciseType type, int level) {
+        VBox contentPane = new VBox(15);
+        contentPane.setPadding(new Insets(20));
+        contentPane.setAlignment(Pos.TOP_CENTER);
+
+        Label titleLabel = new Label("Leaderboard");
+        titleLabel.getStyleClass().add("section-title");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+
+        typeChoice = new ChoiceBox<>(FXCollections.observableArrayList(ExerciseType.values()));
+        typeChoice.setValue(type);
+        typeChoice.setOnAction(e -> refresh());
+        levelChoice = new ChoiceBox<>();
+        for (int i = 1; i <= MAX_LEVEL; i++) {
+            levelChoice.getItems().add(i);
+        }
+        levelChoice.setValue(Math.max(1, Math.min(level, MAX_LEVEL)));
+        levelChoice.setOnAction(e -> refresh());
+        HBox filters = new HBox(10, typeChoice, new Label("Level"), levelChoice);
+        filters.setAlignment(Pos.CENTER);
+
+        rankLabel = new Label();
+        rankLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+
+        entryList = new ListView<>();
+        entryList.setFixedCellSize(28);
+        entryList.setCellFactory(list -> new EntryCell());
+        VBox.setVgrow(entryList, Priority.ALWAYS);
+
+        contentPane.getChildren().addAll(titleLabel, filters, rankLabel, entryList);
+        stage.setScene(new Scene(contentPane));
+    }
+
+    private void refresh() {
+        ExerciseType type = typeChoice.getValue();
+        int level = levelChoice.getValue();
+        List<LeaderboardService.Entry> top = leaderboardService.getTop(type, level, SHOWN_ENTRIES);
+        entryList.setItems(FXCollections.observableList(top));
+
+        int rank = username == null ? -1 : leaderboardService.getRank(type, level, username);
+        if (top.isEmpty()) {
+            rankLabel.setText("No results at this level yet");
+        } else if (rank < 0) {
+            rankLabel.setText("You are not on this board yet");
+        } else {
+            rankLabel.setText(String.format("Your rank: #%d of %d", rank, top.size()));
+        }
+    }
+
+    public void show(Window parent) {
+        if (parent != null) {
+            stage.initOwner(parent);
+            if (parent.getScene() != null) {
+                stage.getScene().getStylesheets().addAll(parent.getScene().getStylesheets());
+            }
+        }
+        stage.show();
+    }
+
+    /**
+     * Recycled row showing one board entry with its rank
+     */
+    private class EntryCell extends ListCell<LeaderboardService.Entry> {
+        @Override
+        protected void updateItem(LeaderboardService.Entry entry, boolean empty) {
+            super.updateItem(entry, empty);
+            if (empty || entry == null) {
+                setText(null);
+                setStyle(null);
+            } else {
+                setText(String.format("%3d.  %-20s  %6.1f pts  %s",
+                        getIndex() + 1,
+                        entry.getUsername(),
+                        entry.getScore(),
+                        entry.getAchievedAt().format(ROW_FORMATTER)));
+                setStyle(entry.getUsername().equals(username) ? "-fx-font-weight: bold;" : null);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.memorytraining.view;
+
+import com.memorytraining.model.DigitSequence;
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.service.DigitMatcher;
+import com.memorytraining.service.ExerciseService;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+
+/**
+ * Long-form number memory drill: hundreds or thousands of digits shown a group at a time
+ * at a chosen pace, then recalled in one text area. Recorded as a Number Memory score
+ * with one question per digit.
+ */
+public class LongNumberWindow {
+    private static final int DEFAULT_DIGITS = 100;
+    private static final int DEFAULT_GROUP_SIZE = 3;
+    private static final double DEFAULT_PACE_SECONDS = 2.0;
+    private static final int RECALL_GROUPS_PER_LINE = 10;
+
+    private Stage stage;
+    private int level;
+    private ExerciseService exerciseService;
+    private Consumer<Score> onCompleted;
+
+    private VBox contentPane;
+    private Label instructionLabel;
+    private Label groupLabel;
+    private Label positionLabel;
+    private ProgressBar progressBar;
+
+    private DigitSequence digits;
+    private DigitMatcher matcher;
+    private int groupSize;
+    private int currentGroup;
+    private Timeline playback;
+    private final StringBuilder groupText = new StringBuilder();
+    private long startTime;
+
+    public LongNumberWindow(int level, ExerciseService exerciseService, Consumer<Score> onCompleted) {
+        this.level = level;
+        this.exerciseService = exerciseService;
+        this.onCompleted = onCompleted;
+
+        initializeStage();
+        initializeComponents();
+    }
+
+    private void initializeStage() {
+        stage = new Stage();
+        stage.setTitle("Long Number Drill");
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.setWidth(700);
+        stage.setHeight(550);
+        stage.setOnHidden(e -> stopPlayback());
+    }
+
+    private void initializeComponents() {
+        contentPane = new VBox(20);
+        contentPane.setPadding(new Insets(30));
+        contentPane.setAlignment(Pos.CENTER);
+        stage.setScene(new Scene(contentPane));
+        showSetup();
+    }
+
+    public void show(Window parent) {
+        if (parent != null) {
+            stage.initOwner(parent);
+        }
+        stage.show();
+    }
+
+    private void showSetup() {
+        Label titleLabel = new Label("Long Number Drill");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
+
+        Spinner<Integer> digitSpinner = new Spinner<>(10, ExerciseService.MAX_DRILL_DIGITS, DEFAULT_DIGITS, 10);
+        digitSpinner.setEditable(true);
+        Spinner<Integer> groupSpinner = new Spinner<>(1, 8, DEFAULT_GROUP_SIZE);
+        Spinner<Double> paceSpinner = new Spinner<>(0.25, 10.0, DEFAULT_PACE_SECONDS, 0.25);
+        paceSpinner.setEditable(true);
+
+        GridPane form = new GridPane();
+        form.setHgap(10);
+        form.setVgap(10);
+        form.setAlignment(Pos.CENTER);
+        form.addRow(0, new Label("Digits:"), digitSpinner);
+        form.addRow(1, new Label("Digits per group:"), groupSpinner);
+        form.addRow(2, new Label("Seconds per group:"), paceSpinner);
+
+        Button startButton = new Button("Start");
+        startButton.setDefaultButton(true);
+        startButton.setOnAction(e -> startMemorize(digitSpinner.getValue(), groupSpinner.getValue(), paceSpinner.getValue()));
+
+        contentPane.getChildren().setAll(titleLabel, form, startButton);
+    }
+
+    private void startMemorize(int digitCount, int groupSize, double paceSeconds) {
+        this.digits = exerciseService.generateDigitSequence(digitCount);
+        this.matcher = new DigitMatcher(digits);
+        this.groupSize = groupSize;
+        this.currentGroup = 0;
+
+        instructionLabel = new Label("Memorize the digits. Press \"Recall\" when you are ready to write them down.");
+        instructionLabel.setWrapText(true);
+        instructionLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+
+        groupLabel = new Label();
+        groupLabel.setFont(Font.font("Monospaced", FontWeight.BOLD, 48));
+        positionLabel = new Label();
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(400);
+
+        Button recallButton = new Button("Recall");
+        recallButton.setOnAction(e -> startRecall());
+
+        contentPane.getChildren().setAll(instructionLabel, groupLabel, positionLabel, progressBar, recallButton);
+
+        startTime = System.currentTimeMillis();
+        int groups = digits.groupCount(groupSize);
+        showGroup();
+        playback = new Timeline(new KeyFrame(Duration.seconds(paceSeconds), e -> {
+            if (++currentGroup < groups) {
+                showGroup();
+            } else {
+                startRecall();
+            }
+        }));
+        playback.setCycleCount(groups);
+        playback.play();
+    }
+
+    private void showGroup() {
+        int groups = digits.groupCount(groupSize);
+        groupText.setLength(0);
+        digits.appendGroup(groupText, currentGroup, groupSize);
+        groupLabel.setText(groupText.toString());
+        positionLabel.setText("Group " + (currentGroup + 1) + " of " + groups);
+        progressBar.setProgress((double) (currentGroup + 1) / groups);
+    }
+
+    private void stopPlayback() {
+        if (playback != null && playback.getStatus() == Animation.Status.RUNNING) {
+            playback.stop();
+        }
+    }
+
+    private void startRecall() {
+        stopPlayback();
+
+        instructionLabel.setText("Type the digits in order. Spaces and line breaks are ignored.");
+        TextArea recallArea = new TextArea();
+        recallArea.setFont(Font.font("Monospaced", FontWeight.NORMAL, 16));
+        recallArea.setWrapText(true);
+        VBox.setVgrow(recallArea, Priority.ALWAYS);
+
+        Label typedLabel = new Label("0 of " + digits.length() + " digits");
+        progressBar.setProgress(0);
+
+        // Re-scan on every edit so deletions and pastes are handled; the matcher itself does not allocate
+        recallArea.textProperty().addListener((obs, oldText, newText) -> {
+            matcher.reset();
+            matcher.feed(newText);
+            typedLabel.setText(matcher.getTyped() + " of " + digits.length() + " digits");
+            progressBar.setProgress(Math.min(1.0, (double) matcher.getTyped() / digits.length()));
+        });
+
+        Button finishButton = new Button("Complete Exercise");
+        finishButton.setOnAction(e -> completeExercise());
+
+        contentPane.getChildren().setAll(instructionLabel, recallArea, typedLabel, progressBar, finishButton);
+        Platform.runLater(recallArea::requestFocus);
+    }
+
+    private void completeExercise() {
+        long timeSpent = System.currentTimeMillis() - startTime;
+        int correctAnswers = matcher.getCorrect();
+        int totalQuestions = digits.length();
+
+        Score score = exerciseService.createScore(
+            ExerciseType.NUMBER_MEMORY, level, timeSpent, correctAnswers, totalQuestions
+        );
+        score.setDrill(true);
+
+        showResults(score);
+
+        if (onCompleted != null) {
+            onCompleted.accept(score);
+        }
+
+        stage.close();
+    }
+
+    private void showResults(Score score) {
+        StringBuilder target = new StringBuilder(digits.length() + digits.length() / groupSize * 2);
+        digits.appendGrouped(target, groupSize, RECALL_GROUPS_PER_LINE);
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Drill Complete");
+        alert.setHeaderText("Results for Long Number Drill");
+        alert.setContentText(String.format(
+            "Score: %.1f points\n" +
+            "Correct digits: %d/%d (%s)\n" +
+            "First error at digit: %s\n" +
+            "Time: %s",
+            score.getScore(),
+            score.getCorrectAnswers(),
+            score.getTotalQuestions(),
+            score.getFormattedAccuracy(),
+            matcher.getFirstError() < 0 ? "none" : String.valueOf(matcher.getFirstError() + 1),
+            score.getFormattedTime()
+        ));
+
+        TextArea targetArea = new TextArea(target.toString());
+        targetArea.setEditable(false);
+        targetArea.setFont(Font.font("Monospaced", FontWeight.NORMAL, 13));
+        alert.getDialogPane().setExpandableContent(targetArea);
+        alert.showAndWait();
+    }
+}
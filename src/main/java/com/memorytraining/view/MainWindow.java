@@ -3,6 +3,8 @@ package com.memorytraining.view;
 import com.memorytraining.controller.ExerciseController;
 import com.memorytraining.model.ExerciseType;
 import com.memorytraining.service.DataService;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableStringValue;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
@@ -20,10 +22,21 @@ public class MainWindow {
     private ExerciseController exerciseController;
     private Label welcomeLabel;
     private VBox statsContainer;
+    private StatsViewModel statsViewModel;
     
     public MainWindow(DataService dataService) {
+        this(dataService, ExerciseController.Preload.load(dataService));
+    }
+    
+    /**
+     * Build the window on the FX thread from state preloaded in the background
+     */
+    public MainWindow(DataService dataService, ExerciseController.Preload preload) {
         this.dataService = dataService;
-        this.exerciseController = new ExerciseController(dataService);
+        this.exerciseController = new ExerciseController(dataService, preload);
+        this.statsViewModel = new StatsViewModel();
+        this.exerciseController.addScoreListener(statsViewModel::onScoreRecorded);
+        this.exerciseController.addReminderListener(this::showReminder);
         initializeComponents();
         setupLayout();
         updateUserInfo();
@@ -150,7 +163,16 @@ public class MainWindow {
         startButton.getStyleClass().add("start-button");
         startButton.setOnAction(e -> startExercise(type));
         
-        card.getChildren().addAll(titleLabel, descLabel, startButton);
+        Button continuousButton = new Button("Continuous");
+        continuousButton.setOnAction(e -> exerciseController.startContinuousTraining(type, root.getScene().getWindow()));
+        
+        card.getChildren().addAll(titleLabel, descLabel, startButton, continuousButton);
+        
+        if (type == ExerciseType.NUMBER_MEMORY) {
+            Button drillButton = new Button("Long Drill");
+            drillButton.setOnAction(e -> exerciseController.startLongNumberDrill(root.getScene().getWindow()));
+            card.getChildren().add(drillButton);
+        }
         
         // Add hover effect
         card.setOnMouseEntered(e -> card.getStyleClass().add("exercise-card-hover"));
@@ -173,6 +195,12 @@ public class MainWindow {
         statsGrid.setVgap(10);
         statsGrid.setAlignment(Pos.CENTER);
         
+        // Stat labels are bound once and update themselves when a score is recorded
+        addStatItem(statsGrid, "Exercises Completed", statsViewModel.exercisesCompletedProperty().asString(), 0, 0);
+        addStatItem(statsGrid, "Current Streak", statsViewModel.currentStreakProperty().asString("%d days"), 1, 0);
+        addStatItem(statsGrid, "Longest Streak", statsViewModel.longestStreakProperty().asString("%d days"), 0, 1);
+        addStatItem(statsGrid, "Member Since", statsViewModel.memberSinceProperty(), 1, 1);
+        
         statsSection.getChildren().addAll(sectionTitle, statsGrid);
         return statsSection;
     }
@@ -183,13 +211,22 @@ public class MainWindow {
         footer.setPadding(new Insets(15));
         footer.setAlignment(Pos.CENTER);
         
+        Button switchUserButton = new Button("Switch User");
+        switchUserButton.setOnAction(e -> switchUser());
+        
+        Button historyButton = new Button("History");
+        historyButton.setOnAction(e -> showHistory());
+        
+        Button leaderboardButton = new Button("Leaderboard");
+        leaderboardButton.setOnAction(e -> showLeaderboard());
+        
         Button settingsButton = new Button("Settings");
         settingsButton.setOnAction(e -> openSettings());
         
         Button aboutButton = new Button("About");
         aboutButton.setOnAction(e -> showAbout());
         
-        footer.getChildren().addAll(settingsButton, aboutButton);
+        footer.getChildren().addAll(switchUserButton, historyButton, leaderboardButton, settingsButton, aboutButton);
         return footer;
     }
     
@@ -200,43 +237,18 @@ public class MainWindow {
     private void updateUserInfo() {
         if (dataService.getCurrentUser() != null) {
             welcomeLabel.setText("Welcome back, " + dataService.getCurrentUser().getUsername() + "!");
-            updateStats();
-        }
-    }
-    
-    private void updateStats() {
-        if (dataService.getCurrentUser() != null) {
-            var user = dataService.getCurrentUser();
-            
-            // Clear existing stats
-            statsContainer.getChildren().clear();
-            
-            Label sectionTitle = new Label("Your Progress");
-            sectionTitle.getStyleClass().add("section-title");
-            sectionTitle.setFont(Font.font("Arial", FontWeight.BOLD, 24));
-            
-            GridPane statsGrid = new GridPane();
-            statsGrid.setHgap(20);
-            statsGrid.setVgap(10);
-            statsGrid.setAlignment(Pos.CENTER);
-            
-            // Add stat items
-            addStatItem(statsGrid, "Exercises Completed", String.valueOf(user.getTotalExercisesCompleted()), 0, 0);
-            addStatItem(statsGrid, "Current Streak", String.valueOf(user.getCurrentStreak()) + " days", 1, 0);
-            addStatItem(statsGrid, "Longest Streak", String.valueOf(user.getLongestStreak()) + " days", 0, 1);
-            addStatItem(statsGrid, "Member Since", user.getCreatedAt().toLocalDate().toString(), 1, 1);
-            
-            statsContainer.getChildren().addAll(sectionTitle, statsGrid);
+            statsViewModel.load(dataService.getCurrentUser());
         }
     }
     
-    private void addStatItem(GridPane grid, String label, String value, int col, int row) {
+    private void addStatItem(GridPane grid, String label, ObservableStringValue value, int col, int row) {
         VBox statBox = new VBox(5);
         statBox.setAlignment(Pos.CENTER);
         statBox.getStyleClass().add("stat-box");
         statBox.setPadding(new Insets(15));
         
-        Label valueLabel = new Label(value);
+        Label valueLabel = new Label();
+        valueLabel.textProperty().bind(value);
         valueLabel.getStyleClass().add("stat-value");
         valueLabel.setFont(Font.font("Arial", FontWeight.BOLD, 18));
         
@@ -249,9 +261,48 @@ public class MainWindow {
     }
     
     private void startExercise(ExerciseType type) {
+        // Stats refresh through the score listener once the round is recorded
         exerciseController.startExercise(type, root.getScene().getWindow());
-        // Refresh stats after exercise completion
-        updateStats();
+    }
+    
+    private void switchUser() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("Switch User");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Name:");
+        dialog.showAndWait()
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .ifPresent(name -> {
+                // Loading the profile happens in the background; the window waits meanwhile
+                root.setDisable(true);
+                dataService.switchUserInBackground(name).whenComplete((user, error) -> Platform.runLater(() -> {
+                    root.setDisable(false);
+                    if (error != null) {
+                        System.err.println("Error switching user: " + error.getMessage());
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Switch User");
+                        alert.setHeaderText(null);
+                        alert.setContentText("Could not switch to " + name + ".");
+                        alert.show();
+                        return;
+                    }
+                    exerciseController.userChanged();
+                    updateUserInfo();
+                }));
+            });
+    }
+    
+    private void showHistory() {
+        HistoryWindow historyWindow = new HistoryWindow(dataService, exerciseController.getPercentileService());
+        historyWindow.show(root.getScene().getWindow());
+    }
+    
+    private void showLeaderboard() {
+        var user = dataService.getCurrentUser();
+        ExerciseType type = ExerciseType.WORD_MEMORY;
+        new LeaderboardWindow(exerciseController.getLeaderboardService(), user == null ? null : user.getUsername(),
+            type, exerciseController.getCurrentLevel(type)).show(root.getScene().getWindow());
     }
     
     private void openSettings() {
@@ -274,6 +325,24 @@ public class MainWindow {
         alert.showAndWait();
     }
     
+    /**
+     * Non-blocking, so a reminder never holds up a round in progress
+     */
+    private void showReminder(String username) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Training Reminder");
+        alert.setHeaderText(null);
+        alert.setContentText("Time for some memory training, " + username + "!");
+        alert.show();
+    }
+    
+    /**
+     * Release background resources before the application exits
+     */
+    public void shutdown() {
+        exerciseController.shutdown();
+    }
+    
     public Parent getRoot() {
         return root;
     }
@@ -0,0 +1,204 @@
+package com.memorytraining.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Canvas-drawn spatial memory board. Cells are found by dividing the click position by
+ * the cell size, only cells that changed are repainted, and every flash fades on the
+ * same AnimationTimer, which stops itself when there is nothing left to paint.
+ * Boards up to 32x32 stay within one frame per repaint.
+ */
+public class SpatialBoard {
+    public static final int MAX_GRID_SIZE = 32;
+
+    private static final long FLASH_NANOS = 600_000_000L;
+    private static final double GAP = 2;
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color CELL = Color.LIGHTGRAY;
+    private static final Color MARKED = Color.web("#a5d6a7");
+    private static final Color TARGET_FLASH = Color.web("#1e88e5");
+    private static final Color SELECT_FLASH = Color.web("#43a047");
+
+    /**
+     * Receives the column and row of a clicked cell
+     */
+    public interface CellHandler {
+        void onCell(int x, int y);
+    }
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final int gridSize;
+    private final double cellSize;
+
+    private final boolean[] marked;
+    private final boolean[] flashing;
+    private final long[] flashStart;
+    private final boolean[] flashIsTarget;
+    private final int[] activeFlashes;
+    private int activeCount;
+    private final boolean[] dirty;
+    private final int[] dirtyCells;
+    private int dirtyCount;
+
+    private CellHandler cellHandler;
+    private boolean running;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            paintFrame(now);
+        }
+    };
+
+    public SpatialBoard(int gridSize, double size) {
+        if (gridSize < 1 || gridSize > MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Grid size must be between 1 and " + MAX_GRID_SIZE);
+        }
+        this.gridSize = gridSize;
+        this.cellSize = size / gridSize;
+        this.canvas = new Canvas(size, size);
+        this.gc = canvas.getGraphicsContext2D();
+
+        int cells = gridSize * gridSize;
+        this.marked = new boolean[cells];
+        this.flashing = new boolean[cells];
+        this.flashStart = new long[cells];
+        this.flashIsTarget = new boolean[cells];
+        this.activeFlashes = new int[cells];
+        this.dirty = new boolean[cells];
+        this.dirtyCells = new int[cells];
+
+        canvas.setOnMousePressed(e -> {
+            if (cellHandler == null) {
+                return;
+            }
+            // Floor rather than truncate, so clicks just left of or above the board miss it
+            int x = (int) Math.floor(e.getX() / cellSize);
+            int y = (int) Math.floor(e.getY() / cellSize);
+            if (x >= 0 && x < gridSize && y >= 0 && y < gridSize) {
+                cellHandler.onCell(x, y);
+            }
+        });
+
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, size, size);
+        for (int cell = 0; cell < cells; cell++) {
+            markDirty(cell);
+        }
+        ensureRunning();
+    }
+
+    public Node getNode() {
+        return canvas;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Handle clicks on cells; null makes the board display-only
+     */
+    public void setCellHandler(CellHandler cellHandler) {
+        this.cellHandler = cellHandler;
+    }
+
+    /**
+     * Briefly highlight a cell as part of the sequence being shown
+     */
+    public void flashTarget(int x, int y) {
+        flash(x + y * gridSize, true);
+    }
+
+    /**
+     * Highlight a cell the user picked and leave it marked
+     */
+    public void select(int x, int y) {
+        int cell = x + y * gridSize;
+        marked[cell] = true;
+        flash(cell, false);
+    }
+
+    public void clearMarks() {
+        for (int cell = 0; cell < marked.length; cell++) {
+            if (marked[cell]) {
+                marked[cell] = false;
+                markDirty(cell);
+            }
+        }
+        ensureRunning();
+    }
+
+    /**
+     * Stop animating, e.g. when the window closes
+     */
+    public void dispose() {
+        timer.stop();
+        running = false;
+    }
+
+    private void flash(int cell, boolean target) {
+        if (!flashing[cell]) {
+            flashing[cell] = true;
+            activeFlashes[activeCount++] = cell;
+        }
+        flashStart[cell] = System.nanoTime();
+        flashIsTarget[cell] = target;
+        markDirty(cell);
+        ensureRunning();
+    }
+
+    private void markDirty(int cell) {
+        if (!dirty[cell]) {
+            dirty[cell] = true;
+            dirtyCells[dirtyCount++] = cell;
+        }
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    private void paintFrame(long now) {
+        // Fading cells repaint every frame; finished flashes paint once more in their resting color
+        for (int i = activeCount - 1; i >= 0; i--) {
+            int cell = activeFlashes[i];
+            markDirty(cell);
+            if (now - flashStart[cell] >= FLASH_NANOS) {
+                flashing[cell] = false;
+                activeFlashes[i] = activeFlashes[--activeCount];
+            }
+        }
+
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirtyCells[i];
+            dirty[cell] = false;
+            paintCell(cell, now);
+        }
+        dirtyCount = 0;
+
+        if (activeCount == 0) {
+            timer.stop();
+            running = false;
+        }
+    }
+
+    private void paintCell(int cell, long now) {
+        Color color = marked[cell] ? MARKED : CELL;
+        if (flashing[cell]) {
+            double progress = Math.min(1.0, Math.max(0.0, (double) (now - flashStart[cell]) / FLASH_NANOS));
+            color = (flashIsTarget[cell] ? TARGET_FLASH : SELECT_FLASH).interpolate(color, progress);
+        }
+        double x = (cell % gridSize) * cellSize;
+        double y = (cell / gridSize) * cellSize;
+        gc.setFill(color);
+        gc.fillRect(x + GAP / 2, y + GAP / 2, cellSize - GAP, cellSize - GAP);
+    }
+}
@@ -0,0 +1,68 @@
+package com.memorytraining.view;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Lightweight placeholder shown while the profile loads and the main window is built.
+ * It has no dependency on user data so it can be displayed immediately.
+ */
+public class StartupShell {
+    private BorderPane root;
+    private Label statusLabel;
+    private ProgressIndicator progressIndicator;
+
+    public StartupShell() {
+        initializeComponents();
+    }
+
+    private void initializeComponents() {
+        root = new BorderPane();
+        root.getStyleClass().add("main-window");
+
+        VBox header = new VBox(10);
+        header.getStyleClass().add("header");
+        header.setPadding(new Insets(20));
+        header.setAlignment(Pos.CENTER);
+
+        Label titleLabel = new Label("Lost Art");
+        titleLabel.getStyleClass().add("app-title");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 36));
+
+        Label subtitleLabel = new Label("Memory Training");
+        subtitleLabel.getStyleClass().add("app-subtitle");
+        subtitleLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
+
+        header.getChildren().addAll(titleLabel, subtitleLabel);
+        root.setTop(header);
+
+        VBox center = new VBox(15);
+        center.setAlignment(Pos.CENTER);
+
+        progressIndicator = new ProgressIndicator();
+        progressIndicator.setMaxSize(48, 48);
+
+        statusLabel = new Label("Loading your profile...");
+        statusLabel.getStyleClass().add("description-label");
+        statusLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
+
+        center.getChildren().addAll(progressIndicator, statusLabel);
+        root.setCenter(center);
+    }
+
+    public void showError(String message) {
+        progressIndicator.setVisible(false);
+        statusLabel.setText(message);
+    }
+
+    public Parent getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,53 @@
+package com.memorytraining.view;
+
+import com.memorytraining.model.Score;
+import com.memorytraining.model.User;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * Observable statistics for the main window.
+ * Views bind to these properties once; a property only notifies its listeners
+ * when its value actually changes, so recording a score touches just the
+ * labels whose numbers moved.
+ */
+public class StatsViewModel {
+    private final IntegerProperty exercisesCompleted = new SimpleIntegerProperty(0);
+    private final IntegerProperty currentStreak = new SimpleIntegerProperty(0);
+    private final IntegerProperty longestStreak = new SimpleIntegerProperty(0);
+    private final StringProperty memberSince = new SimpleStringProperty("");
+
+    /**
+     * Populate all values from a freshly loaded user
+     */
+    public void load(User user) {
+        if (user == null) {
+            return;
+        }
+        exercisesCompleted.set(user.getTotalExercisesCompleted());
+        currentStreak.set(user.getCurrentStreak());
+        longestStreak.set(user.getLongestStreak());
+        memberSince.set(user.getCreatedAt().toLocalDate().toString());
+    }
+
+    /**
+     * Apply a newly recorded score. Must be called on the FX application thread.
+     */
+    public void onScoreRecorded(User user, Score score) {
+        if (user == null) {
+            return;
+        }
+        exercisesCompleted.set(user.getTotalExercisesCompleted());
+        currentStreak.set(user.getCurrentStreak());
+        longestStreak.set(user.getLongestStreak());
+    }
+
+    public ReadOnlyIntegerProperty exercisesCompletedProperty() { return exercisesCompleted; }
+    public ReadOnlyIntegerProperty currentStreakProperty() { return currentStreak; }
+    public ReadOnlyIntegerProperty longestStreakProperty() { return longestStreak; }
+    public ReadOnlyStringProperty memberSinceProperty() { return memberSince; }
+}
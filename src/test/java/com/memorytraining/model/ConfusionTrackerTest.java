@@ -0,0 +1,56 @@
+package com.memorytraining.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfusionTrackerTest {
+
+    @Test
+    void newLabelsExtendTheDenseMatrixAndKeepCounts() {
+        ConfusionTracker tracker = new ConfusionTracker();
+        tracker.ensureDense(ExerciseType.COLOR_MEMORY, List.of("red", "blue"));
+        tracker.record(ExerciseType.COLOR_MEMORY, "red", "blue");
+        tracker.record(ExerciseType.COLOR_MEMORY, "red", "blue");
+        // Not a label yet, so not counted
+        tracker.record(ExerciseType.COLOR_MEMORY, "red", "teal");
+        assertEquals(0, tracker.count(ExerciseType.COLOR_MEMORY, "red", "teal"));
+
+        tracker.ensureDense(ExerciseType.COLOR_MEMORY, List.of("red", "teal"));
+        tracker.record(ExerciseType.COLOR_MEMORY, "red", "teal");
+
+        assertEquals(2, tracker.count(ExerciseType.COLOR_MEMORY, "red", "blue"));
+        assertEquals(1, tracker.count(ExerciseType.COLOR_MEMORY, "red", "teal"));
+        assertTrue(tracker.isDirty());
+    }
+
+    @Test
+    void labelsAlreadyPresentKeepTheMatrix() {
+        ConfusionTracker tracker = new ConfusionTracker();
+        tracker.ensureDense(ExerciseType.SPATIAL_MEMORY, List.of("0,0", "1,0", "0,1", "1,1"));
+        tracker.record(ExerciseType.SPATIAL_MEMORY, "0,0", "1,1");
+        tracker.ensureDense(ExerciseType.SPATIAL_MEMORY, List.of("0,0", "1,1"));
+        tracker.record(ExerciseType.SPATIAL_MEMORY, "0,1", "1,0");
+
+        assertEquals(1, tracker.count(ExerciseType.SPATIAL_MEMORY, "0,0", "1,1"));
+        assertEquals(1, tracker.count(ExerciseType.SPATIAL_MEMORY, "0,1", "1,0"));
+    }
+
+    @Test
+    void switchingToSparseCountsCellsOfAnyBoard() {
+        ConfusionTracker tracker = new ConfusionTracker();
+        tracker.ensureDense(ExerciseType.SPATIAL_MEMORY, List.of("0,0", "1,0"));
+        tracker.record(ExerciseType.SPATIAL_MEMORY, "0,0", "1,0");
+        tracker.ensureSparse(ExerciseType.SPATIAL_MEMORY);
+        tracker.record(ExerciseType.SPATIAL_MEMORY, "20,20", "21,20");
+
+        assertEquals(1, tracker.count(ExerciseType.SPATIAL_MEMORY, "0,0", "1,0"));
+        assertEquals(1, tracker.count(ExerciseType.SPATIAL_MEMORY, "20,20", "21,20"));
+        assertNotNull(tracker.samplePair(ExerciseType.SPATIAL_MEMORY, new Random(1)));
+    }
+}
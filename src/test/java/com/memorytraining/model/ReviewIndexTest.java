@@ -0,0 +1,104 @@
+package com.memorytraining.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ReviewIndexTest {
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    @Test
+    void followsTheSm2Schedule() {
+        ReviewIndex index = new ReviewIndex();
+        index.review("cat", true, 0);
+        assertEquals(24 * 60, index.getIntervalMinutes("cat"));
+        assertEquals(DAY, index.getDue("cat"));
+        assertEquals(2.6, index.getEase("cat"), 1e-9);
+
+        index.review("cat", true, DAY);
+        assertEquals(6 * 24 * 60, index.getIntervalMinutes("cat"));
+
+        index.review("cat", true, 7 * DAY);
+        assertEquals(6 * 24 * 60 * 270 / 100, index.getIntervalMinutes("cat"));
+
+        index.review("cat", false, 30 * DAY);
+        assertEquals(10, index.getIntervalMinutes("cat"));
+        assertEquals(2.6, index.getEase("cat"), 1e-9);
+        assertEquals(30 * DAY + 10 * MINUTE, index.getDue("cat"));
+    }
+
+    @Test
+    void easeHasAFloor() {
+        ReviewIndex index = new ReviewIndex();
+        for (int i = 0; i < 20; i++) {
+            index.review("dog", false, i);
+        }
+        assertEquals(1.3, index.getEase("dog"), 1e-9);
+        assertEquals(2.5, index.getEase("unknown"), 1e-9);
+        assertEquals(Long.MAX_VALUE, index.getDue("unknown"));
+    }
+
+    @Test
+    void dueItemsComeMostOverdueFirstAndLeaveTheIndexIntact() {
+        ReviewIndex index = new ReviewIndex();
+        // Forgotten items are due ten minutes after their review
+        for (int i = 0; i < 40; i++) {
+            index.review("item" + i, false, (39 - i) * MINUTE);
+        }
+        index.review("later", true, 0);
+        long now = 60 * MINUTE;
+
+        List<String> due = index.dueItems(5, now, item -> true);
+        assertEquals(List.of("item39", "item38", "item37", "item36", "item35"), due);
+        assertEquals(due, index.dueItems(5, now, item -> true));
+        assertEquals(41, index.size());
+
+        List<String> all = index.dueItems(100, now, item -> true);
+        assertEquals(40, all.size());
+        assertFalse(all.contains("later"));
+
+        List<String> filtered = index.dueItems(3, now, item -> item.endsWith("7"));
+        assertEquals(List.of("item37", "item27", "item17"), filtered);
+    }
+
+    @Test
+    void rescheduledItemMovesInTheHeap() {
+        ReviewIndex index = new ReviewIndex();
+        index.review("a", false, 0);
+        index.review("b", false, MINUTE);
+        index.review("a", true, 2 * MINUTE);
+
+        assertEquals(List.of("b"), index.dueItems(10, 20 * MINUTE, item -> true));
+    }
+
+    @Test
+    void binaryRoundTripKeepsScheduleAndOrder() throws IOException {
+        ReviewIndex index = new ReviewIndex();
+        for (int i = 0; i < 25; i++) {
+            index.review("w" + i, i % 3 != 0, (25 - i) * MINUTE);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.write(out);
+        }
+        ReviewIndex copy = ReviewIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), copy.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(index.getDue("w" + i), copy.getDue("w" + i));
+            assertEquals(index.getIntervalMinutes("w" + i), copy.getIntervalMinutes("w" + i));
+            assertEquals(index.getEase("w" + i), copy.getEase("w" + i));
+        }
+        long now = 30 * DAY;
+        assertEquals(index.dueItems(25, now, item -> true), copy.dueItems(25, now, item -> true));
+    }
+}
@@ -0,0 +1,95 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerMatcherTest {
+    private final AnswerMatcher matcher = new AnswerMatcher();
+
+    @Test
+    void editDistanceOfKnownPairs() {
+        assertEquals(0, matcher.editDistance("", ""));
+        assertEquals(3, matcher.editDistance("", "abc"));
+        assertEquals(3, matcher.editDistance("abc", ""));
+        assertEquals(3, matcher.editDistance("kitten", "sitting"));
+        assertEquals(2, matcher.editDistance("flaw", "lawn"));
+        assertEquals(0, matcher.editDistance("Garden", "gARDEN"));
+    }
+
+    @Test
+    void bitParallelDistanceAgreesWithDynamicProgramming() {
+        Random random = new Random(42);
+        // Lengths either side of one 64-bit word, plus non-ASCII letters for the fallback
+        String alphabet = "abcdeé";
+        for (int round = 0; round < 2000; round++) {
+            String a = randomString(random, alphabet, random.nextInt(80));
+            String b = randomString(random, alphabet, random.nextInt(80));
+            assertEquals(levenshtein(a, b), matcher.editDistance(a, b), a + " vs " + b);
+        }
+    }
+
+    @Test
+    void matchesToleratesTyposWithinLimitOnly() {
+        assertTrue(matcher.matches("elephant", " Elephnat ", 2));
+        assertFalse(matcher.matches("elephant", "elepant", 0));
+        assertTrue(matcher.matches("elephant", "elepant", 1));
+        assertFalse(matcher.matches("house", "mouse", 0));
+        assertTrue(matcher.matches("house", " HOUSE", 0));
+    }
+
+    @Test
+    void countCorrectKeepsLaterItemsAfterAMissedOne() {
+        List<String> expected = List.of("apple", "river", "candle", "tiger", "window");
+        List<String> actual = List.of("apple", "candle", "tigar", "window");
+        assertEquals(4, matcher.countCorrect(ExerciseType.WORD_MEMORY, expected, actual));
+        // Numbers allow no typos
+        assertEquals(2, matcher.countCorrect(ExerciseType.NUMBER_MEMORY,
+                List.of("12", "34", "56"), List.of("12", "43", "56")));
+    }
+
+    @Test
+    void reusedPatternsDoNotCarryOverBetweenSequences() {
+        List<String> first = List.of("elephant", "giraffe", "zebra");
+        List<String> second = List.of("lion", "tortoise");
+        assertEquals(3, matcher.countCorrect(ExerciseType.WORD_MEMORY, first, List.of("elephnat", "girafe", "zebra")));
+        // Masks left behind by the longer items would let these typos through
+        assertEquals(0, matcher.countCorrect(ExerciseType.WORD_MEMORY, second, List.of("elephant", "giraffe")));
+        assertEquals(2, matcher.countCorrect(ExerciseType.WORD_MEMORY, second, List.of("lion", "tortiose")));
+        assertEquals(3, matcher.countCorrect(ExerciseType.WORD_MEMORY, first, List.of("elephant", "giraffe", "zebra")));
+        assertEquals(3, matcher.editDistance("kitten", "sitting"));
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,45 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DisplayTimeCalibratorTest {
+    private static final ExerciseType TYPE = ExerciseType.WORD_MEMORY;
+    private static final int LEVEL = 3;
+    private static final int LENGTH = 10;
+
+    private final DisplayTimeCalibrator calibrator = new DisplayTimeCalibrator(0.75);
+    private final int defaultMs = DisplayTimeTable.defaults().getDisplayTimeMs(TYPE, LEVEL, LENGTH);
+
+    @Test
+    void roundsBelowTargetGetMoreTimeThanTheDefaults() {
+        DisplayTimeCalibrator.Stats stats = new DisplayTimeCalibrator.Stats();
+        addRounds(stats, 0, 200, 5);
+
+        assertTrue(calibrator.calibrate(stats).getDisplayTimeMs(TYPE, LEVEL, LENGTH) > defaultMs);
+    }
+
+    @Test
+    void roundsPlayedAtTheCalibratedTimeAndOnTargetKeepIt() {
+        // Rounds were shown with a time from an earlier calibration and hit the target
+        int calibratedMs = defaultMs * 3 / 2;
+        DisplayTimeCalibrator.Stats stats = new DisplayTimeCalibrator.Stats();
+        addRounds(stats, calibratedMs, 200, 7);
+        addRounds(stats, calibratedMs, 200, 8);
+
+        int recalibrated = calibrator.calibrate(stats).getDisplayTimeMs(TYPE, LEVEL, LENGTH);
+        assertEquals(calibratedMs, recalibrated, 1);
+    }
+
+    private static void addRounds(DisplayTimeCalibrator.Stats stats, int displayTimeMs, int rounds, int correct) {
+        for (int i = 0; i < rounds; i++) {
+            Score score = new Score(TYPE, 50, LEVEL, 20_000, correct, LENGTH);
+            score.setDisplayTimeMs(displayTimeMs);
+            stats.add(score);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PercentileServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentSavesLeaveAReadableFile() throws Exception {
+        PercentileService service = new PercentileService(tempDir);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                saves.add(pool.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        service.record(new Score(ExerciseType.NUMBER_MEMORY, i, 3, 5_000, 6, 10));
+                        service.save();
+                    }
+                }));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        service.save();
+
+        PercentileService reloaded = new PercentileService(tempDir);
+        assertEquals(service.getScorePercentile(ExerciseType.NUMBER_MEMORY, 3, 25),
+                reloaded.getScorePercentile(ExerciseType.NUMBER_MEMORY, 3, 25));
+    }
+}
@@ -0,0 +1,66 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfileCacheTest {
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private final List<String> loaded = new ArrayList<>();
+    private final List<String> written = new ArrayList<>();
+
+    @Test
+    void evictedDirtyProfileIsWrittenOnTheExecutor() {
+        ProfileCache cache = cache();
+        User alice = new User("alice");
+        cache.put(alice, true);
+        cache.put(new User("bob"), false);
+        cache.put(new User("carol"), false);
+
+        // Alice was evicted, but nothing was written on the caller's thread
+        assertEquals(List.of("bob", "carol"), cache.getCachedUsernames());
+        assertTrue(written.isEmpty());
+        assertEquals(1, queued.size());
+
+        queued.poll().run();
+        assertEquals(List.of("alice"), written);
+        assertEquals(1, cache.getWriteBacks());
+    }
+
+    @Test
+    void lookupWhileTheWriteIsQueuedReturnsTheEvictedProfile() {
+        ProfileCache cache = cache();
+        User alice = new User("alice");
+        cache.put(alice, true);
+        cache.put(new User("bob"), false);
+        cache.put(new User("carol"), false);
+
+        assertSame(alice, cache.get("alice"));
+        assertTrue(loaded.isEmpty());
+
+        // Once written, a later miss goes back to storage
+        queued.poll().run();
+        cache.put(new User("dave"), false);
+        cache.put(new User("erin"), false);
+        cache.get("alice");
+        assertEquals(List.of("alice"), loaded);
+    }
+
+    private ProfileCache cache() {
+        return new ProfileCache(2,
+                username -> {
+                    loaded.add(username);
+                    return new User(username);
+                },
+                user -> written.add(user.getUsername()),
+                queued::add);
+    }
+}
@@ -0,0 +1,65 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReminderServiceTest {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void seedSchedulesEveryProfileFromWhenItLastTrained() throws IOException {
+        DataService dataService = new DataService(tempDir);
+        LocalDateTime trainedAt = LocalDateTime.now().minusDays(3).withNano(0);
+        LocalDateTime loggedInAt = LocalDateTime.now().minusDays(1).withNano(0);
+
+        User trained = profile("alice", 5, loggedInAt);
+        Score score = new Score(ExerciseType.NUMBER_MEMORY, 50, 3, 10_000, 8, 10);
+        score.setCompletedAt(trainedAt);
+        trained.addScore(score);
+        dataService.writeProfile(trained);
+        dataService.writeProfile(profile("bob", 2, loggedInAt));
+        User off = profile("carol", 2, loggedInAt);
+        off.getPreferences().setRemindersEnabled(false);
+        dataService.writeProfile(off);
+
+        ReminderService reminders = new ReminderService(tempDir);
+        reminders.seed(dataService);
+
+        assertEquals(millis(trainedAt) + 5 * DAY_MS, reminders.getNextReminder("alice"));
+        assertEquals(millis(loggedInAt) + 2 * DAY_MS, reminders.getNextReminder("bob"));
+        assertEquals(-1, reminders.getNextReminder("carol"));
+
+        // Seeded entries are kept across restarts and are not overwritten by a second seed
+        reminders.shutdown();
+        ReminderService restarted = new ReminderService(tempDir);
+        restarted.seed(dataService);
+        assertEquals(millis(trainedAt) + 5 * DAY_MS, restarted.getNextReminder("alice"));
+        assertEquals(millis(loggedInAt) + 2 * DAY_MS, restarted.getNextReminder("bob"));
+        restarted.shutdown();
+    }
+
+    private static User profile(String username, int frequencyDays, LocalDateTime lastLoginAt) {
+        User user = new User(username);
+        user.setLastLoginAt(lastLoginAt);
+        user.getPreferences().setRemindersEnabled(true);
+        user.getPreferences().setReminderFrequencyDays(frequencyDays);
+        return user;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,226 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import com.memorytraining.model.ScoreQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreArchiveTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_000_000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rolledScoresReadBackUnchanged() throws IOException {
+        ScoreArchive archive = new ScoreArchive(tempDir);
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Score score = score(ExerciseType.values()[i % ExerciseType.values().length], 50 + i, i);
+            score.setScoringVersion(1 + i % 3);
+            score.setDrill(i % 10 == 0);
+            score.setDisplayTimeMs(i % 4 == 0 ? 0 : 1_000 + 10 * i);
+            scores.add(score);
+        }
+        Score recent = score(ExerciseType.WORD_MEMORY, 99, 90);
+
+        List<Score> remaining = archive.rollOlderThan(append(scores, recent), START.plusDays(60));
+        assertEquals(List.of(recent), remaining);
+
+        // A fresh instance sees only what is on disk; scores spanning two months give two segments
+        ScoreArchive reopened = new ScoreArchive(tempDir);
+        List<ScoreArchive.SegmentInfo> segments = reopened.getSegments();
+        assertEquals(2, segments.size());
+        List<Score> read = new ArrayList<>();
+        for (ScoreArchive.SegmentInfo segment : segments) {
+            assertEquals(47, segment.getRecordBytes());
+            read.addAll(reopened.readSegment(segment));
+        }
+        assertEquals(scores.size(), read.size());
+        for (int i = 0; i < scores.size(); i++) {
+            assertSameScore(scores.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    void queryUsesTypeAndTimeRange() {
+        ScoreArchive archive = new ScoreArchive(tempDir);
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            scores.add(score(i % 2 == 0 ? ExerciseType.NUMBER_MEMORY : ExerciseType.COLOR_MEMORY, i, i));
+        }
+        archive.rollOlderThan(scores, START.plusYears(1));
+
+        ScoreQuery query = ScoreQuery.all().type(ExerciseType.COLOR_MEMORY)
+                .from(START.plusDays(10)).to(START.plusDays(20));
+        List<Score> expected = scores.stream().filter(query::matches).collect(Collectors.toList());
+        List<Score> actual = archive.query(query).collect(Collectors.toList());
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameScore(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    void queryFromAnOffsetSkipsWholeSegmentsByCount() {
+        ScoreArchive archive = new ScoreArchive(tempDir);
+        List<Score> scores = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            scores.add(score(i % 3 == 0 ? ExerciseType.NUMBER_MEMORY : ExerciseType.COLOR_MEMORY, i, i));
+        }
+        archive.rollOlderThan(scores, START.plusYears(1));
+
+        for (ScoreQuery query : List.of(ScoreQuery.all(), ScoreQuery.all().type(ExerciseType.NUMBER_MEMORY),
+                ScoreQuery.all().minLevel(4).from(START.plusDays(15)))) {
+            List<Score> expected = scores.stream().filter(query::matches).collect(Collectors.toList());
+            assertEquals(expected.size(), archive.count(query));
+            for (int offset : new int[] {0, 1, 29, 30, expected.size() - 1, expected.size()}) {
+                List<Score> page = archive.query(query, offset).limit(25).collect(Collectors.toList());
+                List<Score> wanted = expected.subList(offset, Math.min(expected.size(), offset + 25));
+                assertEquals(wanted.size(), page.size());
+                for (int i = 0; i < wanted.size(); i++) {
+                    assertSameScore(wanted.get(i), page.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rollingTwiceDoesNotArchiveTwice() {
+        ScoreArchive archive = new ScoreArchive(tempDir);
+        List<Score> scores = List.of(score(ExerciseType.NUMBER_MEMORY, 10, 0), score(ExerciseType.NUMBER_MEMORY, 20, 1));
+        archive.rollOlderThan(scores, START.plusYears(1));
+        archive.rollOlderThan(scores, START.plusYears(1));
+
+        assertEquals(2, new ScoreArchive(tempDir).query(ScoreQuery.all()).count());
+    }
+
+    @Test
+    void legacySegmentsReadAsVersionOneAndUpgradeOnRescore() throws IOException {
+        List<Score> scores = List.of(
+                score(ExerciseType.SPATIAL_MEMORY, 42.5, 0),
+                score(ExerciseType.WORD_MEMORY, 77, 1));
+        scores.get(1).setDrill(true);
+        writeLegacySegment(tempDir.resolve("2024-03-0001.seg"), scores);
+
+        ScoreArchive archive = new ScoreArchive(tempDir);
+        ScoreArchive.SegmentInfo legacy = archive.getSegments().get(0);
+        assertEquals(41, legacy.getRecordBytes());
+        List<Score> read = archive.readSegment(legacy);
+        assertEquals(2, read.size());
+        for (int i = 0; i < scores.size(); i++) {
+            assertSameScore(scores.get(i), read.get(i));
+        }
+
+        ScoringFunction version2 = new ScoringFunction() {
+            @Override
+            public int getVersion() {
+                return 2;
+            }
+
+            @Override
+            public double score(ExerciseType exerciseType, int level, int correctAnswers, int totalQuestions, long timeSpentMs) {
+                return correctAnswers * 10.0;
+            }
+        };
+        assertEquals(2, archive.rescore(new ScoreRescorer(), version2));
+
+        ScoreArchive reopened = new ScoreArchive(tempDir);
+        ScoreArchive.SegmentInfo upgraded = reopened.getSegments().get(0);
+        assertEquals(47, upgraded.getRecordBytes());
+        List<Score> rescored = reopened.readSegment(upgraded);
+        assertTrue(rescored.stream().allMatch(score -> score.getScoringVersion() == 2 && score.getScore() == 80));
+        assertTrue(rescored.get(1).isDrill());
+        assertEquals(0, reopened.rescore(new ScoreRescorer(), version2));
+    }
+
+    private static Score score(ExerciseType type, double points, int day) {
+        Score score = new Score(type, points, 1 + day % 10, 10_000 + day, 8, 10);
+        score.setCompletedAt(START.plusDays(day).plusNanos(day * 1_000L));
+        return score;
+    }
+
+    private static List<Score> append(List<Score> scores, Score score) {
+        List<Score> all = new ArrayList<>(scores);
+        all.add(score);
+        return all;
+    }
+
+    private static void assertSameScore(Score expected, Score actual) {
+        assertEquals(expected.getExerciseType(), actual.getExerciseType());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getTimeSpentMs(), actual.getTimeSpentMs());
+        assertEquals(expected.getCorrectAnswers(), actual.getCorrectAnswers());
+        assertEquals(expected.getTotalQuestions(), actual.getTotalQuestions());
+        assertEquals(expected.getCompletedAt(), actual.getCompletedAt());
+        assertEquals(expected.getScoringVersion(), actual.getScoringVersion());
+        assertEquals(expected.isDrill(), actual.isDrill());
+        assertEquals(expected.getDisplayTimeMs(), actual.getDisplayTimeMs());
+    }
+
+    /**
+     * A segment as written before scoring versions: "LAS1" magic and 41-byte records
+     */
+    private static void writeLegacySegment(Path path, List<Score> scores) throws IOException {
+        ByteBuffer raw = ByteBuffer.allocate(scores.size() * 41);
+        int[] typeCounts = new int[ExerciseType.values().length];
+        for (Score score : scores) {
+            raw.put((byte) (score.getExerciseType().ordinal() | (score.isDrill() ? 0x80 : 0)));
+            raw.putDouble(score.getScore());
+            raw.putInt(score.getLevel());
+            raw.putLong(score.getTimeSpentMs());
+            raw.putInt(score.getCorrectAnswers());
+            raw.putInt(score.getTotalQuestions());
+            raw.putLong(score.getCompletedAt().toEpochSecond(ZoneOffset.UTC));
+            raw.putInt(score.getCompletedAt().getNano());
+            typeCounts[score.getExerciseType().ordinal()]++;
+        }
+
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw.array());
+        deflater.finish();
+        byte[] buffer = new byte[4096];
+        int compressedLength = deflater.deflate(buffer);
+        deflater.end();
+
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        try (DataOutputStream footer = new DataOutputStream(footerBytes)) {
+            footer.writeInt(0x4C415331);
+            footer.writeInt(scores.size());
+            footer.writeLong(ScoreQuery.epochMs(scores.get(0).getCompletedAt()));
+            footer.writeLong(ScoreQuery.epochMs(scores.get(scores.size() - 1).getCompletedAt()));
+            footer.writeInt(compressedLength);
+            footer.writeInt(typeCounts.length);
+            for (ExerciseType type : ExerciseType.values()) {
+                footer.writeUTF(type.name());
+                footer.writeInt(typeCounts[type.ordinal()]);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            out.write(buffer, 0, compressedLength);
+            out.write(footerBytes.toByteArray());
+            out.writeInt(footerBytes.size());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.memorytraining.service;
+
+import com.memorytraining.model.ExerciseType;
+import com.memorytraining.model.Score;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncServiceTest {
+    private static final String SECRET = "shared-secret";
+
+    @TempDir
+    Path tempDir;
+
+    private final List<SyncService> started = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        started.forEach(SyncService::stop);
+    }
+
+    @Test
+    void roundTripOverLoopbackExchangesBothWays() throws Exception {
+        SyncService server = station("server", SECRET);
+        SyncService client = station("client", SECRET);
+        List<SyncService.JournalEntry> receivedByServer = new ArrayList<>();
+        List<SyncService.JournalEntry> receivedByClient = new ArrayList<>();
+        server.setRemoteScoreHandler(receivedByServer::addAll);
+        client.setRemoteScoreHandler(receivedByClient::addAll);
+        URI serverUri = serve(server);
+
+        Score fromClient = score(80);
+        Score fromServer = score(120);
+        assertTrue(client.recordLocal("alice", fromClient));
+        assertTrue(server.recordLocal("bob", fromServer));
+
+        assertEquals(1, client.syncWith(serverUri));
+
+        assertEquals(1, receivedByServer.size());
+        assertEquals("alice", receivedByServer.get(0).getUsername());
+        assertEquals(80, receivedByServer.get(0).getScore().getScore());
+        assertEquals(1, receivedByClient.size());
+        assertEquals("bob", receivedByClient.get(0).getUsername());
+        assertEquals(server.getVectorClock(), client.getVectorClock());
+
+        // Nothing new the second time, and the hashes computed on both sides agree
+        assertEquals(0, client.syncWith(serverUri));
+        assertEquals(1, receivedByServer.size());
+        assertFalse(client.recordLocal("bob", fromServer));
+    }
+
+    @Test
+    void peerWithAnotherSecretIsRefused() throws Exception {
+        SyncService server = station("server", SECRET);
+        SyncService intruder = station("intruder", "wrong-secret");
+        List<SyncService.JournalEntry> received = new ArrayList<>();
+        server.setRemoteScoreHandler(received::addAll);
+        URI serverUri = serve(server);
+
+        intruder.recordLocal("mallory", score(200));
+
+        IOException error = assertThrows(IOException.class, () -> intruder.syncWith(serverUri));
+        assertTrue(error.getMessage().contains("401"));
+        assertTrue(received.isEmpty());
+        assertTrue(server.getVectorClock().isEmpty());
+    }
+
+    @Test
+    void mergeAcceptsEachOriginInSequenceOnly() throws Exception {
+        SyncService source = station("source", SECRET);
+        SyncService target = station("target", SECRET);
+        List<SyncService.JournalEntry> received = new ArrayList<>();
+        target.setRemoteScoreHandler(received::addAll);
+        for (int i = 1; i <= 3; i++) {
+            source.recordLocal("alice", score(10 * i));
+        }
+        List<SyncService.JournalEntry> journal = source.deltaSince(Map.of(), 10);
+        assertEquals(3, journal.size());
+
+        // Out of order: only the entry that continues the sequence is taken
+        List<SyncService.JournalEntry> reversed = new ArrayList<>(journal);
+        Collections.reverse(reversed);
+        assertEquals(1, target.merge(reversed));
+        assertEquals(Map.of(source.getStationId(), 1L), target.getVectorClock());
+
+        // The rest arrives on a later round; entries already seen are ignored
+        assertEquals(2, target.merge(journal));
+        assertEquals(0, target.merge(journal));
+        assertEquals(source.getVectorClock(), target.getVectorClock());
+        assertEquals(3, received.size());
+        assertTrue(target.deltaSince(source.getVectorClock(), 10).isEmpty());
+    }
+
+    @Test
+    void sameScoreFromTwoOriginsAdvancesBothClocksButIsHandledOnce() throws Exception {
+        SyncService first = station("first", SECRET);
+        SyncService second = station("second", SECRET);
+        SyncService target = station("target", SECRET);
+        List<SyncService.JournalEntry> received = new ArrayList<>();
+        target.setRemoteScoreHandler(received::addAll);
+        Score shared = score(50);
+        first.recordLocal("carol", shared);
+        second.recordLocal("carol", shared);
+
+        assertEquals(1, target.merge(first.deltaSince(Map.of(), 10)));
+        assertEquals(0, target.merge(second.deltaSince(Map.of(), 10)));
+
+        assertEquals(1, received.size());
+        Map<String, Long> clock = target.getVectorClock();
+        assertEquals(1L, clock.get(first.getStationId()));
+        assertEquals(1L, clock.get(second.getStationId()));
+    }
+
+    @Test
+    void journalSurvivesARestart() throws Exception {
+        SyncService source = station("source", SECRET);
+        SyncService target = station("target", SECRET);
+        source.recordLocal("dave", score(70));
+        source.recordLocal("dave", score(75));
+        target.merge(source.deltaSince(Map.of(), 10));
+        target.stop();
+
+        SyncService restarted = new SyncService(tempDir.resolve("target"), SECRET);
+        started.add(restarted);
+        assertEquals(source.getVectorClock(), restarted.getVectorClock());
+        assertEquals(2, restarted.deltaSince(Map.of(), 10).size());
+    }
+
+    private SyncService station(String name, String secret) throws IOException {
+        Path directory = Files.createDirectories(tempDir.resolve(name));
+        SyncService service = new SyncService(directory, secret);
+        started.add(service);
+        return service;
+    }
+
+    private static URI serve(SyncService service) throws IOException {
+        service.startServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return URI.create("http://127.0.0.1:" + service.getPort());
+    }
+
+    private static Score score(double points) {
+        return new Score(ExerciseType.NUMBER_MEMORY, points, 3, 12_000, 8, 10);
+    }
+}
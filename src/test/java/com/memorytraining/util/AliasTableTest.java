@@ -0,0 +1,47 @@
+package com.memorytraining.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AliasTableTest {
+
+    @Test
+    void samplesInProportionToWeight() {
+        double[] weights = {1, 0, 3, 6, 0.5};
+        AliasTable table = new AliasTable(weights);
+        Random random = new Random(11);
+        int samples = 200_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < samples; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        double total = 10.5;
+        assertEquals(weights.length, table.size());
+        assertEquals(0, counts[1], "zero weights are never drawn");
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / total, (double) counts[i] / samples, 0.01);
+        }
+    }
+
+    @Test
+    void singleWeightAlwaysWins() {
+        AliasTable table = new AliasTable(new double[] {0, 0, 2});
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(2, table.sample(random));
+        }
+    }
+
+    @Test
+    void rejectsInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[] {0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[] {1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[] {Double.NaN}));
+    }
+}
@@ -0,0 +1,90 @@
+package com.memorytraining.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownsamplerTest {
+
+    @Test
+    void keepsEveryPointWhenUnderThreshold() {
+        double[] values = {3, 1, 4, 1, 5};
+        int[] out = new int[values.length];
+        assertEquals(5, Downsampler.largestTriangleThreeBuckets(values, 0, values.length, 10, out));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i, out[i]);
+        }
+    }
+
+    @Test
+    void selectsThresholdPointsInOrderWithEndpoints() {
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i / 25.0);
+        }
+        int[] out = new int[50];
+        int count = Downsampler.largestTriangleThreeBuckets(values, 0, values.length, 50, out);
+
+        assertEquals(50, count);
+        assertEquals(0, out[0]);
+        assertEquals(values.length - 1, out[count - 1]);
+        for (int i = 1; i < count; i++) {
+            assertTrue(out[i] > out[i - 1], "indices must be ascending");
+        }
+    }
+
+    @Test
+    void keepsAnIsolatedSpike() {
+        double[] values = new double[500];
+        values[237] = 100;
+        int[] out = new int[20];
+        int count = Downsampler.largestTriangleThreeBuckets(values, 0, values.length, 20, out);
+
+        boolean found = false;
+        for (int i = 0; i < count; i++) {
+            found |= out[i] == 237;
+        }
+        assertTrue(found, "the spike should survive downsampling");
+    }
+
+    @Test
+    void honoursTheSubrange() {
+        double[] values = new double[300];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 7;
+        }
+        int[] out = new int[10];
+        int count = Downsampler.largestTriangleThreeBuckets(values, 100, 200, 10, out);
+
+        assertEquals(10, count);
+        assertEquals(100, out[0]);
+        assertEquals(199, out[count - 1]);
+    }
+
+    @Test
+    void streamingSelectsTheSamePointsAsTheArrayVersion() {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; round++) {
+            double[] values = new double[random.nextInt(2000)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextGaussian() * 30 + (i % 97);
+            }
+            int threshold = 1 + random.nextInt(120);
+            int[] out = new int[Math.max(threshold, 2)];
+            int count = Downsampler.largestTriangleThreeBuckets(values, 0, values.length, threshold, out);
+
+            Downsampler.Streaming streaming = new Downsampler.Streaming(values.length, threshold);
+            for (double value : values) {
+                streaming.add(value);
+            }
+            assertEquals(count, streaming.getCount(), values.length + " values, threshold " + threshold);
+            for (int i = 0; i < count; i++) {
+                assertEquals(out[i], streaming.getIndex(i));
+                assertEquals(values[out[i]], streaming.getValue(i));
+            }
+        }
+    }
+}
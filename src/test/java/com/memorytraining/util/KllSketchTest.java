@@ -0,0 +1,83 @@
+package com.memorytraining.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KllSketchTest {
+    private static final int N = 100_000;
+    private static final double RANK_ERROR = 0.02;
+
+    @Test
+    void ranksAndQuantilesStayWithinError() {
+        KllSketch sketch = new KllSketch();
+        Random random = new Random(7);
+        for (int i = 0; i < N; i++) {
+            sketch.update(random.nextFloat() * 1000);
+        }
+
+        assertEquals(N, sketch.getCount());
+        assertTrue(sketch.retainedItems() < N / 10, "sketch should stay small");
+        for (float value = 100; value < 1000; value += 100) {
+            assertEquals(value / 1000, sketch.rank(value), RANK_ERROR);
+        }
+        for (double q = 0.1; q < 1; q += 0.1) {
+            assertEquals(q * 1000, sketch.quantile(q), RANK_ERROR * 1000);
+        }
+    }
+
+    @Test
+    void tracksExactMinAndMax() {
+        KllSketch sketch = new KllSketch();
+        for (int i = 1; i <= 5000; i++) {
+            sketch.update(i);
+        }
+        assertEquals(1, sketch.getMin());
+        assertEquals(5000, sketch.getMax());
+        assertEquals(1, sketch.quantile(0));
+        assertEquals(5000, sketch.quantile(1));
+        assertEquals(1.0, sketch.rank(5000));
+    }
+
+    @Test
+    void mergeMatchesASingleSketch() {
+        KllSketch low = new KllSketch();
+        KllSketch high = new KllSketch();
+        for (int i = 0; i < N; i++) {
+            (i % 2 == 0 ? low : high).update(i);
+        }
+        low.merge(high);
+
+        assertEquals(N, low.getCount());
+        assertEquals(0.25, low.rank(N / 4f), RANK_ERROR);
+        assertEquals(0.75, low.rank(3 * N / 4f), RANK_ERROR);
+    }
+
+    @Test
+    void serializedSketchAnswersTheSame() {
+        KllSketch sketch = new KllSketch(100);
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.update((float) random.nextGaussian());
+        }
+        KllSketch copy = KllSketch.fromByteArray(sketch.toByteArray());
+
+        assertEquals(sketch.getCount(), copy.getCount());
+        assertEquals(sketch.getMin(), copy.getMin());
+        assertEquals(sketch.getMax(), copy.getMax());
+        for (double q = 0.05; q < 1; q += 0.05) {
+            assertEquals(sketch.quantile(q), copy.quantile(q));
+        }
+    }
+
+    @Test
+    void emptySketchHasNoAnswers() {
+        KllSketch sketch = new KllSketch();
+        assertTrue(sketch.isEmpty());
+        assertTrue(Double.isNaN(sketch.rank(1)));
+        assertTrue(Float.isNaN(sketch.quantile(0.5)));
+    }
+}
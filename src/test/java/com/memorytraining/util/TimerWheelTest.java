@@ -0,0 +1,106 @@
+package com.memorytraining.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+    private static final long TICK = 100;
+
+    @Test
+    void firesAtTheDeadlineAndNotBefore() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 500);
+
+        wheel.advanceTo(200, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(300, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(1, wheel.size());
+        wheel.advanceTo(500, fired::add);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlinesBeyondOneRotationWaitForTheirTurn() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, 0);
+        List<String> fired = new ArrayList<>();
+        // Same bucket as tick 2, three rotations later
+        wheel.schedule("far", 2_600);
+
+        for (long now = 0; now < 2_600; now += TICK) {
+            wheel.advanceTo(now, fired::add);
+        }
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(2_600, fired::add);
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    void longJumpFiresEverythingDueOnly() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(TICK, 8, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(i, i * 1_000L);
+        }
+        List<Integer> fired = new ArrayList<>();
+        wheel.advanceTo(10_000, fired::add);
+
+        assertEquals(10, fired.size());
+        assertTrue(fired.stream().allMatch(key -> key <= 10));
+        assertEquals(10, wheel.size());
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceTheDeadline() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("moved", 200);
+        wheel.schedule("moved", 900);
+        wheel.schedule("gone", 300);
+        assertEquals(900, wheel.getDeadline("moved"));
+
+        assertTrue(wheel.cancel("gone"));
+        assertFalse(wheel.cancel("gone"));
+        assertEquals(-1, wheel.getDeadline("gone"));
+
+        wheel.advanceTo(800, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(900, fired::add);
+        assertEquals(List.of("moved"), fired);
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, 1_000);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("late", 500);
+
+        wheel.advanceTo(1_000, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(1_100, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void callbackMayScheduleTheKeyAgain() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("repeat", 100);
+        wheel.advanceTo(100, key -> {
+            fired.add(key);
+            wheel.schedule(key, 300);
+        });
+
+        assertEquals(300, wheel.getDeadline("repeat"));
+        wheel.advanceTo(300, fired::add);
+        assertEquals(List.of("repeat", "repeat"), fired);
+    }
+}